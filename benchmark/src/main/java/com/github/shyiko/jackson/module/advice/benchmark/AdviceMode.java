@@ -0,0 +1,124 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.github.shyiko.jackson.module.advice.AbstractBeanDeserializerAdvice;
+import com.github.shyiko.jackson.module.advice.AbstractBeanSerializerAdvice;
+import com.github.shyiko.jackson.module.advice.BeanDeserializerAdvice;
+import com.github.shyiko.jackson.module.advice.BeanSerializerAdvice;
+import com.github.shyiko.jackson.module.advice.JsonAdviceModule;
+
+import java.io.IOException;
+
+/**
+ * Kind of advice applied to the types under test.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public enum AdviceMode {
+
+    /**
+     * Stock Jackson (JsonAdviceModule is not registered).
+     */
+    NONE(null, null),
+    /**
+     * Advice which doesn't override any of the hooks.
+     */
+    NOOP(NoopSerializerAdvice.class, NoopDeserializerAdvice.class),
+    /**
+     * Advice overriding bean-scoped hooks only.
+     */
+    BEAN(BeanScopedSerializerAdvice.class, BeanScopedDeserializerAdvice.class),
+    /**
+     * Advice overriding property-scoped hooks only.
+     */
+    PROPERTY(PropertyScopedSerializerAdvice.class, PropertyScopedDeserializerAdvice.class);
+
+    private final Class<? extends BeanSerializerAdvice> serializerAdvice;
+    private final Class<? extends BeanDeserializerAdvice> deserializerAdvice;
+
+    AdviceMode(Class<? extends BeanSerializerAdvice> serializerAdvice,
+            Class<? extends BeanDeserializerAdvice> deserializerAdvice) {
+        this.serializerAdvice = serializerAdvice;
+        this.deserializerAdvice = deserializerAdvice;
+    }
+
+    /**
+     * @param types types to advise (both serialization and deserialization)
+     * @return object mapper
+     */
+    public ObjectMapper objectMapper(Class<?>... types) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        if (serializerAdvice != null) {
+            JsonAdviceModule module = new JsonAdviceModule();
+            for (Class<?> type : types) {
+                module.withSerializerAdvice(type, serializerAdvice).withDeserializerAdvice(type, deserializerAdvice);
+            }
+            objectMapper.registerModule(module);
+        }
+        return objectMapper;
+    }
+
+    public static class NoopSerializerAdvice extends AbstractBeanSerializerAdvice<Object> {
+    }
+
+    public static class NoopDeserializerAdvice extends AbstractBeanDeserializerAdvice<Object> {
+    }
+
+    public static class BeanScopedSerializerAdvice extends AbstractBeanSerializerAdvice<Object> {
+
+        @Override
+        public void before(Object bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+            json.writeStringField("self", "/beans");
+        }
+    }
+
+    public static class BeanScopedDeserializerAdvice extends AbstractBeanDeserializerAdvice<Object> {
+
+        @Override
+        public void after(Object bean, JsonParser json, DeserializationContext context) throws IOException {
+            if (bean == null) {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    public static class PropertyScopedSerializerAdvice extends AbstractBeanSerializerAdvice<Object> {
+
+        @Override
+        public void after(Object bean, JsonGenerator json, BeanProperty property, SerializerProvider provider)
+                throws IOException {
+            if (property.getName().length() == 0) {
+                json.writeNullField("never");
+            }
+        }
+    }
+
+    public static class PropertyScopedDeserializerAdvice extends AbstractBeanDeserializerAdvice<Object> {
+
+        @Override
+        public boolean intercept(Object bean, String propertyName, JsonParser json, DeserializationContext context)
+                throws IOException {
+            return propertyName.length() == 0;
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * (De)serialization of small ({@link SmallBean}), wide ({@link WideBean}) and nested ({@link NestedBean}) beans
+ * with each of the {@link AdviceMode}s. Run with "-prof gc" (or through {@link DataBindingBenchmarks}) to get
+ * allocation rate alongside the throughput.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanShapeBenchmark {
+
+    /**
+     * Shape of the bean under test.
+     */
+    public enum Shape { SMALL, WIDE, NESTED }
+
+    @Param
+    public Shape shape;
+    @Param
+    public AdviceMode advice;
+
+    private Object bean;
+    private byte[] json;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper;
+        switch (shape) {
+            case SMALL:
+                bean = SmallBean.create(1);
+                objectMapper = advice.objectMapper(SmallBean.class);
+                break;
+            case WIDE:
+                bean = WideBean.create();
+                objectMapper = advice.objectMapper(WideBean.class);
+                break;
+            case NESTED:
+                bean = NestedBean.create();
+                objectMapper = advice.objectMapper(NestedBean.class, SmallBean.class);
+                break;
+            default:
+                throw new UnsupportedOperationException(shape.toString());
+        }
+        writer = objectMapper.writer();
+        reader = objectMapper.reader(bean.getClass());
+        json = new ObjectMapper().writeValueAsBytes(bean);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(bean);
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.github.shyiko.jackson.module.advice.AbstractBeanSerializerAdvice;
+import com.github.shyiko.jackson.module.advice.JsonAdviceModule;
+import com.github.shyiko.jackson.module.advice.JsonSerializerAdvice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares vanilla BeanSerializer, AdvisedBeanSerializer and generated (JsonAdviceModule.withCodeGeneration(true))
+ * serializer in case of property-scoped advice. Advice call sites of AdvisedBeanSerializer are made megamorphic during
+ * the setup.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodeGenerationBenchmark {
+
+    private WideBean bean;
+    private ObjectMapper vanilla;
+    private ObjectMapper advised;
+    private ObjectMapper generated;
+
+    @Setup
+    public void setUp() throws IOException {
+        pollute();
+        bean = WideBean.create();
+        vanilla = new ObjectMapper();
+        advised = new ObjectMapper();
+        advised.registerModule(new JsonAdviceModule());
+        advised.addMixInAnnotations(WideBean.class, PropertyScopedAdviceMixin.class);
+        generated = new ObjectMapper();
+        generated.registerModule(new JsonAdviceModule().withCodeGeneration(true));
+        generated.addMixInAnnotations(WideBean.class, PropertyScopedAdviceMixin.class);
+    }
+
+    private void pollute() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JsonAdviceModule());
+        objectMapper.addMixInAnnotations(WideBeanA.class, WideBeanAMixin.class);
+        objectMapper.addMixInAnnotations(WideBeanB.class, WideBeanBMixin.class);
+        objectMapper.addMixInAnnotations(WideBeanC.class, WideBeanCMixin.class);
+        Object[] beans = {new WideBeanA(), new WideBeanB(), new WideBeanC()};
+        for (int i = 0; i < 30000; i++) {
+            objectMapper.writeValueAsBytes(beans[i % beans.length]);
+        }
+    }
+
+    @Benchmark
+    public byte[] vanilla() throws IOException {
+        return vanilla.writeValueAsBytes(bean);
+    }
+
+    @Benchmark
+    public byte[] advised() throws IOException {
+        return advised.writeValueAsBytes(bean);
+    }
+
+    @Benchmark
+    public byte[] generated() throws IOException {
+        return generated.writeValueAsBytes(bean);
+    }
+
+    @JsonSerializerAdvice(PropertyScopedAdvice.class)
+    public interface PropertyScopedAdviceMixin {
+    }
+
+    @JsonSerializerAdvice(AdviceA.class)
+    public interface WideBeanAMixin {
+    }
+
+    @JsonSerializerAdvice(AdviceB.class)
+    public interface WideBeanBMixin {
+    }
+
+    @JsonSerializerAdvice(AdviceC.class)
+    public interface WideBeanCMixin {
+    }
+
+    public static class WideBeanA extends WideBean {
+    }
+
+    public static class WideBeanB extends WideBean {
+    }
+
+    public static class WideBeanC extends WideBean {
+    }
+
+    public static class PropertyScopedAdvice extends AbstractBeanSerializerAdvice<WideBean> {
+
+        @Override
+        public void after(WideBean bean, JsonGenerator json, BeanProperty property, SerializerProvider provider)
+                throws IOException {
+            if (property.getName().length() == 0) {
+                json.writeNullField("never");
+            }
+        }
+    }
+
+    public static class AdviceA extends PropertyScopedAdvice {
+    }
+
+    public static class AdviceB extends PropertyScopedAdvice {
+    }
+
+    public static class AdviceC extends PropertyScopedAdvice {
+    }
+
+}
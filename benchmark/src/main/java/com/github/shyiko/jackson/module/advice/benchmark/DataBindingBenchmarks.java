@@ -0,0 +1,48 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs {@link BeanShapeBenchmark} and {@link DataBindingPathBenchmark} with gc profiler enabled (so that allocation
+ * rate is reported alongside the throughput). Any of the standard JMH options can be passed as arguments, e.g.
+ * <pre>
+ * java -cp benchmark/target/benchmarks.jar \
+ *     com.github.shyiko.jackson.module.advice.benchmark.DataBindingBenchmarks -p advice=NONE,PROPERTY
+ * </pre>
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public final class DataBindingBenchmarks {
+
+    private DataBindingBenchmarks() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder().
+            parent(new CommandLineOptions(args)).
+            include(BeanShapeBenchmark.class.getSimpleName()).
+            include(DataBindingPathBenchmark.class.getSimpleName()).
+            addProfiler(GCProfiler.class).
+            build()).run();
+    }
+
+}
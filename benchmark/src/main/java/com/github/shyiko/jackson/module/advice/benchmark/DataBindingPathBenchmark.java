@@ -0,0 +1,280 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.annotation.ObjectIdGenerators;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * (De)serialization through each of the data-binding paths of BeanSerializer/BeanDeserializer (and so
+ * AdvisedBeanSerializer/AdvisedBeanDeserializer) with each of the {@link AdviceMode}s. Paths which only affect
+ * serialization (FILTERED) are deserialized the same way VANILLA is. Run with "-prof gc" (or through
+ * {@link DataBindingBenchmarks}) to get allocation rate alongside the throughput.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataBindingPathBenchmark {
+
+    /**
+     * Data-binding path under test.
+     */
+    public enum Path { VANILLA, FILTERED, VIEWS, OBJECT_ID, UNWRAPPED, CREATOR, EXTERNAL_TYPE_ID }
+
+    @Param
+    public Path path;
+    @Param
+    public AdviceMode advice;
+
+    private Object bean;
+    private byte[] json;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper;
+        switch (path) {
+            case VANILLA:
+                bean = SmallBean.create(1);
+                objectMapper = advice.objectMapper(SmallBean.class);
+                writer = objectMapper.writer();
+                break;
+            case FILTERED:
+                bean = FilteredBean.create(1);
+                objectMapper = advice.objectMapper(FilteredBean.class);
+                writer = objectMapper.writer(new SimpleFilterProvider().addFilter("benchmark",
+                    SimpleBeanPropertyFilter.serializeAllExcept("email")));
+                break;
+            case VIEWS:
+                bean = ViewBean.create(1);
+                objectMapper = advice.objectMapper(ViewBean.class);
+                writer = objectMapper.writerWithView(PublicView.class);
+                break;
+            case OBJECT_ID:
+                bean = IdentifiedBean.create();
+                objectMapper = advice.objectMapper(IdentifiedBean.class);
+                writer = objectMapper.writer();
+                break;
+            case UNWRAPPED:
+                bean = UnwrappingBean.create(1);
+                objectMapper = advice.objectMapper(UnwrappingBean.class, SmallBean.class);
+                writer = objectMapper.writer();
+                break;
+            case CREATOR:
+                bean = CreatorBean.create(1);
+                objectMapper = advice.objectMapper(CreatorBean.class);
+                writer = objectMapper.writer();
+                break;
+            case EXTERNAL_TYPE_ID:
+                bean = EnvelopeBean.create(1);
+                objectMapper = advice.objectMapper(EnvelopeBean.class, TextPayload.class);
+                writer = objectMapper.writer();
+                break;
+            default:
+                throw new UnsupportedOperationException(path.toString());
+        }
+        reader = path == Path.VIEWS ? objectMapper.reader(bean.getClass()).withView(PublicView.class) :
+            objectMapper.reader(bean.getClass());
+        // input of deserialization is kept free of the fields injected by the advices
+        json = new ObjectMapper().writer(writer.getConfig().getFilterProvider()).
+            withView(writer.getConfig().getActiveView()).writeValueAsBytes(bean);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(bean);
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+
+    @JsonFilter("benchmark")
+    public static class FilteredBean extends SmallBean {
+
+        public static FilteredBean create(long id) {
+            FilteredBean bean = new FilteredBean();
+            bean.id = id;
+            bean.name = "name-" + id;
+            bean.email = "user-" + id + "@example.com";
+            bean.active = true;
+            bean.score = id * 1.5;
+            return bean;
+        }
+    }
+
+    /**
+     * View of the {@link ViewBean} properties.
+     */
+    public interface PublicView {
+    }
+
+    /**
+     * View of the {@link ViewBean} properties.
+     */
+    public interface InternalView {
+    }
+
+    public static class ViewBean {
+
+        @JsonView(PublicView.class)
+        public long id;
+        @JsonView(PublicView.class)
+        public String name;
+        @JsonView(InternalView.class)
+        public String email;
+        public boolean active;
+        @JsonView(InternalView.class)
+        public double score;
+
+        public static ViewBean create(long id) {
+            ViewBean bean = new ViewBean();
+            bean.id = id;
+            bean.name = "name-" + id;
+            bean.email = "user-" + id + "@example.com";
+            bean.active = true;
+            bean.score = id * 1.5;
+            return bean;
+        }
+    }
+
+    @JsonIdentityInfo(generator = ObjectIdGenerators.IntSequenceGenerator.class)
+    public static class IdentifiedBean {
+
+        public String name;
+        public IdentifiedBean partner;
+
+        public static IdentifiedBean create() {
+            IdentifiedBean first = new IdentifiedBean();
+            first.name = "first";
+            IdentifiedBean second = new IdentifiedBean();
+            second.name = "second";
+            first.partner = second;
+            second.partner = first;
+            return first;
+        }
+    }
+
+    public static class UnwrappingBean {
+
+        public String type;
+        @JsonUnwrapped
+        public SmallBean details;
+
+        public static UnwrappingBean create(long id) {
+            UnwrappingBean bean = new UnwrappingBean();
+            bean.type = "user";
+            bean.details = SmallBean.create(id);
+            return bean;
+        }
+    }
+
+    public static class CreatorBean {
+
+        private final long id;
+        private final String name;
+        private final String email;
+        private final double score;
+
+        @JsonCreator
+        public CreatorBean(@JsonProperty("id") long id, @JsonProperty("name") String name,
+                @JsonProperty("email") String email, @JsonProperty("score") double score) {
+            this.id = id;
+            this.name = name;
+            this.email = email;
+            this.score = score;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public static CreatorBean create(long id) {
+            return new CreatorBean(id, "name-" + id, "user-" + id + "@example.com", id * 1.5);
+        }
+    }
+
+    public static class EnvelopeBean {
+
+        public long id;
+        @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.EXTERNAL_PROPERTY, property = "kind")
+        @JsonSubTypes(@JsonSubTypes.Type(value = TextPayload.class, name = "text"))
+        public Object payload;
+        public long timestamp;
+
+        public static EnvelopeBean create(long id) {
+            EnvelopeBean bean = new EnvelopeBean();
+            bean.id = id;
+            TextPayload payload = new TextPayload();
+            payload.text = "message-" + id;
+            payload.language = "en";
+            bean.payload = payload;
+            bean.timestamp = 1400000000000L + id;
+            return bean;
+        }
+    }
+
+    public static class TextPayload {
+
+        public String text;
+        public String language;
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bean composed of {@link SmallBean}s (an owner and 10 members).
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public class NestedBean {
+
+    public String name;
+    public SmallBean owner;
+    public List<SmallBean> members;
+
+    public static NestedBean create() {
+        NestedBean bean = new NestedBean();
+        bean.name = "group";
+        bean.owner = SmallBean.create(0);
+        bean.members = new ArrayList<SmallBean>();
+        for (int i = 1; i <= 10; i++) {
+            bean.members.add(SmallBean.create(i));
+        }
+        return bean;
+    }
+
+}
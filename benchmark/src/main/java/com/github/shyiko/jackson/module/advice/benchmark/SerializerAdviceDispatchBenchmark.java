@@ -0,0 +1,181 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.github.shyiko.jackson.module.advice.AbstractBeanSerializerAdvice;
+import com.github.shyiko.jackson.module.advice.BeanSerializerAdvice;
+import com.github.shyiko.jackson.module.advice.JsonAdviceModule;
+import com.github.shyiko.jackson.module.advice.JsonSerializerAdvice;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of per-property advice dispatch for an advice which only overrides bean-scoped "before".
+ * <p/>
+ * "beanScopedAdvice" is expected to perform on par with "vanilla" (as property-scoped hooks are not overridden),
+ * while "beanScopedAdviceWithoutBase" (same advice, but implemented directly on top of {@link BeanSerializerAdvice})
+ * still goes through all the property-scoped hooks. Advice call sites are made megamorphic during the setup (as they
+ * would be in any application with more than a couple of advised types).
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerAdviceDispatchBenchmark {
+
+    private WideBean bean;
+    private ObjectMapper vanilla;
+    private ObjectMapper beanScopedAdvice;
+    private ObjectMapper beanScopedAdviceWithoutBase;
+
+    @Setup
+    public void setUp() throws IOException {
+        pollute();
+        bean = WideBean.create();
+        vanilla = new ObjectMapper();
+        beanScopedAdvice = new ObjectMapper();
+        beanScopedAdvice.registerModule(new JsonAdviceModule());
+        beanScopedAdvice.addMixInAnnotations(WideBean.class, BeanScopedAdviceMixin.class);
+        beanScopedAdviceWithoutBase = new ObjectMapper();
+        beanScopedAdviceWithoutBase.registerModule(new JsonAdviceModule());
+        beanScopedAdviceWithoutBase.addMixInAnnotations(WideBean.class, BeanScopedAdviceWithoutBaseMixin.class);
+    }
+
+    private void pollute() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JsonAdviceModule());
+        objectMapper.addMixInAnnotations(WideBeanA.class, WideBeanAMixin.class);
+        objectMapper.addMixInAnnotations(WideBeanB.class, WideBeanBMixin.class);
+        objectMapper.addMixInAnnotations(WideBeanC.class, WideBeanCMixin.class);
+        Object[] beans = {new WideBeanA(), new WideBeanB(), new WideBeanC()};
+        for (int i = 0; i < 30000; i++) {
+            objectMapper.writeValueAsBytes(beans[i % beans.length]);
+        }
+    }
+
+    @Benchmark
+    public byte[] vanilla() throws IOException {
+        return vanilla.writeValueAsBytes(bean);
+    }
+
+    @Benchmark
+    public byte[] beanScopedAdvice() throws IOException {
+        return beanScopedAdvice.writeValueAsBytes(bean);
+    }
+
+    @Benchmark
+    public byte[] beanScopedAdviceWithoutBase() throws IOException {
+        return beanScopedAdviceWithoutBase.writeValueAsBytes(bean);
+    }
+
+    @JsonSerializerAdvice(BeanScopedAdvice.class)
+    public interface BeanScopedAdviceMixin {
+    }
+
+    @JsonSerializerAdvice(BeanScopedAdviceWithoutBase.class)
+    public interface BeanScopedAdviceWithoutBaseMixin {
+    }
+
+    @JsonSerializerAdvice(AdviceA.class)
+    public interface WideBeanAMixin {
+    }
+
+    @JsonSerializerAdvice(AdviceB.class)
+    public interface WideBeanBMixin {
+    }
+
+    @JsonSerializerAdvice(AdviceC.class)
+    public interface WideBeanCMixin {
+    }
+
+    public static class WideBeanA extends WideBean {
+    }
+
+    public static class WideBeanB extends WideBean {
+    }
+
+    public static class WideBeanC extends WideBean {
+    }
+
+    public static class AdviceA extends BeanScopedAdviceWithoutBase {
+    }
+
+    public static class AdviceB extends BeanScopedAdviceWithoutBase {
+    }
+
+    public static class AdviceC extends BeanScopedAdviceWithoutBase {
+    }
+
+    public static class BeanScopedAdvice extends AbstractBeanSerializerAdvice<WideBean> {
+
+        @Override
+        public void before(WideBean bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+            json.writeStringField("self", "/wide/" + bean.n01);
+        }
+    }
+
+    public static class BeanScopedAdviceWithoutBase implements BeanSerializerAdvice<WideBean> {
+
+        @Override
+        public void before(WideBean bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+            json.writeStringField("self", "/wide/" + bean.n01);
+        }
+
+        @Override
+        public void before(WideBean bean, JsonGenerator json, BeanProperty property, SerializerProvider provider)
+                throws IOException {
+        }
+
+        @Override
+        public boolean intercept(WideBean bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+            return false;
+        }
+
+        @Override
+        public boolean intercept(WideBean bean, JsonGenerator json, BeanProperty property,
+                SerializerProvider provider) throws IOException {
+            return false;
+        }
+
+        @Override
+        public void after(WideBean bean, JsonGenerator json, BeanProperty property, SerializerProvider provider)
+                throws IOException {
+        }
+
+        @Override
+        public void after(WideBean bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice.benchmark;
+
+/**
+ * 5-property bean.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public class SmallBean {
+
+    public long id;
+    public String name;
+    public String email;
+    public boolean active;
+    public double score;
+
+    public static SmallBean create(long id) {
+        SmallBean bean = new SmallBean();
+        bean.id = id;
+        bean.name = "name-" + id;
+        bean.email = "user-" + id + "@example.com";
+        bean.active = id % 2 == 0;
+        bean.score = id * 1.5;
+        return bean;
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice.benchmark;
+
+/**
+ * 40-property bean (half strings, half longs).
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public class WideBean {
+
+    public String s00;
+    public long n01;
+    public String s02;
+    public long n03;
+    public String s04;
+    public long n05;
+    public String s06;
+    public long n07;
+    public String s08;
+    public long n09;
+    public String s10;
+    public long n11;
+    public String s12;
+    public long n13;
+    public String s14;
+    public long n15;
+    public String s16;
+    public long n17;
+    public String s18;
+    public long n19;
+    public String s20;
+    public long n21;
+    public String s22;
+    public long n23;
+    public String s24;
+    public long n25;
+    public String s26;
+    public long n27;
+    public String s28;
+    public long n29;
+    public String s30;
+    public long n31;
+    public String s32;
+    public long n33;
+    public String s34;
+    public long n35;
+    public String s36;
+    public long n37;
+    public String s38;
+    public long n39;
+
+    public static WideBean create() {
+        WideBean bean = new WideBean();
+        bean.s00 = "value-0";
+        bean.n01 = 1001L;
+        bean.s02 = "value-2";
+        bean.n03 = 3003L;
+        bean.s04 = "value-4";
+        bean.n05 = 5005L;
+        bean.s06 = "value-6";
+        bean.n07 = 7007L;
+        bean.s08 = "value-8";
+        bean.n09 = 9009L;
+        bean.s10 = "value-10";
+        bean.n11 = 11011L;
+        bean.s12 = "value-12";
+        bean.n13 = 13013L;
+        bean.s14 = "value-14";
+        bean.n15 = 15015L;
+        bean.s16 = "value-16";
+        bean.n17 = 17017L;
+        bean.s18 = "value-18";
+        bean.n19 = 19019L;
+        bean.s20 = "value-20";
+        bean.n21 = 21021L;
+        bean.s22 = "value-22";
+        bean.n23 = 23023L;
+        bean.s24 = "value-24";
+        bean.n25 = 25025L;
+        bean.s26 = "value-26";
+        bean.n27 = 27027L;
+        bean.s28 = "value-28";
+        bean.n29 = 29029L;
+        bean.s30 = "value-30";
+        bean.n31 = 31031L;
+        bean.s32 = "value-32";
+        bean.n33 = 33033L;
+        bean.s34 = "value-34";
+        bean.n35 = 35035L;
+        bean.s36 = "value-36";
+        bean.n37 = 37037L;
+        bean.s38 = "value-38";
+        bean.n39 = 39039L;
+        return bean;
+    }
+
+}
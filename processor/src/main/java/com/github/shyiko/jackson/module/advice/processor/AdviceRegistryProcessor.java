@@ -0,0 +1,376 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Annotation processor generating {@code GeneratedAdviceRegistry} (an implementation of
+ * {@code com.github.shyiko.jackson.module.advice.AdviceRegistry}) for each package containing
+ * {@code JsonSerializerAdvice}/{@code JsonDeserializerAdvice} annotations (JsonAdviceModule looks them up by name),
+ * along with the META-INF/services/com.github.shyiko.jackson.module.advice.AdviceRegistry entry listing them.
+ * Type-level declarations are indexed by the bean type, advices (whether they are declared on the type or property)
+ * are instantiated with {@code new}.
+ * <p>
+ * Registry lives in the package of the annotated types, so that package-private types (and advices with
+ * package-private constructors) can be referenced too. Types that registry cannot reference (e.g. private ones) are
+ * left out (with a warning), which means they are going to be resolved reflectively at runtime (same as with no
+ * registry at all).
+ * <p>
+ * Registries are written in the same round annotations are found in (packages which get more of them in the
+ * subsequent rounds get additional registries, GeneratedAdviceRegistry2 and so on). Service entry lists the
+ * registries of the current compilation only.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public class AdviceRegistryProcessor extends AbstractProcessor {
+
+    private static final String PACKAGE = "com.github.shyiko.jackson.module.advice";
+    private static final String REGISTRY_INTERFACE = PACKAGE + ".AdviceRegistry";
+    private static final String REGISTRY_CLASS = "GeneratedAdviceRegistry";
+    private static final String SERIALIZER_ADVICE = PACKAGE + ".JsonSerializerAdvice";
+    private static final String DESERIALIZER_ADVICE = PACKAGE + ".JsonDeserializerAdvice";
+    private static final String SERIALIZER_ADVICE_INTERFACE = PACKAGE + ".BeanSerializerAdvice";
+    private static final String DESERIALIZER_ADVICE_INTERFACE = PACKAGE + ".BeanDeserializerAdvice";
+
+    private final Map<String, Integer> registryCount = new HashMap<String, Integer>();
+    private final List<String> registries = new ArrayList<String>();
+    private final Set<Element> serviceOriginatingElements = new LinkedHashSet<Element>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new HashSet<String>(Arrays.asList(SERIALIZER_ADVICE, DESERIALIZER_ADVICE));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<String, PackageIndex> indexes = new LinkedHashMap<String, PackageIndex>();
+        for (TypeElement annotation : annotations) {
+            String annotationName = annotation.getQualifiedName().toString();
+            boolean serializer = SERIALIZER_ADVICE.equals(annotationName);
+            if (!serializer && !DESERIALIZER_ADVICE.equals(annotationName)) {
+                continue;
+            }
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                List<TypeElement> adviceElements = getAdviceElements(element, annotationName);
+                if (adviceElements == null) {
+                    continue;
+                }
+                String packageName = processingEnv.getElementUtils().getPackageOf(element).getQualifiedName()
+                    .toString();
+                PackageIndex index = indexes.get(packageName);
+                if (index == null) {
+                    indexes.put(packageName, index = new PackageIndex(packageName));
+                }
+                index.originatingElements.add(element);
+                for (TypeElement adviceElement : adviceElements) {
+                    if (isInstantiable(adviceElement, packageName)) {
+                        index.instantiableAdvices.add(adviceElement.getQualifiedName().toString());
+                    }
+                }
+                if (element.getKind().isClass() || element.getKind().isInterface()) {
+                    bind(serializer ? index.serializerAdvices : index.deserializerAdvices, (TypeElement) element,
+                        adviceElements, packageName, serializer ? SERIALIZER_ADVICE_INTERFACE :
+                        DESERIALIZER_ADVICE_INTERFACE);
+                }
+            }
+        }
+        for (PackageIndex index : indexes.values()) {
+            writeRegistry(index);
+        }
+        if (roundEnv.processingOver() && !registries.isEmpty()) {
+            writeServiceEntry();
+        }
+        return true;
+    }
+
+    /**
+     * @return advice classes referenced by the annotation, null if any of them could not be resolved
+     */
+    private List<TypeElement> getAdviceElements(Element element, String annotationName) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationElement = (TypeElement) mirror.getAnnotationType().asElement();
+            if (!annotationElement.getQualifiedName().contentEquals(annotationName)) {
+                continue;
+            }
+            List<TypeElement> result = new ArrayList<TypeElement>();
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                    mirror.getElementValues().entrySet()) {
+                if (!entry.getKey().getSimpleName().contentEquals("value")) {
+                    continue;
+                }
+                Object value = entry.getValue().getValue();
+                List<?> values = value instanceof List ? (List<?>) value : Collections.singletonList(entry.getValue());
+                for (Object item : values) {
+                    TypeMirror type = (TypeMirror) ((AnnotationValue) item).getValue();
+                    if (type.getKind() != TypeKind.DECLARED) {
+                        warn(element, "Unresolved advice " + type + " (" + element + " is left out of the registry).");
+                        return null;
+                    }
+                    result.add((TypeElement) ((DeclaredType) type).asElement());
+                }
+            }
+            return result;
+        }
+        return null;
+    }
+
+    private void bind(Map<String, List<String>> bindings, TypeElement type, List<TypeElement> adviceElements,
+            String packageName, String adviceInterface) {
+        if (!isAccessible(type, packageName)) {
+            warn(type, type + " is not accessible from " + packageName + " (left out of the registry).");
+            return;
+        }
+        Types types = processingEnv.getTypeUtils();
+        // Class<? extends BeanSerializerAdvice<?>> (advices extending raw types do not fit)
+        DeclaredType adviceType = types.getDeclaredType(
+            processingEnv.getElementUtils().getTypeElement(adviceInterface), types.getWildcardType(null, null));
+        List<String> adviceClasses = new ArrayList<String>();
+        for (TypeElement adviceElement : adviceElements) {
+            if (!isAccessible(adviceElement, packageName)) {
+                warn(type, adviceElement + " is not accessible from " + packageName + " (" + type +
+                    " is left out of the registry).");
+                return;
+            }
+            if (!types.isSubtype(types.erasure(adviceElement.asType()), adviceType)) {
+                warn(type, adviceElement + " is not a subtype of " + adviceType + " (" + type +
+                    " is left out of the registry).");
+                return;
+            }
+            adviceClasses.add(adviceElement.getQualifiedName().toString());
+        }
+        bindings.put(type.getQualifiedName().toString(), adviceClasses);
+    }
+
+    private boolean isAccessible(TypeElement type, String packageName) {
+        boolean samePackage = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName()
+            .contentEquals(packageName);
+        Element element = type;
+        while (element.getKind().isClass() || element.getKind().isInterface()) {
+            if (!isAccessible(element, samePackage)) {
+                return false;
+            }
+            element = element.getEnclosingElement();
+        }
+        return element.getKind() == ElementKind.PACKAGE;
+    }
+
+    private static boolean isAccessible(Element element, boolean samePackage) {
+        Set<Modifier> modifiers = element.getModifiers();
+        return modifiers.contains(Modifier.PUBLIC) || samePackage && !modifiers.contains(Modifier.PRIVATE);
+    }
+
+    private boolean isInstantiable(TypeElement type, String packageName) {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT) ||
+                !type.getTypeParameters().isEmpty() || !isAccessible(type, packageName) ||
+                (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC))) {
+            return false;
+        }
+        boolean samePackage = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName()
+            .contentEquals(packageName);
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && isAccessible(constructor, samePackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeRegistry(PackageIndex index) {
+        Integer count = registryCount.get(index.packageName);
+        count = count == null ? 1 : count + 1;
+        registryCount.put(index.packageName, count);
+        String simpleName = count == 1 ? REGISTRY_CLASS : REGISTRY_CLASS + count;
+        String name = index.packageName.isEmpty() ? simpleName : index.packageName + "." + simpleName;
+        PrintWriter writer;
+        try {
+            writer = new PrintWriter(processingEnv.getFiler().createSourceFile(name,
+                index.originatingElements.toArray(new Element[index.originatingElements.size()])).openWriter());
+        } catch (IOException e) {
+            error("Failed to create " + name + " (" + e.getMessage() + ").");
+            return;
+        }
+        try {
+            new RegistryWriter(writer, simpleName).write(index);
+        } finally {
+            writer.close();
+        }
+        registries.add(name);
+        serviceOriginatingElements.addAll(index.originatingElements);
+    }
+
+    private void writeServiceEntry() {
+        String resource = "META-INF/services/" + REGISTRY_INTERFACE;
+        PrintWriter writer;
+        try {
+            writer = new PrintWriter(processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                resource, serviceOriginatingElements.toArray(new Element[serviceOriginatingElements.size()]))
+                .openWriter());
+        } catch (IOException e) {
+            error("Failed to create " + resource + " (" + e.getMessage() + ").");
+            return;
+        }
+        try {
+            for (String registry : registries) {
+                writer.println(registry);
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void warn(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+
+    private void error(String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message);
+    }
+
+    /**
+     * Advices of the package (discovered within a single round).
+     */
+    private static final class PackageIndex {
+
+        private final String packageName;
+        private final Map<String, List<String>> serializerAdvices = new LinkedHashMap<String, List<String>>();
+        private final Map<String, List<String>> deserializerAdvices = new LinkedHashMap<String, List<String>>();
+        private final Set<String> instantiableAdvices = new LinkedHashSet<String>();
+        private final Set<Element> originatingElements = new LinkedHashSet<Element>();
+
+        private PackageIndex(String packageName) {
+            this.packageName = packageName;
+        }
+    }
+
+    /**
+     * Writer of the registry source. Generated code doesn't use raw types (nor generic varargs), so that it compiles
+     * cleanly with -Xlint:all.
+     */
+    private static final class RegistryWriter {
+
+        private final PrintWriter writer;
+        private final String simpleName;
+
+        private RegistryWriter(PrintWriter writer, String simpleName) {
+            this.writer = writer;
+            this.simpleName = simpleName;
+        }
+
+        private void write(PackageIndex index) {
+            if (!index.packageName.isEmpty()) {
+                writer.println("package " + index.packageName + ";");
+                writer.println();
+            }
+            writer.println("/**");
+            writer.println(" * Generated by " + AdviceRegistryProcessor.class.getName() + ". Do not edit.");
+            writer.println(" */");
+            writer.println("public final class " + simpleName + " implements " + REGISTRY_INTERFACE + " {");
+            writer.println();
+            writeBindingsField("BeanSerializerAdvice", "serializerAdvices");
+            writeBindingsField("BeanDeserializerAdvice", "deserializerAdvices");
+            writer.println();
+            writer.println("    public " + simpleName + "() {");
+            writeBindings("BeanSerializerAdvice", "serializerAdvices", index.serializerAdvices);
+            writeBindings("BeanDeserializerAdvice", "deserializerAdvices", index.deserializerAdvices);
+            writer.println("    }");
+            writer.println();
+            writeBindingsGetter("BeanSerializerAdvice", "getSerializerAdvices", "serializerAdvices");
+            writeBindingsGetter("BeanDeserializerAdvice", "getDeserializerAdvices", "deserializerAdvices");
+            writeNewInstance(index.instantiableAdvices);
+            writer.println("}");
+        }
+
+        private static String listType(String adviceType) {
+            return "java.util.List<Class<? extends " + PACKAGE + "." + adviceType + "<?>>>";
+        }
+
+        private void writeBindingsField(String adviceType, String field) {
+            writer.println("    private final java.util.Map<Class<?>, " + listType(adviceType) + "> " + field + " =");
+            writer.println("        new java.util.HashMap<Class<?>, " + listType(adviceType) + ">();");
+        }
+
+        private void writeBindings(String adviceType, String field, Map<String, List<String>> bindings) {
+            for (Map.Entry<String, List<String>> entry : bindings.entrySet()) {
+                writer.println("        {");
+                writer.println("            " + listType(adviceType) + " advices =");
+                writer.println("                new java.util.ArrayList<Class<? extends " + PACKAGE + "." +
+                    adviceType + "<?>>>(" + entry.getValue().size() + ");");
+                for (String adviceClass : entry.getValue()) {
+                    writer.println("            advices.add(" + adviceClass + ".class);");
+                }
+                writer.println("            " + field + ".put(" + entry.getKey() +
+                    ".class, java.util.Collections.unmodifiableList(advices));");
+                writer.println("        }");
+            }
+        }
+
+        private void writeBindingsGetter(String adviceType, String method, String field) {
+            writer.println("    @Override");
+            writer.println("    public " + listType(adviceType) + " " + method + "(Class<?> type) {");
+            writer.println("        return " + field + ".get(type);");
+            writer.println("    }");
+            writer.println();
+        }
+
+        private void writeNewInstance(Set<String> instantiableAdvices) {
+            writer.println("    @Override");
+            writer.println("    public <T> T newInstance(Class<T> adviceClass) {");
+            for (String adviceClass : instantiableAdvices) {
+                writer.println("        if (adviceClass == " + adviceClass + ".class) {");
+                writer.println("            return adviceClass.cast(new " + adviceClass + "());");
+                writer.println("        }");
+            }
+            writer.println("        return null;");
+            writer.println("    }");
+            writer.println();
+        }
+    }
+
+}
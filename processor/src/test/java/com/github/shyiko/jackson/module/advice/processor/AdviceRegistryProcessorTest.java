@@ -0,0 +1,215 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice.processor;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.shyiko.jackson.module.advice.AdviceRegistry;
+import com.github.shyiko.jackson.module.advice.JsonAdviceModule;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public class AdviceRegistryProcessorTest {
+
+    private File directory;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        directory = File.createTempFile("advice-registry", "");
+        assertTrue(directory.delete() && directory.mkdir());
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        delete(directory);
+    }
+
+    @Test
+    public void testRegistryGeneration() throws Exception {
+        write("sample/Event.java",
+            "package sample;",
+            "import com.github.shyiko.jackson.module.advice.JsonSerializerAdvice;",
+            "@JsonSerializerAdvice(EventSerializationAdvice.class)",
+            "public class Event {",
+            "    public String id = \"e1\";",
+            "    @JsonSerializerAdvice(Event.NameSerializationAdvice.class)",
+            "    public String name = \"launch\";",
+            "    public static class NameSerializationAdvice extends",
+            "            com.github.shyiko.jackson.module.advice.AbstractBeanSerializerAdvice<Object> {",
+            "    }",
+            "    @JsonSerializerAdvice(EventSerializationAdvice.class)",
+            "    private static class Secret {",
+            "    }",
+            "}");
+        write("sample/EventSerializationAdvice.java",
+            "package sample;",
+            "import com.fasterxml.jackson.core.JsonGenerator;",
+            "import com.fasterxml.jackson.databind.SerializerProvider;",
+            "import com.github.shyiko.jackson.module.advice.AbstractBeanSerializerAdvice;",
+            "class EventSerializationAdvice extends AbstractBeanSerializerAdvice<Object> {",
+            "    EventSerializationAdvice() {",
+            "    }",
+            "    @Override",
+            "    public void after(Object bean, JsonGenerator json, SerializerProvider provider)",
+            "            throws java.io.IOException {",
+            "        json.writeBooleanField(\"advised\", true);",
+            "    }",
+            "}");
+        write("sample/Hidden.java",
+            "package sample;",
+            "import com.github.shyiko.jackson.module.advice.JsonSerializerAdvice;",
+            "@JsonSerializerAdvice(EventSerializationAdvice.class)",
+            "class Hidden {",
+            "}");
+        write("sample/other/Ticket.java",
+            "package sample.other;",
+            "import com.github.shyiko.jackson.module.advice.AbstractBeanDeserializerAdvice;",
+            "import com.github.shyiko.jackson.module.advice.JsonDeserializerAdvice;",
+            "@JsonDeserializerAdvice(Ticket.TicketDeserializationAdvice.class)",
+            "public class Ticket {",
+            "    public static class TicketDeserializationAdvice extends AbstractBeanDeserializerAdvice<Ticket> {",
+            "    }",
+            "}");
+        List<String> warnings = new ArrayList<String>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : compile().getDiagnostics()) {
+            assertTrue(diagnostic.getKind() != Diagnostic.Kind.ERROR, diagnostic.toString());
+            warnings.add(diagnostic.getMessage(null));
+        }
+        // generated code compiles cleanly with -Xlint:all
+        assertEquals(warnings, Arrays.asList("sample.Event.Secret is not accessible from sample " +
+            "(left out of the registry)."));
+        ClassLoader classLoader = new URLClassLoader(new URL[] {directory.toURI().toURL()},
+            getClass().getClassLoader());
+        List<String> registryClasses = new ArrayList<String>();
+        AdviceRegistry registry = null;
+        for (AdviceRegistry adviceRegistry : ServiceLoader.load(AdviceRegistry.class, classLoader)) {
+            registryClasses.add(adviceRegistry.getClass().getName());
+            if (registry == null) {
+                registry = adviceRegistry;
+            }
+        }
+        assertEquals(registryClasses, Arrays.asList("sample.GeneratedAdviceRegistry",
+            "sample.other.GeneratedAdviceRegistry"));
+        Class<?> eventClass = classLoader.loadClass("sample.Event");
+        Class<?> adviceClass = classLoader.loadClass("sample.EventSerializationAdvice");
+        assertEquals(registry.getSerializerAdvices(eventClass), Collections.singletonList(adviceClass));
+        assertEquals(registry.getSerializerAdvices(classLoader.loadClass("sample.Hidden")),
+            Collections.singletonList(adviceClass));
+        assertNull(registry.getDeserializerAdvices(eventClass));
+        assertNull(registry.getSerializerAdvices(classLoader.loadClass("sample.Event$Secret")));
+        assertEquals(registry.newInstance(adviceClass).getClass(), adviceClass);
+        Class<?> nameAdviceClass = classLoader.loadClass("sample.Event$NameSerializationAdvice");
+        assertEquals(registry.newInstance(nameAdviceClass).getClass(), nameAdviceClass);
+        assertNull(registry.newInstance(String.class));
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JsonAdviceModule().withAdviceRegistry(registry));
+        assertEquals(objectMapper.writeValueAsString(eventClass.newInstance()),
+            "{\"id\":\"e1\",\"name\":\"launch\",\"advised\":true}");
+    }
+
+    private void write(String path, String... lines) throws IOException {
+        File file = new File(directory, path);
+        assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private DiagnosticCollector<JavaFileObject> compile() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null);
+        try {
+            List<File> sources = new ArrayList<File>();
+            collectSources(directory, sources);
+            StringBuilder classPath = new StringBuilder();
+            for (Class<?> type : new Class<?>[] {JsonAdviceModule.class, ObjectMapper.class, JsonGenerator.class,
+                    JsonProperty.class}) {
+                if (classPath.length() != 0) {
+                    classPath.append(File.pathSeparatorChar);
+                }
+                classPath.append(new File(type.getProtectionDomain().getCodeSource().getLocation().toURI()));
+            }
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                Arrays.asList("-Xlint:all", "-classpath", classPath.toString(), "-d", directory.getPath(),
+                    "-s", directory.getPath()),
+                null, fileManager.getJavaFileObjectsFromFiles(sources));
+            task.setProcessors(Collections.singletonList(new AdviceRegistryProcessor()));
+            assertTrue(task.call(), diagnostics.getDiagnostics().toString());
+        } finally {
+            fileManager.close();
+        }
+        return diagnostics;
+    }
+
+    private static void collectSources(File file, List<File> result) {
+        File[] files = file.listFiles();
+        if (files == null) {
+            if (file.getName().endsWith(".java")) {
+                result.add(file);
+            }
+            return;
+        }
+        for (File child : files) {
+            collectSources(child, result);
+        }
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+}
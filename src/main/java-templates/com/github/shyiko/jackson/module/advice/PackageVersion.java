@@ -0,0 +1,39 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.Versioned;
+import com.fasterxml.jackson.core.util.VersionUtil;
+
+/**
+ * Version of the module, generated (from src/main/java-templates) at build time.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public final class PackageVersion implements Versioned {
+
+    /**
+     * Unknown version if template hasn't been filtered.
+     */
+    public static final Version VERSION = "${project.version}".startsWith("$") ? Version.unknownVersion() :
+        VersionUtil.parseVersion("${project.version}", "${project.groupId}", "${project.artifactId}");
+
+    @Override
+    public Version version() {
+        return VERSION;
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+
+/**
+ * {@link AbstractFieldInjectingBeanSerializerAdvice} injecting a (computed) field whose value is serialized once
+ * per cache key and then copied as-is (using {@link JsonGenerator#writeRawValue(char[], int, int)}) for as long as
+ * {@link FragmentCache} holds it. Useful when the value (e.g. list of links) depends only on the few bean properties
+ * (e.g. id and version) but is expensive to build and/or serialize.
+ * <p/>
+ * Note that cached fragments are not affected by the pretty printer of the enclosing generator.
+ * @param <T> type of the bean this advice can be applied to
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public abstract class AbstractCachingBeanSerializerAdvice<T>
+        extends AbstractFieldInjectingBeanSerializerAdvice<T> {
+
+    private static final JsonFactory DEFAULT_JSON_FACTORY = new JsonFactory();
+
+    private final FragmentCache fragmentCache;
+
+    /**
+     * @param fieldName name of the field to inject
+     * @param fragmentCache cache to keep fragments in (might be shared between the advices as long as cache keys
+     * don't collide)
+     */
+    protected AbstractCachingBeanSerializerAdvice(String fieldName, FragmentCache fragmentCache) {
+        super(fieldName);
+        this.fragmentCache = fragmentCache;
+    }
+
+    /**
+     * @param bean bean instance
+     * @return key fragment should be cached under (e.g. id + version of the bean), null if it should not be cached
+     */
+    protected abstract Object getCacheKey(T bean);
+
+    /**
+     * Called on cache miss.
+     * @param bean bean instance
+     * @param json json generator (positioned where field value is expected)
+     * @param provider serializer provider
+     * @throws IOException if anything goes wrong during json generation
+     */
+    protected abstract void writeFragment(T bean, JsonGenerator json, SerializerProvider provider)
+            throws IOException;
+
+    /**
+     * Injects the field (subclasses overriding this method are expected to call super).
+     */
+    @Override
+    public void before(T bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+        json.writeFieldName(fieldName(0));
+        Object key = getCacheKey(bean);
+        if (key == null) {
+            writeFragment(bean, json, provider);
+            return;
+        }
+        char[] fragment = fragmentCache.get(key);
+        if (fragment == null) {
+            fragment = serializeFragment(bean, json.getCodec(), provider);
+            fragmentCache.put(key, fragment);
+        }
+        json.writeRawValue(fragment, 0, fragment.length);
+    }
+
+    private char[] serializeFragment(T bean, ObjectCodec codec, SerializerProvider provider) throws IOException {
+        CharArrayWriter writer = new CharArrayWriter();
+        JsonGenerator json = (codec != null ? codec.getFactory() : DEFAULT_JSON_FACTORY).createGenerator(writer);
+        try {
+            json.setCodec(codec);
+            writeFragment(bean, json, provider);
+        } finally {
+            json.close();
+        }
+        return writer.toCharArray();
+    }
+
+    public FragmentCache getFragmentCache() {
+        return fragmentCache;
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+/**
+ * {@link AbstractBeanDeserializerAdvice} providing each bean with a (pooled) context object, available to all the
+ * hooks through {@link #context()}. Contexts are reused (after {@link #reset(Object)}) so that no allocation takes
+ * place per bean.
+ * @param <T> type of the bean this advice can be applied to
+ * @param <C> type of the context
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public abstract class AbstractContextualBeanDeserializerAdvice<T, C> extends AbstractBeanDeserializerAdvice<T>
+        implements ContextualBeanDeserializerAdvice<T> {
+
+    private final AdviceContextPool<C> contextPool = new AdviceContextPool<C>() {
+
+        @Override
+        protected C newContext() {
+            return AbstractContextualBeanDeserializerAdvice.this.newContext();
+        }
+
+        @Override
+        protected void reset(C context) {
+            AbstractContextualBeanDeserializerAdvice.this.reset(context);
+        }
+    };
+
+    protected abstract C newContext();
+
+    /**
+     * Called before context is reused by another bean.
+     * @param context context
+     */
+    protected void reset(C context) {
+    }
+
+    /**
+     * @return context of the bean currently being deserialized
+     */
+    protected final C context() {
+        return contextPool.current();
+    }
+
+    @Override
+    public final void enter() {
+        contextPool.acquire();
+    }
+
+    @Override
+    public final void exit() {
+        contextPool.release();
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+/**
+ * {@link AbstractBeanSerializerAdvice} providing each bean with a (pooled) context object, available to all the
+ * hooks through {@link #context()}. Contexts are reused (after {@link #reset(Object)}) so that no allocation takes
+ * place per bean.
+ * <p>
+ * Hooks are called on a (shallow, pooled) copy of the advice holding context of the bean, so that {@link #context()}
+ * is a plain field read (rather than a per-thread lookup). Advice state shared by all the beans should therefore be
+ * kept in (thread-safe) objects referenced from the advice rather than in mutable primitive fields.
+ * @param <T> type of the bean this advice can be applied to
+ * @param <C> type of the context
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+@SuppressWarnings("unchecked")
+public abstract class AbstractContextualBeanSerializerAdvice<T, C> extends AbstractBeanSerializerAdvice<T>
+        implements ContextualBeanSerializerAdvice<T>, Cloneable {
+
+    private final AdviceContextPool<AbstractContextualBeanSerializerAdvice<T, C>> contextPool =
+            new AdviceContextPool<AbstractContextualBeanSerializerAdvice<T, C>>() {
+
+        @Override
+        protected AbstractContextualBeanSerializerAdvice<T, C> newContext() {
+            AbstractContextualBeanSerializerAdvice<T, C> copy;
+            try {
+                copy = (AbstractContextualBeanSerializerAdvice<T, C>) AbstractContextualBeanSerializerAdvice.this.
+                    clone();
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException(e);
+            }
+            copy.context = AbstractContextualBeanSerializerAdvice.this.newContext();
+            return copy;
+        }
+
+        @Override
+        protected void reset(AbstractContextualBeanSerializerAdvice<T, C> copy) {
+            AbstractContextualBeanSerializerAdvice.this.reset(copy.context);
+        }
+    };
+    /**
+     * context of the bean (null unless this is a copy returned by {@link #enter()})
+     */
+    private C context;
+
+    protected abstract C newContext();
+
+    /**
+     * Called before context is reused by another bean.
+     * @param context context
+     */
+    protected void reset(C context) {
+    }
+
+    /**
+     * @return context of the bean currently being serialized
+     */
+    protected final C context() {
+        return context != null ? context : contextPool.current().context;
+    }
+
+    @Override
+    public final BeanSerializerAdvice<T> enter() {
+        return contextPool.acquire();
+    }
+
+    @Override
+    public final BeanSerializerAdvice<T> current() {
+        return contextPool.current();
+    }
+
+    @Override
+    public final void exit() {
+        contextPool.release();
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+/**
+ * Default implementation of {@link FieldInjectingBeanSerializerAdvice}. Pre-encoded names are available to all the
+ * hooks through {@link #fieldName(int)}.
+ * @param <T> type of the bean this advice can be applied to
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public abstract class AbstractFieldInjectingBeanSerializerAdvice<T> extends AbstractBeanSerializerAdvice<T>
+        implements FieldInjectingBeanSerializerAdvice<T> {
+
+    private final String[] injectedFieldNames;
+    private SerializableString[] fieldNames;
+
+    /**
+     * @param injectedFieldNames names of the fields advice injects
+     */
+    protected AbstractFieldInjectingBeanSerializerAdvice(String... injectedFieldNames) {
+        this.injectedFieldNames = injectedFieldNames.clone();
+        // in case advice is used outside of AdvisedBeanSerializerBuilder (e.g. as a property-scoped one)
+        this.fieldNames = new SerializableString[injectedFieldNames.length];
+        for (int i = 0; i < injectedFieldNames.length; i++) {
+            this.fieldNames[i] = new SerializedString(injectedFieldNames[i]);
+        }
+    }
+
+    @Override
+    public String[] getInjectedFieldNames() {
+        return injectedFieldNames.clone();
+    }
+
+    @Override
+    public void resolve(SerializableString[] injectedFieldNames) {
+        this.fieldNames = injectedFieldNames;
+    }
+
+    /**
+     * @param index index of the name (as passed to the constructor)
+     * @return pre-encoded field name
+     */
+    protected final SerializableString fieldName(int index) {
+        return fieldNames[index];
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+import java.io.IOException;
+
+/**
+ * Default (no-op) implementation of {@link IndexedBeanDeserializerAdvice}.
+ * @param <T> type of the bean this advice can be applied to
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public abstract class AbstractIndexedBeanDeserializerAdvice<T> extends AbstractBeanDeserializerAdvice<T>
+        implements IndexedBeanDeserializerAdvice<T> {
+
+    @Override
+    public void resolve(PropertyIndex propertyIndex) {
+    }
+
+    @Override
+    public boolean intercept(T bean, int propertyIndex, String propertyName, JsonParser json,
+            DeserializationContext context) throws IOException {
+        return false;
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+/**
+ * Default implementation of {@link LazyBeanDeserializerAdvice}.
+ * @param <T> type of the bean this advice can be applied to
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public abstract class AbstractLazyBeanDeserializerAdvice<T> extends AbstractBeanDeserializerAdvice<T>
+        implements LazyBeanDeserializerAdvice<T> {
+
+    private final String[] lazyPropertyNames;
+
+    /**
+     * @param lazyPropertyNames names of the properties which should be deserialized on first access
+     */
+    protected AbstractLazyBeanDeserializerAdvice(String... lazyPropertyNames) {
+        this.lazyPropertyNames = lazyPropertyNames.clone();
+    }
+
+    @Override
+    public String[] getLazyPropertyNames() {
+        return lazyPropertyNames.clone();
+    }
+
+}
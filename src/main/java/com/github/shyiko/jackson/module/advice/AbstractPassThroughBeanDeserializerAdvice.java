@@ -0,0 +1,54 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+import java.io.IOException;
+
+/**
+ * {@link SelectiveBeanDeserializerAdvice} keeping raw JSON of the pass-through properties in {@link RawProperties}
+ * of the bean instead of deserializing them (bean's own fields, if any, are left untouched). Meant to be paired with
+ * {@link AbstractPassThroughBeanSerializerAdvice}, which writes such properties back verbatim. Note that in case of
+ * property-based creator only properties following the creator ones are passed through.
+ * @param <T> type of the bean this advice can be applied to
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public abstract class AbstractPassThroughBeanDeserializerAdvice<T> extends AbstractSelectiveBeanDeserializerAdvice<T> {
+
+    /**
+     * @param passThroughPropertyNames names of the properties (known or unknown) to pass through
+     */
+    protected AbstractPassThroughBeanDeserializerAdvice(String... passThroughPropertyNames) {
+        super(passThroughPropertyNames);
+    }
+
+    /**
+     * @param bean bean instance
+     * @return container raw JSON should be kept in (e.g. {@link com.fasterxml.jackson.annotation.JsonIgnore}d field
+     * of the bean)
+     */
+    protected abstract RawProperties getRawProperties(T bean);
+
+    @Override
+    public boolean intercept(T bean, String propertyName, JsonParser json, DeserializationContext context)
+            throws IOException {
+        getRawProperties(bean).capture(propertyName, json);
+        return true;
+    }
+
+}
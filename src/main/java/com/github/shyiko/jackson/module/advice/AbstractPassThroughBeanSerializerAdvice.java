@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * {@link IndexedBeanSerializerAdvice} writing raw JSON kept by {@link AbstractPassThroughBeanDeserializerAdvice}
+ * verbatim (objects and arrays read from byte[] are not re-encoded at all, see {@link CapturedValue}). Known
+ * properties are written in place of the bean's own values, unknown ones - right before the end of the object.
+ * @param <T> type of the bean this advice can be applied to
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public abstract class AbstractPassThroughBeanSerializerAdvice<T> extends AbstractIndexedBeanSerializerAdvice<T> {
+
+    private Set<String> propertyNames = Collections.emptySet();
+
+    /**
+     * @param bean bean instance
+     * @return container raw JSON is kept in, null if there is none
+     */
+    protected abstract RawProperties getRawProperties(T bean);
+
+    @Override
+    public void resolve(PropertyIndex propertyIndex) {
+        Set<String> names = new HashSet<String>();
+        for (int i = 0; i < propertyIndex.size(); i++) {
+            names.add(propertyIndex.nameOf(i));
+        }
+        propertyNames = names;
+    }
+
+    @Override
+    public boolean intercept(T bean, JsonGenerator json, int propertyIndex, BeanProperty property,
+            SerializerProvider provider) throws IOException {
+        RawProperties rawProperties = getRawProperties(bean);
+        return rawProperties != null && rawProperties.writeField(property.getName(), json);
+    }
+
+    @Override
+    public void after(T bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+        RawProperties rawProperties = getRawProperties(bean);
+        if (rawProperties != null) {
+            rawProperties.writeFields(json, propertyNames);
+        }
+    }
+
+}
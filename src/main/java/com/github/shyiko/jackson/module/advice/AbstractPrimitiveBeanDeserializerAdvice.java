@@ -0,0 +1,55 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import java.io.IOException;
+
+/**
+ * Default (no-op) implementation of {@link PrimitiveBeanDeserializerAdvice}. Int values are passed to
+ * {@link #interceptLong(Object, int, long)} unless {@link #interceptInt(Object, int, int)} is overridden.
+ * @param <T> type of the bean this advice can be applied to
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public abstract class AbstractPrimitiveBeanDeserializerAdvice<T> extends AbstractIndexedBeanDeserializerAdvice<T>
+        implements PrimitiveBeanDeserializerAdvice<T> {
+
+    @Override
+    public boolean interceptInt(T bean, int propertyIndex, int value) throws IOException {
+        return interceptLong(bean, propertyIndex, value);
+    }
+
+    @Override
+    public boolean interceptLong(T bean, int propertyIndex, long value) throws IOException {
+        return false;
+    }
+
+    @Override
+    public boolean interceptDouble(T bean, int propertyIndex, double value) throws IOException {
+        return false;
+    }
+
+    @Override
+    public boolean interceptBoolean(T bean, int propertyIndex, boolean value) throws IOException {
+        return false;
+    }
+
+    @Override
+    public boolean interceptText(T bean, int propertyIndex, char[] text, int offset, int length)
+            throws IOException {
+        return false;
+    }
+
+}
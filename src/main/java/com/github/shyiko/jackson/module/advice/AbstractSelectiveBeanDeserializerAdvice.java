@@ -0,0 +1,40 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+/**
+ * Default implementation of {@link SelectiveBeanDeserializerAdvice}.
+ * @param <T> type of the bean this advice can be applied to
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public abstract class AbstractSelectiveBeanDeserializerAdvice<T> extends AbstractBeanDeserializerAdvice<T>
+        implements SelectiveBeanDeserializerAdvice<T> {
+
+    private final String[] interceptedPropertyNames;
+
+    /**
+     * @param interceptedPropertyNames names of the properties advice intercepts
+     */
+    protected AbstractSelectiveBeanDeserializerAdvice(String... interceptedPropertyNames) {
+        this.interceptedPropertyNames = interceptedPropertyNames.clone();
+    }
+
+    @Override
+    public String[] getInterceptedPropertyNames() {
+        return interceptedPropertyNames.clone();
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+/**
+ * Per-thread pool of (advice-specific) context objects. Context is acquired before bean (de)serialization starts,
+ * stays the same for all the hooks called for that bean and is released (to be reused, after
+ * {@link #reset(Object)}, by the next bean) once (de)serialization is over. Nested beans (advised by the same advice)
+ * get contexts of their own.
+ * @param <C> type of the context
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+@SuppressWarnings("unchecked")
+public abstract class AdviceContextPool<C> {
+
+    private final ThreadLocal<Frames> frames = new ThreadLocal<Frames>() {
+
+        @Override
+        protected Frames initialValue() {
+            return new Frames();
+        }
+    };
+
+    /**
+     * @return new context (called only when pool runs out of released contexts)
+     */
+    protected abstract C newContext();
+
+    /**
+     * Called before released context is handed over to the next bean.
+     * @param context context
+     */
+    protected void reset(C context) {
+    }
+
+    /**
+     * @return context of the bean (de)serialization of which is about to start
+     */
+    public final C acquire() {
+        Frames stack = frames.get();
+        int depth = stack.depth;
+        if (depth == stack.contexts.length) {
+            Object[] contexts = new Object[depth * 2];
+            System.arraycopy(stack.contexts, 0, contexts, 0, depth);
+            stack.contexts = contexts;
+        }
+        C context = (C) stack.contexts[depth];
+        if (context == null) {
+            stack.contexts[depth] = context = newContext();
+        } else {
+            reset(context);
+        }
+        stack.depth = depth + 1;
+        return context;
+    }
+
+    /**
+     * @return context of the bean currently being (de)serialized
+     * @throws IllegalStateException if there is no such bean (i.e. called outside of (de)serialization)
+     */
+    public final C current() {
+        Frames stack = frames.get();
+        if (stack.depth == 0) {
+            throw new IllegalStateException("No context has been acquired");
+        }
+        return (C) stack.contexts[stack.depth - 1];
+    }
+
+    public final void release() {
+        frames.get().depth--;
+    }
+
+    /**
+     * Stack of contexts (one per nesting level).
+     */
+    private static final class Frames {
+
+        private Object[] contexts = new Object[4];
+        private int depth;
+    }
+
+}
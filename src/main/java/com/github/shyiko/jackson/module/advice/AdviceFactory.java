@@ -0,0 +1,37 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+/**
+ * Source of the advice instances (see {@link JsonAdviceModule#withAdviceFactory(AdviceFactory)}), e.g. DI container.
+ * Advices might be shared between the types they are applied to, except for {@link IndexedBeanSerializerAdvice}s and
+ * {@link IndexedBeanDeserializerAdvice}s, which are resolved against the properties of a particular type (and so
+ * require an instance per type).
+ * @see CachingAdviceFactory
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public interface AdviceFactory {
+
+    /**
+     * Called each time serializer/deserializer (or property) is advised.
+     * @param adviceClass class of the advice ({@link BeanSerializerAdvice} or {@link BeanDeserializerAdvice})
+     * @param <T> type of the advice
+     * @return advice instance
+     * @throws IllegalStateException if advice cannot be created
+     */
+    <T> T getAdvice(Class<T> adviceClass);
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+/**
+ * Group of advice hooks (as seen by {@link AdviceMetrics}).
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public enum AdviceHook {
+
+    /**
+     * bean-scoped before/intercept/after of {@link BeanSerializerAdvice}
+     */
+    SERIALIZATION_BEAN,
+    /**
+     * property-scoped before/intercept/after of {@link BeanSerializerAdvice}
+     */
+    SERIALIZATION_PROPERTY,
+    /**
+     * before/after of {@link BeanDeserializerAdvice}
+     */
+    DESERIALIZATION_BEAN,
+    /**
+     * intercept of {@link BeanDeserializerAdvice}
+     */
+    DESERIALIZATION_PROPERTY
+
+}
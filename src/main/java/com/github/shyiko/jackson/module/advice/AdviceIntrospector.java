@@ -0,0 +1,51 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+/**
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public final class AdviceIntrospector {
+
+    private AdviceIntrospector() {
+    }
+
+    /**
+     * @param adviceClass advice class
+     * @param baseClass (no-op) base class advice might have been derived from
+     * @param methodName name of the method
+     * @param parameterTypes (erased) parameter types of the method
+     * @return false if method implementation is inherited from the baseClass as-is, true otherwise (including the
+     * case when adviceClass is not a subclass of baseClass)
+     */
+    public static boolean overrides(Class<?> adviceClass, Class<?> baseClass, String methodName,
+            Class<?>... parameterTypes) {
+        if (!baseClass.isAssignableFrom(adviceClass)) {
+            return true;
+        }
+        // generic overrides are discoverable through the (erased) bridge methods generated by the compiler
+        for (Class<?> cls = adviceClass; cls != baseClass; cls = cls.getSuperclass()) {
+            try {
+                cls.getDeclaredMethod(methodName, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // not declared at this level
+            }
+        }
+        return false;
+    }
+
+}
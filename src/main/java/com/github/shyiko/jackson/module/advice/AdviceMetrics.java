@@ -0,0 +1,40 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+/**
+ * Instrumentation SPI (see {@link JsonAdviceModule#withMetrics(AdviceMetrics)}). Timers are resolved once (when
+ * (de)serializer is built), so that the only thing left for the sampled invocations is a call to
+ * {@link AdviceTimer#record(long)}. Each hook of each advice is sampled on its own (with a per-thread countdown).
+ * Without metrics there is no sampling at all (a single branch per hook). {@link AdviceMetricsRegistry} is the
+ * default (in-process) implementation.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public interface AdviceMetrics {
+
+    /**
+     * @return N to record (approximately) every N-th invocation of the hook (1 to record all of them)
+     */
+    int getSamplingInterval();
+
+    /**
+     * @param adviceClass advice class
+     * @param hook group of hooks
+     * @return timer for the hooks of the advice
+     */
+    AdviceTimer timer(Class<?> adviceClass, AdviceHook hook);
+
+}
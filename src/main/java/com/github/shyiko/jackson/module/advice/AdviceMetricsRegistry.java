@@ -0,0 +1,135 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Default (in-process) {@link AdviceMetrics} implementation keeping invocation count, cumulative time and
+ * (log2-bucketed) time histogram per (advice class, hook) pair.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public class AdviceMetricsRegistry implements AdviceMetrics {
+
+    private final int samplingInterval;
+    private final ConcurrentMap<Key, Timer> timers = new ConcurrentHashMap<Key, Timer>();
+
+    public AdviceMetricsRegistry() {
+        this(1);
+    }
+
+    /**
+     * @param samplingInterval N to record (approximately) every N-th invocation
+     */
+    public AdviceMetricsRegistry(int samplingInterval) {
+        if (samplingInterval < 1) {
+            throw new IllegalArgumentException("Sampling interval must be positive");
+        }
+        this.samplingInterval = samplingInterval;
+    }
+
+    @Override
+    public int getSamplingInterval() {
+        return samplingInterval;
+    }
+
+    @Override
+    public AdviceTimer timer(Class<?> adviceClass, AdviceHook hook) {
+        Key key = new Key(adviceClass, hook);
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            Timer existingTimer = timers.putIfAbsent(key, timer = new Timer());
+            if (existingTimer != null) {
+                timer = existingTimer;
+            }
+        }
+        return timer;
+    }
+
+    /**
+     * @return metrics collected so far (one entry per (advice class, hook) pair)
+     */
+    public List<AdviceMetricsSnapshot> snapshot() {
+        List<AdviceMetricsSnapshot> result = new ArrayList<AdviceMetricsSnapshot>(timers.size());
+        for (Map.Entry<Key, Timer> entry : timers.entrySet()) {
+            Key key = entry.getKey();
+            Timer timer = entry.getValue();
+            long[] buckets = new long[timer.buckets.length()];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = timer.buckets.get(i);
+            }
+            result.add(new AdviceMetricsSnapshot(key.adviceClass, key.hook, samplingInterval, timer.count.get(),
+                timer.totalNanos.get(), buckets));
+        }
+        return result;
+    }
+
+    /**
+     * (advice class, hook) pair.
+     */
+    private static final class Key {
+
+        private final Class<?> adviceClass;
+        private final AdviceHook hook;
+
+        private Key(Class<?> adviceClass, AdviceHook hook) {
+            this.adviceClass = adviceClass;
+            this.hook = hook;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return adviceClass == that.adviceClass && hook == that.hook;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * adviceClass.hashCode() + hook.hashCode();
+        }
+    }
+
+    /**
+     * Lock-free timer (see {@link AdviceMetricsSnapshot} for the bucket layout).
+     */
+    private static final class Timer implements AdviceTimer {
+
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+
+        @Override
+        public void record(long nanos) {
+            long value = Math.max(nanos, 0);
+            count.incrementAndGet();
+            totalNanos.addAndGet(value);
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+        }
+    }
+
+}
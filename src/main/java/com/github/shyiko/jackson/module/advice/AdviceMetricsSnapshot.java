@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+/**
+ * Point-in-time (immutable) view of the metrics collected by {@link AdviceMetricsRegistry} for a single
+ * (advice class, hook) pair. Counts and times cover sampled invocations only (see {@link #getEstimatedCount()}).
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public class AdviceMetricsSnapshot {
+
+    private final Class<?> adviceClass;
+    private final AdviceHook hook;
+    private final int samplingInterval;
+    private final long count;
+    private final long totalNanos;
+    /**
+     * buckets[i] is the number of invocations which took [2^(i-1), 2^i) nanoseconds (buckets[0] - 0 nanoseconds)
+     */
+    private final long[] buckets;
+
+    public AdviceMetricsSnapshot(Class<?> adviceClass, AdviceHook hook, int samplingInterval, long count,
+            long totalNanos, long[] buckets) {
+        this.adviceClass = adviceClass;
+        this.hook = hook;
+        this.samplingInterval = samplingInterval;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.buckets = buckets.clone();
+    }
+
+    public Class<?> getAdviceClass() {
+        return adviceClass;
+    }
+
+    public AdviceHook getHook() {
+        return hook;
+    }
+
+    /**
+     * @return number of sampled invocations
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return (estimated) total number of invocations
+     */
+    public long getEstimatedCount() {
+        return count * samplingInterval;
+    }
+
+    /**
+     * @return cumulative time (in nanoseconds) of the sampled invocations
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return average time (in nanoseconds) of an invocation, 0 if there were none
+     */
+    public long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    /**
+     * @param quantile quantile within [0, 1] (e.g. 0.99 for the 99th percentile)
+     * @return upper bound (in nanoseconds) of the time taken by given share of (sampled) invocations (bounds are
+     * powers of two, so value is accurate within a factor of 2), 0 if there were no invocations
+     */
+    public long getPercentileNanos(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be within [0, 1]");
+        }
+        long total = 0;
+        for (long bucket : buckets) {
+            total += bucket;
+        }
+        long threshold = (long) Math.ceil(quantile * total), accumulated = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            accumulated += buckets[i];
+            if (accumulated >= threshold && accumulated != 0) {
+                return i == 0 ? 0 : (1L << i) - 1;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return adviceClass.getName() + "#" + hook + "{count=" + count + ", estimatedCount=" + getEstimatedCount() +
+            ", meanNanos=" + getMeanNanos() + ", p50Nanos=" + getPercentileNanos(0.5) + ", p99Nanos=" +
+            getPercentileNanos(0.99) + "}";
+    }
+
+}
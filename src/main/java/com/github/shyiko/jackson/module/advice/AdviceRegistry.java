@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import java.util.List;
+
+/**
+ * Compile-time index of the advices (generated by jackson-module-advice-processor for each package as
+ * {@code <package>.GeneratedAdviceRegistry}, which is how {@link JsonAdviceModule} finds it), which allows
+ * {@link JsonAdviceModule} to resolve and create advices without reflection. Anything registry knows nothing about
+ * is resolved reflectively.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public interface AdviceRegistry {
+
+    /**
+     * @param type bean type
+     * @return advice classes declared by the type itself with {@link JsonSerializerAdvice}, null if type is not
+     * indexed
+     */
+    List<Class<? extends BeanSerializerAdvice<?>>> getSerializerAdvices(Class<?> type);
+
+    /**
+     * @param type bean type
+     * @return advice classes declared by the type itself with {@link JsonDeserializerAdvice}, null if type is not
+     * indexed
+     */
+    List<Class<? extends BeanDeserializerAdvice<?>>> getDeserializerAdvices(Class<?> type);
+
+    /**
+     * @param adviceClass class of the advice
+     * @param <T> type of the advice
+     * @return new instance of the advice, null if advice class is not indexed
+     */
+    <T> T newInstance(Class<T> adviceClass);
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.ObjectIdWriter;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+
+import java.io.IOException;
+
+/**
+ * Advised counterpart of {@link com.fasterxml.jackson.databind.ser.impl.BeanAsArraySerializer} (used when bean is
+ * annotated with {@code @JsonFormat(shape = JsonFormat.Shape.ARRAY)}).
+ * <p>
+ * {@link BeanSerializerAdvice} hooks are called exactly as they are in case of {@link AdvisedBeanSerializer}, except
+ * that generator is positioned inside of JSON Array, and so advice is expected to write values (not fields). That is,
+ * bean-scoped before/after can prepend/append elements, while property-scoped intercept can replace element at
+ * the (known) index of the property.
+ * <p>
+ * Note that {@link com.fasterxml.jackson.databind.SerializationFeature#WRITE_SINGLE_ELEM_ARRAYS_UNWRAPPED} is not
+ * honored (as advice may contribute elements of its own).
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+@SuppressWarnings("unchecked")
+public class AdvisedBeanAsArraySerializer extends BeanSerializerBase {
+
+    /**
+     * serializer producing JSON Object (used whenever array shape is not supported)
+     */
+    private final AdvisedBeanSerializer defaultSerializer;
+    private final BeanSerializerAdvice beanSerializerAdvice;
+    private final IndexedBeanSerializerAdvice indexedBeanSerializerAdvice;
+    private final ContextualBeanSerializerAdvice contextualBeanSerializerAdvice;
+    private final int[] propertyIndexes;
+    private final boolean propertyAdvice;
+
+    protected AdvisedBeanAsArraySerializer(AdvisedBeanSerializer src, BeanSerializerAdvice beanSerializerAdvice,
+            int[] propertyIndexes, boolean propertyAdvice) {
+        super(src, (ObjectIdWriter) null);
+        this.defaultSerializer = src;
+        this.beanSerializerAdvice = beanSerializerAdvice;
+        this.indexedBeanSerializerAdvice = beanSerializerAdvice instanceof IndexedBeanSerializerAdvice ?
+            (IndexedBeanSerializerAdvice) beanSerializerAdvice : null;
+        this.contextualBeanSerializerAdvice = beanSerializerAdvice instanceof ContextualBeanSerializerAdvice ?
+            (ContextualBeanSerializerAdvice) beanSerializerAdvice : null;
+        this.propertyIndexes = propertyIndexes;
+        this.propertyAdvice = propertyAdvice;
+    }
+
+    @Override
+    public JsonSerializer<Object> unwrappingSerializer(NameTransformer transformer) {
+        return defaultSerializer.unwrappingSerializer(transformer);
+    }
+
+    @Override
+    public boolean isUnwrappingSerializer() {
+        return false;
+    }
+
+    @Override
+    public BeanSerializerBase withObjectIdWriter(ObjectIdWriter objectIdWriter) {
+        return defaultSerializer.withObjectIdWriter(objectIdWriter);
+    }
+
+    @Override
+    protected BeanSerializerBase withFilterId(Object filterId) {
+        return defaultSerializer.withFilterId(filterId);
+    }
+
+    @Override
+    protected BeanSerializerBase withIgnorals(String[] toIgnore) {
+        // property indexes need to be remapped, which is something AdvisedBeanSerializer already takes care of
+        return ((AdvisedBeanSerializer) defaultSerializer.withIgnorals(toIgnore)).asArraySerializer();
+    }
+
+    @Override
+    protected BeanSerializerBase asArraySerializer() {
+        return this;
+    }
+
+    @Override
+    public void serializeWithType(Object bean, JsonGenerator jgen, SerializerProvider provider,
+            TypeSerializer typeSer) throws IOException {
+        defaultSerializer.serializeWithType(bean, jgen, provider, typeSer);
+    }
+
+    @Override
+    public void serialize(Object bean, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+        if (contextualBeanSerializerAdvice == null) {
+            serializeBean(bean, jgen, provider, beanSerializerAdvice);
+            return;
+        }
+        BeanSerializerAdvice advice = contextualBeanSerializerAdvice.enter();
+        try {
+            serializeBean(bean, jgen, provider, advice);
+        } finally {
+            contextualBeanSerializerAdvice.exit();
+        }
+    }
+
+    /**
+     * @param advice advice to call hooks on (see {@link ContextualBeanSerializerAdvice#enter()})
+     */
+    private void serializeBean(Object bean, JsonGenerator jgen, SerializerProvider provider,
+            BeanSerializerAdvice advice) throws IOException {
+        jgen.writeStartArray();
+        if (!advice.intercept(bean, jgen, provider)) {
+            advice.before(bean, jgen, provider);
+            serializeAsArray(bean, jgen, provider, advice);
+            advice.after(bean, jgen, provider);
+        }
+        jgen.writeEndArray();
+    }
+
+    protected void serializeAsArray(Object bean, JsonGenerator jgen, SerializerProvider provider,
+            BeanSerializerAdvice advice) throws IOException {
+        final BeanPropertyWriter[] props;
+        if (_filteredProps != null && provider.getActiveView() != null) {
+            props = _filteredProps;
+        } else {
+            props = _props;
+        }
+        final IndexedBeanSerializerAdvice indexedAdvice =
+            indexedBeanSerializerAdvice != null ? (IndexedBeanSerializerAdvice) advice : null;
+        int i = 0;
+        try {
+            for (final int len = props.length; i < len; ++i) {
+                BeanPropertyWriter prop = props[i];
+                if (prop == null) { // can have nulls in filtered list; but if so, MUST write placeholders
+                    jgen.writeNull();
+                } else if (!propertyAdvice) {
+                    prop.serializeAsElement(bean, jgen, provider);
+                } else if (indexedAdvice != null) {
+                    final int index = propertyIndexes[i];
+                    if (!indexedAdvice.intercept(bean, jgen, index, prop, provider)) {
+                        indexedAdvice.before(bean, jgen, index, prop, provider);
+                        prop.serializeAsElement(bean, jgen, provider);
+                        indexedAdvice.after(bean, jgen, index, prop, provider);
+                    }
+                } else if (!advice.intercept(bean, jgen, prop, provider)) {
+                    advice.before(bean, jgen, prop, provider);
+                    prop.serializeAsElement(bean, jgen, provider);
+                    advice.after(bean, jgen, prop, provider);
+                }
+            }
+        } catch (Exception e) {
+            wrapAndThrow(provider, e, bean, props[i].getName());
+        } catch (StackOverflowError e) {
+            JsonMappingException mapE = new JsonMappingException("Infinite recursion (StackOverflowError)", e);
+            mapE.prependPath(new JsonMappingException.Reference(bean, props[i].getName()));
+            throw mapE;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " for " + handledType().getName();
+    }
+
+}
@@ -34,8 +34,10 @@ import com.fasterxml.jackson.databind.util.NameTransformer;
 import com.fasterxml.jackson.databind.util.TokenBuffer;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Whole class is basically a rip-off of {@link com.fasterxml.jackson.databind.deser.BeanDeserializer} with inlined
@@ -45,27 +47,121 @@ import java.util.Map;
 public class AdvisedBeanDeserializer extends BeanDeserializerBase {
 
     private final BeanDeserializerAdvice beanDeserializerAdvice;
+    /**
+     * same as beanDeserializerAdvice if it's an instance of IndexedBeanDeserializerAdvice, null otherwise
+     */
+    private final IndexedBeanDeserializerAdvice indexedBeanDeserializerAdvice;
+    /**
+     * same as beanDeserializerAdvice if it's an instance of ContextualBeanDeserializerAdvice, null otherwise
+     */
+    private final ContextualBeanDeserializerAdvice contextualBeanDeserializerAdvice;
+    /**
+     * same as beanDeserializerAdvice if it's an instance of CreatorBeanDeserializerAdvice (with at least one creator
+     * hook in case of BeanDeserializerAdviceChain), null otherwise
+     */
+    private final CreatorBeanDeserializerAdvice creatorBeanDeserializerAdvice;
+    /**
+     * same as beanDeserializerAdvice if it's an instance of PrimitiveBeanDeserializerAdvice, null otherwise
+     * (BeanDeserializerAdviceChain dispatches to the typed hooks of its members by itself)
+     */
+    private final PrimitiveBeanDeserializerAdvice primitiveBeanDeserializerAdvice;
+    /**
+     * interceptedProperties[i] tells whether intercept should be called for the property with index i (null if
+     * intercept should be called for all properties, see {@link SelectiveBeanDeserializerAdvice})
+     */
+    private final boolean[] interceptedProperties;
+    /**
+     * names declared by {@link SelectiveBeanDeserializerAdvice} (consulted for ignored/unknown properties only),
+     * null if intercept should be called for all properties
+     */
+    private final Set<String> interceptedPropertyNames;
+    /**
+     * false if advice is known not to intercept any of the properties (intercept is inherited from the no-op base
+     * class), true otherwise
+     */
+    private final boolean interceptsProperties;
 
     protected AdvisedBeanDeserializer(BeanDeserializerBuilder builder, BeanDescription beanDesc,
             BeanPropertyMap properties, Map<String, SettableBeanProperty> backRefs, HashSet<String> ignorableProps,
             boolean ignoreAllUnknown, boolean hasViews, BeanDeserializerAdvice beanDeserializerAdvice) {
         super(builder, beanDesc, properties, backRefs, ignorableProps, ignoreAllUnknown, hasViews);
         this.beanDeserializerAdvice = beanDeserializerAdvice;
+        this.indexedBeanDeserializerAdvice = beanDeserializerAdvice instanceof IndexedBeanDeserializerAdvice ?
+            (IndexedBeanDeserializerAdvice) beanDeserializerAdvice : null;
+        this.contextualBeanDeserializerAdvice = beanDeserializerAdvice instanceof ContextualBeanDeserializerAdvice ?
+            (ContextualBeanDeserializerAdvice) beanDeserializerAdvice : null;
+        this.creatorBeanDeserializerAdvice = beanDeserializerAdvice instanceof CreatorBeanDeserializerAdvice &&
+            !(beanDeserializerAdvice instanceof BeanDeserializerAdviceChain &&
+            !((BeanDeserializerAdviceChain) beanDeserializerAdvice).hasCreatorAdvices()) ?
+            (CreatorBeanDeserializerAdvice) beanDeserializerAdvice : null;
+        this.primitiveBeanDeserializerAdvice = beanDeserializerAdvice instanceof PrimitiveBeanDeserializerAdvice ?
+            (PrimitiveBeanDeserializerAdvice) beanDeserializerAdvice : null;
+        String[] names = beanDeserializerAdvice instanceof SelectiveBeanDeserializerAdvice ?
+            ((SelectiveBeanDeserializerAdvice) beanDeserializerAdvice).getInterceptedPropertyNames() : null;
+        if (names != null) {
+            this.interceptedPropertyNames = new HashSet<String>(Arrays.asList(names));
+            this.interceptedProperties = new boolean[properties.size()];
+            for (SettableBeanProperty property : properties) {
+                int index = property.getPropertyIndex();
+                if (index > -1 && index < interceptedProperties.length) {
+                    interceptedProperties[index] = interceptedPropertyNames.contains(property.getName());
+                }
+            }
+        } else {
+            this.interceptedPropertyNames = null;
+            this.interceptedProperties = null;
+        }
+        this.interceptsProperties = interceptsProperties(beanDeserializerAdvice);
+    }
+
+    private static boolean interceptsProperties(BeanDeserializerAdvice advice) {
+        if (advice instanceof BeanDeserializerAdviceChain) {
+            return ((BeanDeserializerAdviceChain) advice).hasPropertyAdvices();
+        }
+        if (advice instanceof IndexedBeanDeserializerAdvice) {
+            // typed hooks are not introspected
+            return advice instanceof PrimitiveBeanDeserializerAdvice ||
+                AdviceIntrospector.overrides(advice.getClass(), AbstractIndexedBeanDeserializerAdvice.class,
+                    "intercept", Object.class, int.class, String.class, JsonParser.class, DeserializationContext.class);
+        }
+        return AdviceIntrospector.overrides(advice.getClass(), AbstractBeanDeserializerAdvice.class, "intercept",
+            Object.class, String.class, JsonParser.class, DeserializationContext.class);
     }
 
     protected AdvisedBeanDeserializer(AdvisedBeanDeserializer src, NameTransformer unwrapper) {
         super(src, unwrapper);
         this.beanDeserializerAdvice = src.beanDeserializerAdvice;
+        this.indexedBeanDeserializerAdvice = src.indexedBeanDeserializerAdvice;
+        this.contextualBeanDeserializerAdvice = src.contextualBeanDeserializerAdvice;
+        this.creatorBeanDeserializerAdvice = src.creatorBeanDeserializerAdvice;
+        this.primitiveBeanDeserializerAdvice = src.primitiveBeanDeserializerAdvice;
+        this.interceptedProperties = src.interceptedProperties;
+        this.interceptedPropertyNames = src.interceptedPropertyNames;
+        this.interceptsProperties = src.interceptsProperties;
     }
 
     protected AdvisedBeanDeserializer(AdvisedBeanDeserializer src, ObjectIdReader oir) {
         super(src, oir);
         this.beanDeserializerAdvice = src.beanDeserializerAdvice;
+        this.indexedBeanDeserializerAdvice = src.indexedBeanDeserializerAdvice;
+        this.contextualBeanDeserializerAdvice = src.contextualBeanDeserializerAdvice;
+        this.creatorBeanDeserializerAdvice = src.creatorBeanDeserializerAdvice;
+        this.primitiveBeanDeserializerAdvice = src.primitiveBeanDeserializerAdvice;
+        this.interceptedProperties = src.interceptedProperties;
+        this.interceptedPropertyNames = src.interceptedPropertyNames;
+        this.interceptsProperties = src.interceptsProperties;
     }
 
     protected AdvisedBeanDeserializer(AdvisedBeanDeserializer src, HashSet<String> ignorableProps) {
         super(src, ignorableProps);
         this.beanDeserializerAdvice = src.beanDeserializerAdvice;
+        this.indexedBeanDeserializerAdvice = src.indexedBeanDeserializerAdvice;
+        this.contextualBeanDeserializerAdvice = src.contextualBeanDeserializerAdvice;
+        this.creatorBeanDeserializerAdvice = src.creatorBeanDeserializerAdvice;
+        this.primitiveBeanDeserializerAdvice = src.primitiveBeanDeserializerAdvice;
+        this.interceptedProperties = src.interceptedProperties;
+        this.interceptedPropertyNames = src.interceptedPropertyNames;
+        this.interceptsProperties = src.interceptsProperties;
     }
 
     @Override
@@ -108,6 +204,18 @@ public class AdvisedBeanDeserializer extends BeanDeserializerBase {
     @Override
     public Object deserialize(JsonParser jp, DeserializationContext ctxt)
             throws IOException {
+        if (contextualBeanDeserializerAdvice == null) {
+            return deserializeBean(jp, ctxt);
+        }
+        contextualBeanDeserializerAdvice.enter();
+        try {
+            return deserializeBean(jp, ctxt);
+        } finally {
+            contextualBeanDeserializerAdvice.exit();
+        }
+    }
+
+    private Object deserializeBean(JsonParser jp, DeserializationContext ctxt) throws IOException {
         JsonToken t = jp.getCurrentToken();
         // common case first:
         if (t == JsonToken.START_OBJECT) {
@@ -172,6 +280,22 @@ public class AdvisedBeanDeserializer extends BeanDeserializerBase {
     @Override
     public Object deserialize(JsonParser jp, DeserializationContext ctxt, Object bean)
             throws IOException {
+        if (contextualBeanDeserializerAdvice == null) {
+            return deserializeBean(jp, ctxt, bean, null);
+        }
+        contextualBeanDeserializerAdvice.enter();
+        try {
+            return deserializeBean(jp, ctxt, bean, null);
+        } finally {
+            contextualBeanDeserializerAdvice.exit();
+        }
+    }
+
+    /**
+     * @param deferred properties preceding the creation of the bean (see {@link #defer}), null if there are none
+     */
+    private Object deserializeBean(JsonParser jp, DeserializationContext ctxt, Object bean, TokenBuffer deferred)
+            throws IOException {
         if (_injectables != null) {
             injectValues(ctxt, bean);
         }
@@ -189,20 +313,21 @@ public class AdvisedBeanDeserializer extends BeanDeserializerBase {
         if (_needViewProcesing) {
             Class<?> view = ctxt.getActiveView();
             if (view != null) {
-                return deserializeWithView(jp, ctxt, bean, view);
+                return deserializeWithView(jp, ctxt, bean, view, deferred);
             }
         }
-        beanDeserializerAdvice.before(bean, jp, ctxt);
+        before(bean, deferred, jp, ctxt);
         for (; t == JsonToken.FIELD_NAME; t = jp.nextToken()) {
             String propName = jp.getCurrentName();
             // Skip field name:
             jp.nextToken();
 
-            if (beanDeserializerAdvice.intercept(bean, propName, jp, ctxt)) {
+            SettableBeanProperty prop = _beanProperties.find(propName);
+
+            if (interceptProperty(bean, prop, propName, jp, ctxt)) {
                 continue;
             }
 
-            SettableBeanProperty prop = _beanProperties.find(propName);
 
             if (prop != null) { // normal case
                 try {
@@ -218,6 +343,32 @@ public class AdvisedBeanDeserializer extends BeanDeserializerBase {
         return bean;
     }
 
+    @SuppressWarnings("unchecked")
+    private boolean interceptProperty(Object bean, SettableBeanProperty prop, String propName, JsonParser jp,
+            DeserializationContext ctxt) throws IOException {
+        if (interceptedProperties != null && !isIntercepted(prop, propName)) {
+            return false;
+        }
+        if (indexedBeanDeserializerAdvice != null) {
+            int propertyIndex = prop != null ? prop.getPropertyIndex() : -1;
+            if (primitiveBeanDeserializerAdvice != null && propertyIndex > -1 && PrimitiveIntercepts.supports(jp)) {
+                return PrimitiveIntercepts.intercept(primitiveBeanDeserializerAdvice, bean, propertyIndex, jp);
+            }
+            return indexedBeanDeserializerAdvice.intercept(bean, propertyIndex, propName, jp, ctxt);
+        }
+        return beanDeserializerAdvice.intercept(bean, propName, jp, ctxt);
+    }
+
+    private boolean isIntercepted(SettableBeanProperty prop, String propName) {
+        if (prop != null) {
+            int propertyIndex = prop.getPropertyIndex();
+            if (propertyIndex > -1 && propertyIndex < interceptedProperties.length) {
+                return interceptedProperties[propertyIndex];
+            }
+        }
+        return interceptedPropertyNames.contains(propName);
+    }
+
     /**
      * Streamlined version that is only used when no "special"
      * features are enabled.
@@ -232,11 +383,12 @@ public class AdvisedBeanDeserializer extends BeanDeserializerBase {
             // Skip field name:
             jp.nextToken();
 
-            if (beanDeserializerAdvice.intercept(bean, propName, jp, ctxt)) {
+            SettableBeanProperty prop = _beanProperties.find(propName);
+
+            if (interceptProperty(bean, prop, propName, jp, ctxt)) {
                 continue;
             }
 
-            SettableBeanProperty prop = _beanProperties.find(propName);
             if (prop != null) { // normal case
                 try {
                     prop.deserializeAndSet(jp, ctxt, bean);
@@ -289,11 +441,12 @@ public class AdvisedBeanDeserializer extends BeanDeserializerBase {
             // Skip field name:
             jp.nextToken();
 
-            if (beanDeserializerAdvice.intercept(bean, propName, jp, ctxt)) {
+            SettableBeanProperty prop = _beanProperties.find(propName);
+
+            if (interceptProperty(bean, prop, propName, jp, ctxt)) {
                 continue;
             }
 
-            SettableBeanProperty prop = _beanProperties.find(propName);
             if (prop != null) { // normal case
                 try {
                     prop.deserializeAndSet(jp, ctxt, bean);
@@ -315,6 +468,11 @@ public class AdvisedBeanDeserializer extends BeanDeserializerBase {
      * values for creator method need to be buffered, first; and
      * due to non-guaranteed ordering possibly some other properties
      * as well.
+     * <p/>
+     * Properties preceding the creation of the bean are passed to
+     * {@link CreatorBeanDeserializerAdvice#interceptBeforeCreation} (if advice implements it), the rest go through
+     * the usual before/intercept/after sequence. Regular properties intercept is called for are kept aside until the
+     * bean is created (and then replayed right after before), the rest go straight into the creator's buffer.
      */
     @Override
     @SuppressWarnings("resource")
@@ -322,37 +480,39 @@ public class AdvisedBeanDeserializer extends BeanDeserializerBase {
             throws IOException {
         final PropertyBasedCreator creator = _propertyBasedCreator;
         PropertyValueBuffer buffer = creator.startBuilding(jp, ctxt, _objectIdReader);
+        CreatorParameters parameters = beforeCreation(creator, buffer, jp, ctxt);
 
         // 04-Jan-2010, tatu: May need to collect unknown properties for polymorphic cases
         TokenBuffer unknown = null;
+        TokenBuffer deferred = null;
 
         JsonToken t = jp.getCurrentToken();
         for (; t == JsonToken.FIELD_NAME; t = jp.nextToken()) {
             String propName = jp.getCurrentName();
             jp.nextToken(); // to point to value
+            if (isDeferred(creator, propName)) {
+                deferred = defer(deferred, propName, jp);
+                continue;
+            }
+            if (interceptBeforeCreation(parameters, propName, jp, ctxt)) {
+                if (buffer.isComplete()) { // advice supplied the last creator parameter
+                    jp.nextToken();
+                    return deserializeUsingCreatedBean(jp, ctxt, buffer, propName, unknown, deferred);
+                }
+                continue;
+            }
             // creator property?
             SettableBeanProperty creatorProp = creator.findCreatorProperty(propName);
             if (creatorProp != null) {
+                if (isAssignedByAdvice(parameters, creatorProp)) {
+                    jp.skipChildren(); // value supplied by the advice takes precedence
+                    continue;
+                }
                 // Last creator property to set?
                 Object value = creatorProp.deserialize(jp, ctxt);
                 if (buffer.assignParameter(creatorProp.getCreatorIndex(), value)) {
                     jp.nextToken(); // to move to following FIELD_NAME/END_OBJECT
-                    Object bean;
-                    try {
-                        bean = creator.build(ctxt, buffer);
-                    } catch (Exception e) {
-                        wrapAndThrow(e, _beanType.getRawClass(), propName, ctxt);
-                        bean = null; // never gets here
-                    }
-                    //  polymorphic?
-                    if (bean.getClass() != _beanType.getRawClass()) {
-                        return handlePolymorphic(jp, ctxt, bean, unknown);
-                    }
-                    if (unknown != null) { // nope, just extra unknown stuff...
-                        bean = handleUnknownProperties(ctxt, bean, unknown);
-                    }
-                    // or just clean?
-                    return deserialize(jp, ctxt, bean);
+                    return deserializeUsingCreatedBean(jp, ctxt, buffer, propName, unknown, deferred);
                 }
                 continue;
             }
@@ -389,37 +549,166 @@ public class AdvisedBeanDeserializer extends BeanDeserializerBase {
         // We hit END_OBJECT, so:
         Object bean;
         try {
-            bean = creator.build(ctxt, buffer);
+            bean = _propertyBasedCreator.build(ctxt, buffer);
         } catch (Exception e) {
             wrapInstantiationProblem(e, ctxt);
             bean = null; // never gets here
         }
+        if ((unknown != null || deferred != null) && bean.getClass() != _beanType.getRawClass()) {
+            return handlePolymorphic(null, ctxt, bean, withDeferred(unknown, deferred, jp));
+        }
+        before(bean, deferred, jp, ctxt);
         if (unknown != null) {
-            // polymorphic?
-            if (bean.getClass() != _beanType.getRawClass()) {
-                return handlePolymorphic(null, ctxt, bean, unknown);
-            }
             // no, just some extra unknown properties
-            return handleUnknownProperties(ctxt, bean, unknown);
+            bean = handleUnknownProperties(ctxt, bean, unknown);
         }
+        beanDeserializerAdvice.after(bean, jp, ctxt);
         return bean;
     }
 
+    /**
+     * @return parameters exposed to the {@link CreatorBeanDeserializerAdvice}, null if there is no such advice
+     */
+    private CreatorParameters beforeCreation(PropertyBasedCreator creator, PropertyValueBuffer buffer, JsonParser jp,
+            DeserializationContext ctxt) throws IOException {
+        if (creatorBeanDeserializerAdvice == null) {
+            return null;
+        }
+        CreatorParameters parameters = new CreatorParameters(creator, buffer);
+        creatorBeanDeserializerAdvice.beforeCreation(parameters, jp, ctxt);
+        return parameters;
+    }
+
+    private boolean interceptBeforeCreation(CreatorParameters parameters, String propName, JsonParser jp,
+            DeserializationContext ctxt) throws IOException {
+        return parameters != null &&
+            creatorBeanDeserializerAdvice.interceptBeforeCreation(parameters, propName, jp, ctxt);
+    }
+
+    /**
+     * @return true if value of the creator property has been supplied by the advice (in which case json value should
+     * be skipped), false otherwise
+     */
+    private static boolean isAssignedByAdvice(CreatorParameters parameters, SettableBeanProperty creatorProp) {
+        return parameters != null && parameters.isAssigned(creatorProp.getCreatorIndex());
+    }
+
+    /**
+     * @return true if value of the regular property preceding the creation of the bean has to be kept until the bean
+     * exists (because advice intercepts it, in which case it's passed to intercept instead of interceptBeforeCreation),
+     * false if property should be handled right away
+     */
+    private boolean isDeferred(PropertyBasedCreator creator, String propName) {
+        if (!interceptsProperties || creator.findCreatorProperty(propName) != null ||
+            _objectIdReader != null && propName.equals(_objectIdReader.propertyName.getSimpleName())) {
+            return false;
+        }
+        SettableBeanProperty prop = _beanProperties.find(propName);
+        return prop != null && (interceptedProperties == null || isIntercepted(prop, propName));
+    }
+
+    /**
+     * @param deferred properties deferred so far (null if none)
+     * @return buffer with the current property (name and value) appended
+     */
+    private static TokenBuffer defer(TokenBuffer deferred, String propName, JsonParser jp) throws IOException {
+        TokenBuffer result = deferred == null ? new TokenBuffer(jp) : deferred;
+        result.writeFieldName(propName);
+        result.copyCurrentStructure(jp);
+        return result;
+    }
+
+    /**
+     * @return unknown properties followed by the deferred ones (so that deserializer of the actual (sub)type could
+     * take care of all of them)
+     */
+    private static TokenBuffer withDeferred(TokenBuffer unknown, TokenBuffer deferred, JsonParser jp)
+            throws IOException {
+        if (deferred == null) {
+            return unknown;
+        }
+        TokenBuffer result = unknown == null ? new TokenBuffer(jp) : unknown;
+        deferred.serialize(result);
+        return result;
+    }
+
+    /**
+     * Calls {@link BeanDeserializerAdvice#before} and then passes properties that preceded the creation of the bean
+     * (if any) through intercept (and, unless intercepted, the property itself).
+     */
+    private void before(Object bean, TokenBuffer deferred, JsonParser jp, DeserializationContext ctxt)
+            throws IOException {
+        beanDeserializerAdvice.before(bean, jp, ctxt);
+        if (deferred == null) {
+            return;
+        }
+        JsonParser deferredParser = deferred.asParser(jp);
+        try {
+            for (JsonToken t = deferredParser.nextToken(); t == JsonToken.FIELD_NAME;
+                 t = deferredParser.nextToken()) {
+                String propName = deferredParser.getCurrentName();
+                deferredParser.nextToken();
+                SettableBeanProperty prop = _beanProperties.find(propName);
+                if (interceptProperty(bean, prop, propName, deferredParser, ctxt)) {
+                    continue;
+                }
+                try {
+                    prop.deserializeAndSet(deferredParser, ctxt, bean);
+                } catch (Exception e) {
+                    wrapAndThrow(e, bean, propName, ctxt);
+                }
+            }
+        } finally {
+            deferredParser.close();
+        }
+    }
+
+    /**
+     * Creates bean as soon as the last creator parameter is known and then deserializes the rest of properties as if
+     * bean was instantiated using default constructor.
+     */
+    private Object deserializeUsingCreatedBean(JsonParser jp, DeserializationContext ctxt,
+            PropertyValueBuffer buffer, String propName, TokenBuffer unknown, TokenBuffer deferred)
+            throws IOException {
+        Object bean;
+        try {
+            bean = _propertyBasedCreator.build(ctxt, buffer);
+        } catch (Exception e) {
+            wrapAndThrow(e, _beanType.getRawClass(), propName, ctxt);
+            bean = null; // never gets here
+        }
+        //  polymorphic?
+        if (bean.getClass() != _beanType.getRawClass()) {
+            return handlePolymorphic(jp, ctxt, bean, withDeferred(unknown, deferred, jp));
+        }
+        if (unknown != null) { // nope, just extra unknown stuff...
+            bean = handleUnknownProperties(ctxt, bean, unknown);
+        }
+        // or just clean? (advice has already been entered, hence no deserialize(jp, ctxt, bean))
+        return deserializeBean(jp, ctxt, bean, deferred);
+    }
+
     protected Object deserializeWithView(JsonParser jp, DeserializationContext ctxt,
                                          Object bean, Class<?> activeView)
             throws IOException {
-        beanDeserializerAdvice.before(bean, jp, ctxt);
+        return deserializeWithView(jp, ctxt, bean, activeView, null);
+    }
+
+    private Object deserializeWithView(JsonParser jp, DeserializationContext ctxt, Object bean, Class<?> activeView,
+            TokenBuffer deferred) throws IOException {
+        before(bean, deferred, jp, ctxt);
         JsonToken t = jp.getCurrentToken();
         for (; t == JsonToken.FIELD_NAME; t = jp.nextToken()) {
             String propName = jp.getCurrentName();
             // Skip field name:
             jp.nextToken();
 
-            if (beanDeserializerAdvice.intercept(bean, propName, jp, ctxt)) {
+            SettableBeanProperty prop = _beanProperties.find(propName);
+
+            if (interceptProperty(bean, prop, propName, jp, ctxt)) {
                 continue;
             }
 
-            SettableBeanProperty prop = _beanProperties.find(propName);
             if (prop != null) {
                 if (!prop.visibleInView(activeView)) {
                     jp.skipChildren();
@@ -442,7 +731,6 @@ public class AdvisedBeanDeserializer extends BeanDeserializerBase {
      * Method called when there are declared "unwrapped" properties
      * which need special handling
      */
-    @SuppressWarnings("resource")
     protected Object deserializeWithUnwrapped(JsonParser jp, DeserializationContext ctxt)
             throws IOException {
         if (_delegateDeserializer != null) {
@@ -451,24 +739,45 @@ public class AdvisedBeanDeserializer extends BeanDeserializerBase {
         if (_propertyBasedCreator != null) {
             return deserializeUsingPropertyBasedWithUnwrapped(jp, ctxt);
         }
-        TokenBuffer tokens = new TokenBuffer(jp);
-        tokens.writeStartObject();
         final Object bean = _valueInstantiator.createUsingDefault(ctxt);
 
         if (_injectables != null) {
             injectValues(ctxt, bean);
         }
+        TokenBuffer tokens = new TokenBuffer(jp);
+        tokens.writeStartObject();
+        return deserializeWithUnwrapped(jp, ctxt, bean, tokens, null);
+    }
+
+    protected Object deserializeWithUnwrapped(JsonParser jp, DeserializationContext ctxt, Object bean)
+            throws IOException {
+        if (jp.getCurrentToken() == JsonToken.START_OBJECT) {
+            jp.nextToken();
+        }
+        TokenBuffer tokens = new TokenBuffer(jp);
+        tokens.writeStartObject();
+        return deserializeWithUnwrapped(jp, ctxt, bean, tokens, null);
+    }
+
+    /**
+     * @param tokens buffer (with START_OBJECT already written) collecting properties that are not matched by the bean
+     * itself (and so are passed to the unwrapped property deserializers)
+     * @param deferred properties preceding the creation of the bean (see {@link #defer}), null if there are none
+     */
+    private Object deserializeWithUnwrapped(JsonParser jp, DeserializationContext ctxt, Object bean,
+            TokenBuffer tokens, TokenBuffer deferred) throws IOException {
         final Class<?> activeView = _needViewProcesing ? ctxt.getActiveView() : null;
-        beanDeserializerAdvice.before(bean, jp, ctxt);
-        for (; jp.getCurrentToken() != JsonToken.END_OBJECT; jp.nextToken()) {
+        before(bean, deferred, jp, ctxt);
+        for (JsonToken t = jp.getCurrentToken(); t == JsonToken.FIELD_NAME; t = jp.nextToken()) {
             String propName = jp.getCurrentName();
             jp.nextToken();
 
-            if (beanDeserializerAdvice.intercept(bean, propName, jp, ctxt)) {
+            SettableBeanProperty prop = _beanProperties.find(propName);
+
+            if (interceptProperty(bean, prop, propName, jp, ctxt)) {
                 continue;
             }
 
-            SettableBeanProperty prop = _beanProperties.find(propName);
             if (prop != null) { // normal case
                 if (activeView != null && !prop.visibleInView(activeView)) {
                     jp.skipChildren();
@@ -496,7 +805,6 @@ public class AdvisedBeanDeserializer extends BeanDeserializerBase {
                 } catch (Exception e) {
                     wrapAndThrow(e, bean, propName, ctxt);
                 }
-                continue;
             }
         }
         tokens.writeEndObject();
@@ -505,123 +813,65 @@ public class AdvisedBeanDeserializer extends BeanDeserializerBase {
         return bean;
     }
 
-    @SuppressWarnings("resource")
-    protected Object deserializeWithUnwrapped(JsonParser jp, DeserializationContext ctxt, Object bean)
+    protected Object deserializeUsingPropertyBasedWithUnwrapped(JsonParser jp, DeserializationContext ctxt)
             throws IOException {
-        JsonToken t = jp.getCurrentToken();
-        if (t == JsonToken.START_OBJECT) {
-            t = jp.nextToken();
-        }
         TokenBuffer tokens = new TokenBuffer(jp);
         tokens.writeStartObject();
-        final Class<?> activeView = _needViewProcesing ? ctxt.getActiveView() : null;
-        beanDeserializerAdvice.before(bean, jp, ctxt);
-        for (; t == JsonToken.FIELD_NAME; t = jp.nextToken()) {
-            String propName = jp.getCurrentName();
-
-            if (beanDeserializerAdvice.intercept(bean, propName, jp, ctxt)) {
-                continue;
-            }
-
-            SettableBeanProperty prop = _beanProperties.find(propName);
-            jp.nextToken();
-            if (prop != null) { // normal case
-                if (activeView != null && !prop.visibleInView(activeView)) {
-                    jp.skipChildren();
-                    continue;
-                }
-                try {
-                    prop.deserializeAndSet(jp, ctxt, bean);
-                } catch (Exception e) {
-                    wrapAndThrow(e, bean, propName, ctxt);
-                }
-                continue;
-            }
-            if (_ignorableProps != null && _ignorableProps.contains(propName)) {
-                handleIgnoredProperty(jp, ctxt, bean, propName);
-                continue;
-            }
-            // but... others should be passed to unwrapped property deserializers
-            tokens.writeFieldName(propName);
-            tokens.copyCurrentStructure(jp);
-            // how about any setter? We'll get copies but...
-            if (_anySetter != null) {
-                _anySetter.deserializeAndSet(jp, ctxt, bean, propName);
-            }
-        }
-        tokens.writeEndObject();
-        _unwrappedPropertyHandler.processUnwrapped(jp, ctxt, bean, tokens);
-        beanDeserializerAdvice.after(bean, jp, ctxt);
-        return bean;
+        return deserializeUsingPropertyBasedWithUnwrapped(jp, ctxt, tokens);
     }
 
-    @SuppressWarnings("resource")
-    protected Object deserializeUsingPropertyBasedWithUnwrapped(JsonParser jp, DeserializationContext ctxt)
-            throws IOException {
+    /**
+     * Unlike the original, properties following the creation of the bean are deserialized as usual (only the ones
+     * not matched by the bean itself are copied into the buffer).
+     */
+    private Object deserializeUsingPropertyBasedWithUnwrapped(JsonParser jp, DeserializationContext ctxt,
+            TokenBuffer tokens) throws IOException {
         final PropertyBasedCreator creator = _propertyBasedCreator;
         PropertyValueBuffer buffer = creator.startBuilding(jp, ctxt, _objectIdReader);
-
-        TokenBuffer tokens = new TokenBuffer(jp);
-        tokens.writeStartObject();
+        CreatorParameters parameters = beforeCreation(creator, buffer, jp, ctxt);
+        TokenBuffer deferred = null;
 
         JsonToken t = jp.getCurrentToken();
         for (; t == JsonToken.FIELD_NAME; t = jp.nextToken()) {
             String propName = jp.getCurrentName();
             jp.nextToken(); // to point to value
-            // creator property?
-            SettableBeanProperty creatorProp = creator.findCreatorProperty(propName);
-            if (creatorProp != null) {
-                // Last creator property to set?
-                Object value = creatorProp.deserialize(jp, ctxt);
-                if (buffer.assignParameter(creatorProp.getCreatorIndex(), value)) {
-                    t = jp.nextToken(); // to move to following FIELD_NAME/END_OBJECT
-                    Object bean;
-                    try {
-                        bean = creator.build(ctxt, buffer);
-                    } catch (Exception e) {
-                        wrapAndThrow(e, _beanType.getRawClass(), propName, ctxt);
-                        continue; // never gets here
-                    }
-                    // if so, need to copy all remaining tokens into buffer
-                    while (t == JsonToken.FIELD_NAME) {
-                        jp.nextToken(); // to skip name
-                        tokens.copyCurrentStructure(jp);
-                        t = jp.nextToken();
-                    }
-                    tokens.writeEndObject();
-                    if (bean.getClass() != _beanType.getRawClass()) {
-                        // !!! 08-Jul-2011, tatu: Could probably support; but for now
-                        //   it's too complicated, so bail out
-                        tokens.close();
-                        throw ctxt.mappingException("Can not create polymorphic instances with unwrapped values");
-                    }
-                    return _unwrappedPropertyHandler.processUnwrapped(jp, ctxt, bean, tokens);
-                }
-                continue;
-            }
-            // Object Id property?
-            if (buffer.readIdProperty(propName)) {
+            if (isDeferred(creator, propName)) {
+                deferred = defer(deferred, propName, jp);
                 continue;
             }
-
-            // regular property? needs buffering
-            SettableBeanProperty prop = _beanProperties.find(propName);
-            if (prop != null) {
-                buffer.bufferProperty(prop, prop.deserialize(jp, ctxt));
-                continue;
-            }
-            /* As per [JACKSON-313], things marked as ignorable should not be
-             * passed to any setter
-             */
-            if (_ignorableProps != null && _ignorableProps.contains(propName)) {
-                handleIgnoredProperty(jp, ctxt, handledType(), propName);
-                continue;
+            boolean complete;
+            if (interceptBeforeCreation(parameters, propName, jp, ctxt)) {
+                complete = buffer.isComplete();
+            } else {
+                // creator property?
+                SettableBeanProperty creatorProp = creator.findCreatorProperty(propName);
+                if (creatorProp == null) {
+                    bufferPropertyWithUnwrapped(jp, ctxt, buffer, propName, tokens);
+                    continue;
+                }
+                if (isAssignedByAdvice(parameters, creatorProp)) {
+                    jp.skipChildren();
+                    continue;
+                }
+                // Last creator property to set?
+                Object value = creatorProp.deserialize(jp, ctxt);
+                complete = buffer.assignParameter(creatorProp.getCreatorIndex(), value);
             }
-            tokens.writeFieldName(propName);
-            tokens.copyCurrentStructure(jp);
-            // "any property"?
-            if (_anySetter != null) {
-                buffer.bufferAnyProperty(_anySetter, propName, _anySetter.deserialize(jp, ctxt));
+            if (complete) {
+                jp.nextToken(); // to move to following FIELD_NAME/END_OBJECT
+                Object bean;
+                try {
+                    bean = creator.build(ctxt, buffer);
+                } catch (Exception e) {
+                    wrapAndThrow(e, _beanType.getRawClass(), propName, ctxt);
+                    continue; // never gets here
+                }
+                if (bean.getClass() != _beanType.getRawClass()) {
+                    // !!! 08-Jul-2011, tatu: Could probably support; but for now
+                    //   it's too complicated, so bail out
+                    throw ctxt.mappingException("Can not create polymorphic instances with unwrapped values");
+                }
+                return deserializeWithUnwrapped(jp, ctxt, bean, tokens, deferred);
             }
         }
 
@@ -633,7 +883,37 @@ public class AdvisedBeanDeserializer extends BeanDeserializerBase {
             wrapInstantiationProblem(e, ctxt);
             return null; // never gets here
         }
-        return _unwrappedPropertyHandler.processUnwrapped(jp, ctxt, bean, tokens);
+        return deserializeWithUnwrapped(jp, ctxt, bean, tokens, deferred);
+    }
+
+    /**
+     * Handles (non-creator) property preceding the creation of the bean.
+     */
+    private void bufferPropertyWithUnwrapped(JsonParser jp, DeserializationContext ctxt, PropertyValueBuffer buffer,
+            String propName, TokenBuffer tokens) throws IOException {
+        // Object Id property?
+        if (buffer.readIdProperty(propName)) {
+            return;
+        }
+        // regular property? needs buffering
+        SettableBeanProperty prop = _beanProperties.find(propName);
+        if (prop != null) {
+            buffer.bufferProperty(prop, prop.deserialize(jp, ctxt));
+            return;
+        }
+        /* As per [JACKSON-313], things marked as ignorable should not be
+         * passed to any setter
+         */
+        if (_ignorableProps != null && _ignorableProps.contains(propName)) {
+            handleIgnoredProperty(jp, ctxt, handledType(), propName);
+            return;
+        }
+        tokens.writeFieldName(propName);
+        tokens.copyCurrentStructure(jp);
+        // "any property"?
+        if (_anySetter != null) {
+            buffer.bufferAnyProperty(_anySetter, propName, _anySetter.deserialize(jp, ctxt));
+        }
     }
 
     protected Object deserializeWithExternalTypeId(JsonParser jp, DeserializationContext ctxt)
@@ -647,18 +927,27 @@ public class AdvisedBeanDeserializer extends BeanDeserializerBase {
     protected Object deserializeWithExternalTypeId(JsonParser jp, DeserializationContext ctxt,
                                                    Object bean)
             throws IOException {
+        return deserializeWithExternalTypeId(jp, ctxt, bean, _externalTypeIdHandler.start(), null);
+    }
+
+    /**
+     * @param ext external type id handler (possibly holding properties that preceded the creation of the bean)
+     * @param deferred properties preceding the creation of the bean (see {@link #defer}), null if there are none
+     */
+    private Object deserializeWithExternalTypeId(JsonParser jp, DeserializationContext ctxt, Object bean,
+            ExternalTypeHandler ext, TokenBuffer deferred) throws IOException {
         final Class<?> activeView = _needViewProcesing ? ctxt.getActiveView() : null;
-        final ExternalTypeHandler ext = _externalTypeIdHandler.start();
-        beanDeserializerAdvice.before(bean, jp, ctxt);
+        before(bean, deferred, jp, ctxt);
         for (; jp.getCurrentToken() != JsonToken.END_OBJECT; jp.nextToken()) {
             String propName = jp.getCurrentName();
             jp.nextToken();
 
-            if (beanDeserializerAdvice.intercept(bean, propName, jp, ctxt)) {
+            SettableBeanProperty prop = _beanProperties.find(propName);
+
+            if (interceptProperty(bean, prop, propName, jp, ctxt)) {
                 continue;
             }
 
-            SettableBeanProperty prop = _beanProperties.find(propName);
             if (prop != null) { // normal case
                 // [JACKSON-831]: may have property AND be used as external type id:
                 if (jp.getCurrentToken().isScalarValue()) {
@@ -702,86 +991,109 @@ public class AdvisedBeanDeserializer extends BeanDeserializerBase {
         return bean;
     }
 
+    /**
+     * Unlike the original, properties following the creation of the bean are deserialized as usual (instead of being
+     * copied into a buffer nobody reads).
+     */
     protected Object deserializeUsingPropertyBasedWithExternalTypeId(JsonParser jp, DeserializationContext ctxt)
             throws IOException {
         final ExternalTypeHandler ext = _externalTypeIdHandler.start();
         final PropertyBasedCreator creator = _propertyBasedCreator;
         PropertyValueBuffer buffer = creator.startBuilding(jp, ctxt, _objectIdReader);
-
-        TokenBuffer tokens = new TokenBuffer(jp);
-        tokens.writeStartObject();
+        CreatorParameters parameters = beforeCreation(creator, buffer, jp, ctxt);
+        TokenBuffer deferred = null;
 
         JsonToken t = jp.getCurrentToken();
         for (; t == JsonToken.FIELD_NAME; t = jp.nextToken()) {
             String propName = jp.getCurrentName();
             jp.nextToken(); // to point to value
-            // creator property?
-            SettableBeanProperty creatorProp = creator.findCreatorProperty(propName);
-            if (creatorProp != null) {
-                // first: let's check to see if this might be part of value with external type id:
-                if (!ext.handlePropertyValue(jp, ctxt, propName, buffer)) {
-                    // Last creator property to set?
-                    Object value = creatorProp.deserialize(jp, ctxt);
-                    if (buffer.assignParameter(creatorProp.getCreatorIndex(), value)) {
-                        t = jp.nextToken(); // to move to following FIELD_NAME/END_OBJECT
-                        Object bean;
-                        try {
-                            bean = creator.build(ctxt, buffer);
-                        } catch (Exception e) {
-                            wrapAndThrow(e, _beanType.getRawClass(), propName, ctxt);
-                            continue; // never gets here
-                        }
-                        // if so, need to copy all remaining tokens into buffer
-                        while (t == JsonToken.FIELD_NAME) {
-                            jp.nextToken(); // to skip name
-                            tokens.copyCurrentStructure(jp);
-                            t = jp.nextToken();
-                        }
-                        if (bean.getClass() != _beanType.getRawClass()) {
-                            // !!! 08-Jul-2011, tatu: Could probably support; but for now
-                            //   it's too complicated, so bail out
-                            throw ctxt.mappingException("Can not create polymorphic instances with unwrapped values");
-                        }
-                        return ext.complete(jp, ctxt, bean);
-                    }
-                }
-                continue;
-            }
-            // Object Id property?
-            if (buffer.readIdProperty(propName)) {
-                continue;
-            }
-
-            // regular property? needs buffering
-            SettableBeanProperty prop = _beanProperties.find(propName);
-            if (prop != null) {
-                buffer.bufferProperty(prop, prop.deserialize(jp, ctxt));
-                continue;
-            }
-            // external type id (or property that depends on it)?
-            if (ext.handlePropertyValue(jp, ctxt, propName, null)) {
+            if (isDeferred(creator, propName)) {
+                deferred = defer(deferred, propName, jp);
                 continue;
             }
-            /* As per [JACKSON-313], things marked as ignorable should not be
-             * passed to any setter
-             */
-            if (_ignorableProps != null && _ignorableProps.contains(propName)) {
-                handleIgnoredProperty(jp, ctxt, handledType(), propName);
-                continue;
+            boolean complete;
+            if (interceptBeforeCreation(parameters, propName, jp, ctxt)) {
+                complete = buffer.isComplete();
+            } else {
+                // creator property?
+                SettableBeanProperty creatorProp = creator.findCreatorProperty(propName);
+                if (creatorProp == null) {
+                    bufferPropertyWithExternalTypeId(jp, ctxt, buffer, propName, ext);
+                    continue;
+                }
+                if (isAssignedByAdvice(parameters, creatorProp)) {
+                    jp.skipChildren();
+                    continue;
+                }
+                // first: let's check to see if this might be part of value with external type id:
+                if (ext.handlePropertyValue(jp, ctxt, propName, buffer)) {
+                    continue;
+                }
+                // Last creator property to set?
+                Object value = creatorProp.deserialize(jp, ctxt);
+                complete = buffer.assignParameter(creatorProp.getCreatorIndex(), value);
             }
-            // "any property"?
-            if (_anySetter != null) {
-                buffer.bufferAnyProperty(_anySetter, propName, _anySetter.deserialize(jp, ctxt));
+            if (complete) {
+                jp.nextToken(); // to move to following FIELD_NAME/END_OBJECT
+                Object bean;
+                try {
+                    bean = creator.build(ctxt, buffer);
+                } catch (Exception e) {
+                    wrapAndThrow(e, _beanType.getRawClass(), propName, ctxt);
+                    continue; // never gets here
+                }
+                if (bean.getClass() != _beanType.getRawClass()) {
+                    // !!! 08-Jul-2011, tatu: Could probably support; but for now
+                    //   it's too complicated, so bail out
+                    throw ctxt.mappingException("Can not create polymorphic instances with unwrapped values");
+                }
+                return deserializeWithExternalTypeId(jp, ctxt, bean, ext, deferred);
             }
         }
 
         // We hit END_OBJECT; resolve the pieces:
+        Object bean;
         try {
-            return ext.complete(jp, ctxt, buffer, creator);
+            bean = ext.complete(jp, ctxt, buffer, creator);
         } catch (Exception e) {
             wrapInstantiationProblem(e, ctxt);
             return null; // never gets here
         }
+        before(bean, deferred, jp, ctxt);
+        beanDeserializerAdvice.after(bean, jp, ctxt);
+        return bean;
+    }
+
+    /**
+     * Handles (non-creator) property preceding the creation of the bean.
+     */
+    private void bufferPropertyWithExternalTypeId(JsonParser jp, DeserializationContext ctxt,
+            PropertyValueBuffer buffer, String propName, ExternalTypeHandler ext) throws IOException {
+        // Object Id property?
+        if (buffer.readIdProperty(propName)) {
+            return;
+        }
+        // regular property? needs buffering
+        SettableBeanProperty prop = _beanProperties.find(propName);
+        if (prop != null) {
+            buffer.bufferProperty(prop, prop.deserialize(jp, ctxt));
+            return;
+        }
+        // external type id (or property that depends on it)?
+        if (ext.handlePropertyValue(jp, ctxt, propName, null)) {
+            return;
+        }
+        /* As per [JACKSON-313], things marked as ignorable should not be
+         * passed to any setter
+         */
+        if (_ignorableProps != null && _ignorableProps.contains(propName)) {
+            handleIgnoredProperty(jp, ctxt, handledType(), propName);
+            return;
+        }
+        // "any property"?
+        if (_anySetter != null) {
+            buffer.bufferAnyProperty(_anySetter, propName, _anySetter.deserialize(jp, ctxt));
+        }
     }
 
 }
@@ -23,6 +23,8 @@ import com.fasterxml.jackson.databind.deser.impl.BeanPropertyMap;
 import com.fasterxml.jackson.databind.deser.impl.ObjectIdValueProperty;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
@@ -33,12 +35,20 @@ public class AdvisedBeanDeserializerBuilder extends BeanDeserializerBuilder {
 
     public AdvisedBeanDeserializerBuilder(BeanDeserializerBuilder src,
                                           Class<? extends BeanDeserializerAdvice> beanDeserializerAdvice) {
+        this(src, Collections.<Class<? extends BeanDeserializerAdvice>>singletonList(beanDeserializerAdvice));
+    }
+
+    public AdvisedBeanDeserializerBuilder(BeanDeserializerBuilder src,
+                                          List<Class<? extends BeanDeserializerAdvice>> beanDeserializerAdvices) {
+        this(src, BeanDeserializerAdviceChain.compose(beanDeserializerAdvices));
+    }
+
+    public AdvisedBeanDeserializerBuilder(BeanDeserializerBuilder src,
+                                          BeanDeserializerAdvice beanDeserializerAdvice) {
         super(src);
-        try {
-            this.beanDeserializerAdvice = beanDeserializerAdvice.newInstance();
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to create instance of " + beanDeserializerAdvice + ".", e);
-        }
+        // not carried over by the copy-constructor
+        _injectables = src.getInjectables();
+        this.beanDeserializerAdvice = beanDeserializerAdvice;
     }
 
     @Override
@@ -46,6 +56,9 @@ public class AdvisedBeanDeserializerBuilder extends BeanDeserializerBuilder {
         Collection<SettableBeanProperty> props = _properties.values();
         BeanPropertyMap propertyMap = new BeanPropertyMap(props);
         propertyMap.assignIndexes();
+        if (beanDeserializerAdvice instanceof IndexedBeanDeserializerAdvice) {
+            ((IndexedBeanDeserializerAdvice) beanDeserializerAdvice).resolve(resolvePropertyIndex(props));
+        }
         boolean anyViews = !_defaultViewInclusion;
         if (!anyViews) {
             for (SettableBeanProperty prop : props) {
@@ -64,4 +77,12 @@ public class AdvisedBeanDeserializerBuilder extends BeanDeserializerBuilder {
                 anyViews, beanDeserializerAdvice);
     }
 
+    private PropertyIndex resolvePropertyIndex(Collection<SettableBeanProperty> props) {
+        String[] propertyNames = new String[props.size()];
+        for (SettableBeanProperty prop : props) {
+            propertyNames[prop.getPropertyIndex()] = prop.getName();
+        }
+        return new PropertyIndex(propertyNames);
+    }
+
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link BeanPropertyWriter} wrapper applying property-scoped hooks of {@link BeanSerializerAdvice} (bean-scoped ones
+ * are ignored) to a single property (used in case of field/method-level {@link JsonSerializerAdvice}).
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+@SuppressWarnings("unchecked")
+public class AdvisedBeanPropertyWriter extends BeanPropertyWriter {
+
+    private final BeanPropertyWriter delegate;
+    private final BeanSerializerAdvice beanSerializerAdvice;
+    private final ContextualBeanSerializerAdvice contextualBeanSerializerAdvice;
+
+    public AdvisedBeanPropertyWriter(BeanPropertyWriter delegate,
+            Class<? extends BeanSerializerAdvice> beanSerializerAdvice) {
+        this(delegate, Collections.<Class<? extends BeanSerializerAdvice>>singletonList(beanSerializerAdvice));
+    }
+
+    public AdvisedBeanPropertyWriter(BeanPropertyWriter delegate,
+            List<Class<? extends BeanSerializerAdvice>> beanSerializerAdvices) {
+        this(delegate, BeanSerializerAdviceChain.compose(beanSerializerAdvices));
+    }
+
+    public AdvisedBeanPropertyWriter(BeanPropertyWriter delegate, BeanSerializerAdvice beanSerializerAdvice) {
+        super(delegate);
+        this.delegate = delegate;
+        this.beanSerializerAdvice = beanSerializerAdvice;
+        this.contextualBeanSerializerAdvice = beanSerializerAdvice instanceof ContextualBeanSerializerAdvice ?
+            (ContextualBeanSerializerAdvice) beanSerializerAdvice : null;
+    }
+
+    protected AdvisedBeanPropertyWriter(AdvisedBeanPropertyWriter src, BeanPropertyWriter delegate) {
+        super(delegate);
+        this.delegate = delegate;
+        this.beanSerializerAdvice = src.beanSerializerAdvice;
+        this.contextualBeanSerializerAdvice = src.contextualBeanSerializerAdvice;
+    }
+
+    @Override
+    public BeanPropertyWriter rename(NameTransformer transformer) {
+        BeanPropertyWriter renamed = delegate.rename(transformer);
+        return renamed == delegate ? this : new AdvisedBeanPropertyWriter(this, renamed);
+    }
+
+    @Override
+    public BeanPropertyWriter unwrappingWriter(NameTransformer unwrapper) {
+        return new AdvisedBeanPropertyWriter(this, delegate.unwrappingWriter(unwrapper));
+    }
+
+    @Override
+    public void assignSerializer(JsonSerializer<Object> ser) {
+        super.assignSerializer(ser);
+        delegate.assignSerializer(ser);
+    }
+
+    @Override
+    public void assignNullSerializer(JsonSerializer<Object> nullSer) {
+        super.assignNullSerializer(nullSer);
+        delegate.assignNullSerializer(nullSer);
+    }
+
+    @Override
+    public boolean isUnwrapping() {
+        return delegate.isUnwrapping();
+    }
+
+    @Override
+    public void serializeAsField(Object bean, JsonGenerator jgen, SerializerProvider prov) throws Exception {
+        if (contextualBeanSerializerAdvice == null) {
+            serializeAdvisedField(bean, jgen, prov, beanSerializerAdvice);
+            return;
+        }
+        BeanSerializerAdvice advice = contextualBeanSerializerAdvice.enter();
+        try {
+            serializeAdvisedField(bean, jgen, prov, advice);
+        } finally {
+            contextualBeanSerializerAdvice.exit();
+        }
+    }
+
+    private void serializeAdvisedField(Object bean, JsonGenerator jgen, SerializerProvider prov,
+            BeanSerializerAdvice advice) throws Exception {
+        if (!advice.intercept(bean, jgen, this, prov)) {
+            advice.before(bean, jgen, this, prov);
+            delegate.serializeAsField(bean, jgen, prov);
+            advice.after(bean, jgen, this, prov);
+        }
+    }
+
+    @Override
+    public void serializeAsOmittedField(Object bean, JsonGenerator jgen, SerializerProvider prov) throws Exception {
+        delegate.serializeAsOmittedField(bean, jgen, prov);
+    }
+
+    @Override
+    public void serializeAsElement(Object bean, JsonGenerator jgen, SerializerProvider prov) throws Exception {
+        delegate.serializeAsElement(bean, jgen, prov);
+    }
+
+    @Override
+    public void serializeAsPlaceholder(Object bean, JsonGenerator jgen, SerializerProvider prov) throws Exception {
+        delegate.serializeAsPlaceholder(bean, jgen, prov);
+    }
+
+}
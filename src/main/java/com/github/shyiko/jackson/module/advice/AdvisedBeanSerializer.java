@@ -20,10 +20,10 @@ import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
 import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
 import com.fasterxml.jackson.databind.ser.BeanSerializerBuilder;
 import com.fasterxml.jackson.databind.ser.PropertyFilter;
-import com.fasterxml.jackson.databind.ser.impl.BeanAsArraySerializer;
 import com.fasterxml.jackson.databind.ser.impl.ObjectIdWriter;
 import com.fasterxml.jackson.databind.ser.impl.WritableObjectId;
 import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
@@ -40,24 +40,78 @@ import java.io.IOException;
 public class AdvisedBeanSerializer extends BeanSerializerBase {
 
     private final BeanSerializerAdvice beanSerializerAdvice;
+    /**
+     * same as beanSerializerAdvice if it's an instance of IndexedBeanSerializerAdvice, null otherwise
+     */
+    private final IndexedBeanSerializerAdvice indexedBeanSerializerAdvice;
+    /**
+     * same as beanSerializerAdvice if it's an instance of ContextualBeanSerializerAdvice, null otherwise
+     */
+    private final ContextualBeanSerializerAdvice contextualBeanSerializerAdvice;
+    /**
+     * (stable) indexes of the _props/_filteredProps (see {@link PropertyIndex})
+     */
+    private final int[] propertyIndexes;
+    /**
+     * false if advice doesn't override any of the property-scoped hooks
+     */
+    private final boolean propertyAdvice;
     private final boolean unwrappingSerializer;
 
     protected AdvisedBeanSerializer(JavaType type, BeanSerializerBuilder builder, BeanPropertyWriter[] properties,
-             BeanPropertyWriter[] filteredProperties, BeanSerializerAdvice beanSerializerAdvice) {
+             BeanPropertyWriter[] filteredProperties, BeanSerializerAdvice beanSerializerAdvice,
+             boolean propertyAdvice) {
         super(type, builder, properties, filteredProperties);
         this.beanSerializerAdvice = beanSerializerAdvice;
+        this.indexedBeanSerializerAdvice = beanSerializerAdvice instanceof IndexedBeanSerializerAdvice ?
+            (IndexedBeanSerializerAdvice) beanSerializerAdvice : null;
+        this.contextualBeanSerializerAdvice = beanSerializerAdvice instanceof ContextualBeanSerializerAdvice ?
+            (ContextualBeanSerializerAdvice) beanSerializerAdvice : null;
+        this.propertyIndexes = new int[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            this.propertyIndexes[i] = i;
+        }
+        this.propertyAdvice = propertyAdvice;
         this.unwrappingSerializer = false;
     }
 
+    /**
+     * Copy-constructor used by {@link AdvisedBeanSerializerGenerator}-generated subclasses.
+     */
+    protected AdvisedBeanSerializer(AdvisedBeanSerializer src) {
+        super(src);
+        this.beanSerializerAdvice = src.beanSerializerAdvice;
+        this.indexedBeanSerializerAdvice = src.indexedBeanSerializerAdvice;
+        this.contextualBeanSerializerAdvice = src.contextualBeanSerializerAdvice;
+        this.propertyIndexes = src.propertyIndexes;
+        this.propertyAdvice = src.propertyAdvice;
+        this.unwrappingSerializer = src.unwrappingSerializer;
+    }
+
     protected AdvisedBeanSerializer(AdvisedBeanSerializer src, String[] toIgnore) {
         super(src, toIgnore);
         this.beanSerializerAdvice = src.beanSerializerAdvice;
+        this.indexedBeanSerializerAdvice = src.indexedBeanSerializerAdvice;
+        this.contextualBeanSerializerAdvice = src.contextualBeanSerializerAdvice;
+        // ignored properties are dropped while order of the rest stays the same
+        this.propertyIndexes = new int[_props.length];
+        for (int i = 0, j = 0; i < _props.length; i++, j++) {
+            while (src._props[j] != _props[i]) {
+                j++;
+            }
+            this.propertyIndexes[i] = src.propertyIndexes[j];
+        }
+        this.propertyAdvice = src.propertyAdvice;
         this.unwrappingSerializer = src.unwrappingSerializer;
     }
 
     protected AdvisedBeanSerializer(AdvisedBeanSerializer src, ObjectIdWriter objectIdWriter, Object filterId) {
         super(src, objectIdWriter, filterId);
         this.beanSerializerAdvice = src.beanSerializerAdvice;
+        this.indexedBeanSerializerAdvice = src.indexedBeanSerializerAdvice;
+        this.contextualBeanSerializerAdvice = src.contextualBeanSerializerAdvice;
+        this.propertyIndexes = src.propertyIndexes;
+        this.propertyAdvice = src.propertyAdvice;
         this.unwrappingSerializer = src.unwrappingSerializer;
     }
 
@@ -65,27 +119,44 @@ public class AdvisedBeanSerializer extends BeanSerializerBase {
             boolean unwrappingSerializer) {
         super(src, nameTransformer);
         this.beanSerializerAdvice = src.beanSerializerAdvice;
+        this.indexedBeanSerializerAdvice = src.indexedBeanSerializerAdvice;
+        this.contextualBeanSerializerAdvice = src.contextualBeanSerializerAdvice;
+        this.propertyIndexes = src.propertyIndexes;
+        this.propertyAdvice = src.propertyAdvice;
         this.unwrappingSerializer = unwrappingSerializer;
     }
 
     @Override
     public JsonSerializer<Object> unwrappingSerializer(NameTransformer nameTransformer) {
-        return new AdvisedBeanSerializer(this, nameTransformer, true);
+        return generated(new AdvisedBeanSerializer(this, nameTransformer, true));
+    }
+
+    @Override
+    public boolean isUnwrappingSerializer() {
+        return unwrappingSerializer;
     }
 
     @Override
     public BeanSerializerBase withObjectIdWriter(ObjectIdWriter objectIdWriter) {
-        return new AdvisedBeanSerializer(this, objectIdWriter, _propertyFilterId);
+        return generated(new AdvisedBeanSerializer(this, objectIdWriter, _propertyFilterId));
     }
 
     @Override
     protected BeanSerializerBase withFilterId(Object filterId) {
-        return new AdvisedBeanSerializer(this, _objectIdWriter, filterId);
+        return generated(new AdvisedBeanSerializer(this, _objectIdWriter, filterId));
     }
 
     @Override
     protected BeanSerializerBase withIgnorals(String[] toIgnore) {
-        return new AdvisedBeanSerializer(this, toIgnore);
+        return generated(new AdvisedBeanSerializer(this, toIgnore));
+    }
+
+    /**
+     * @return copy itself unless this serializer was generated by {@link AdvisedBeanSerializerGenerator}, in which case
+     * contextual copy is generated too (against its own set of properties)
+     */
+    private AdvisedBeanSerializer generated(AdvisedBeanSerializer copy) {
+        return getClass() == AdvisedBeanSerializer.class ? copy : AdvisedBeanSerializerGenerator.generate(copy);
     }
 
     @Override
@@ -95,7 +166,7 @@ public class AdvisedBeanSerializer extends BeanSerializerBase {
          * - have any getter
          */
         if ((_objectIdWriter == null) && (_anyGetterWriter == null) && (_propertyFilterId == null)) {
-            return new BeanAsArraySerializer(this);
+            return new AdvisedBeanAsArraySerializer(this, beanSerializerAdvice, propertyIndexes, propertyAdvice);
         }
         // already is one, so:
         return this;
@@ -104,21 +175,53 @@ public class AdvisedBeanSerializer extends BeanSerializerBase {
     @Override
     public void serialize(Object bean, JsonGenerator jgen, SerializerProvider provider)
             throws IOException {
+        if (contextualBeanSerializerAdvice == null) {
+            serializeBean(bean, jgen, provider, beanSerializerAdvice);
+            return;
+        }
+        BeanSerializerAdvice advice = contextualBeanSerializerAdvice.enter();
+        try {
+            serializeBean(bean, jgen, provider, advice);
+        } finally {
+            contextualBeanSerializerAdvice.exit();
+        }
+    }
+
+    @Override
+    public void serializeWithType(Object bean, JsonGenerator jgen, SerializerProvider provider,
+            TypeSerializer typeSer) throws IOException {
+        if (contextualBeanSerializerAdvice == null) {
+            super.serializeWithType(bean, jgen, provider, typeSer);
+            return;
+        }
+        contextualBeanSerializerAdvice.enter();
+        try {
+            super.serializeWithType(bean, jgen, provider, typeSer);
+        } finally {
+            contextualBeanSerializerAdvice.exit();
+        }
+    }
+
+    /**
+     * @param advice advice to call hooks on (see {@link ContextualBeanSerializerAdvice#enter()})
+     */
+    private void serializeBean(Object bean, JsonGenerator jgen, SerializerProvider provider,
+            BeanSerializerAdvice advice) throws IOException {
         if (_objectIdWriter != null) {
-            serializeWithObjectId(bean, jgen, provider, !unwrappingSerializer);
+            serializeWithObjectId(bean, jgen, provider, !unwrappingSerializer, advice);
             return;
         }
         if (!unwrappingSerializer) {
             jgen.writeStartObject();
         }
-        if (!beanSerializerAdvice.intercept(bean, jgen, provider)) {
-            beanSerializerAdvice.before(bean, jgen, provider);
+        if (!advice.intercept(bean, jgen, provider)) {
+            advice.before(bean, jgen, provider);
             if (_propertyFilterId != null) {
-                serializeFieldsFiltered(bean, jgen, provider);
+                serializeFieldsFiltered(bean, jgen, provider, advice);
             } else {
-                serializeFields(bean, jgen, provider);
+                serializeFields(bean, jgen, provider, advice);
             }
-            beanSerializerAdvice.after(bean, jgen, provider);
+            advice.after(bean, jgen, provider);
         }
         if (!unwrappingSerializer) {
             jgen.writeEndObject();
@@ -126,7 +229,7 @@ public class AdvisedBeanSerializer extends BeanSerializerBase {
     }
 
     protected void serializeWithObjectId(Object bean, JsonGenerator jgen, SerializerProvider provider,
-            boolean startEndObject) throws IOException {
+            boolean startEndObject, BeanSerializerAdvice advice) throws IOException {
         final ObjectIdWriter w = _objectIdWriter;
         WritableObjectId objectId = provider.findObjectId(bean, w.generator);
         // If possible, write as id already
@@ -142,23 +245,36 @@ public class AdvisedBeanSerializer extends BeanSerializerBase {
         if (startEndObject) {
             jgen.writeStartObject();
         }
-        if (!beanSerializerAdvice.intercept(bean, jgen, provider)) {
-            beanSerializerAdvice.before(bean, jgen, provider);
+        if (!advice.intercept(bean, jgen, provider)) {
+            advice.before(bean, jgen, provider);
             objectId.writeAsField(jgen, provider, w);
             if (_propertyFilterId != null) {
-                serializeFieldsFiltered(bean, jgen, provider);
+                serializeFieldsFiltered(bean, jgen, provider, advice);
             } else {
-                serializeFields(bean, jgen, provider);
+                serializeFields(bean, jgen, provider, advice);
             }
-            beanSerializerAdvice.after(bean, jgen, provider);
+            advice.after(bean, jgen, provider);
         }
         if (startEndObject) {
             jgen.writeEndObject();
         }
     }
 
+    @Override
     protected void serializeFieldsFiltered(Object bean, JsonGenerator jgen, SerializerProvider provider)
             throws IOException {
+        serializeFieldsFiltered(bean, jgen, provider, currentAdvice());
+    }
+
+    /**
+     * @param advice advice to call hooks on (see {@link ContextualBeanSerializerAdvice#enter()})
+     */
+    protected void serializeFieldsFiltered(Object bean, JsonGenerator jgen, SerializerProvider provider,
+            BeanSerializerAdvice advice) throws IOException {
+        if (!propertyAdvice) {
+            super.serializeFieldsFiltered(bean, jgen, provider);
+            return;
+        }
         /* note: almost verbatim copy of "serializeFields"; copied (instead of merged)
          * so that old method need not add check for existence of filter.
          */
@@ -172,18 +288,27 @@ public class AdvisedBeanSerializer extends BeanSerializerBase {
         final PropertyFilter filter = findPropertyFilter(provider, _propertyFilterId, bean);
         // better also allow missing filter actually..
         if (filter == null) {
-            serializeFields(bean, jgen, provider);
+            serializeFields(bean, jgen, provider, advice);
             return;
         }
+        final IndexedBeanSerializerAdvice indexedAdvice =
+            indexedBeanSerializerAdvice != null ? (IndexedBeanSerializerAdvice) advice : null;
         int i = 0;
         try {
             for (final int len = props.length; i < len; ++i) {
                 BeanPropertyWriter prop = props[i];
                 if (prop != null) { // can have nulls in filtered list
-                    if (!beanSerializerAdvice.intercept(bean, jgen, prop, provider)) {
-                        beanSerializerAdvice.before(bean, jgen, prop, provider);
+                    if (indexedAdvice != null) {
+                        final int index = propertyIndexes[i];
+                        if (!indexedAdvice.intercept(bean, jgen, index, prop, provider)) {
+                            indexedAdvice.before(bean, jgen, index, prop, provider);
+                            filter.serializeAsField(bean, jgen, provider, prop);
+                            indexedAdvice.after(bean, jgen, index, prop, provider);
+                        }
+                    } else if (!advice.intercept(bean, jgen, prop, provider)) {
+                        advice.before(bean, jgen, prop, provider);
                         filter.serializeAsField(bean, jgen, provider, prop);
-                        beanSerializerAdvice.after(bean, jgen, prop, provider);
+                        advice.after(bean, jgen, prop, provider);
                     }
                 }
             }
@@ -201,23 +326,45 @@ public class AdvisedBeanSerializer extends BeanSerializerBase {
         }
     }
 
+    @Override
     protected void serializeFields(Object bean, JsonGenerator jgen, SerializerProvider provider)
             throws IOException {
+        serializeFields(bean, jgen, provider, currentAdvice());
+    }
+
+    /**
+     * @param advice advice to call hooks on (see {@link ContextualBeanSerializerAdvice#enter()})
+     */
+    protected void serializeFields(Object bean, JsonGenerator jgen, SerializerProvider provider,
+            BeanSerializerAdvice advice) throws IOException {
+        if (!propertyAdvice) {
+            super.serializeFields(bean, jgen, provider);
+            return;
+        }
         final BeanPropertyWriter[] props;
         if (_filteredProps != null && provider.getActiveView() != null) {
             props = _filteredProps;
         } else {
             props = _props;
         }
+        final IndexedBeanSerializerAdvice indexedAdvice =
+            indexedBeanSerializerAdvice != null ? (IndexedBeanSerializerAdvice) advice : null;
         int i = 0;
         try {
             for (final int len = props.length; i < len; ++i) {
                 BeanPropertyWriter prop = props[i];
                 if (prop != null) { // can have nulls in filtered list
-                    if (!beanSerializerAdvice.intercept(bean, jgen, prop, provider)) {
-                        beanSerializerAdvice.before(bean, jgen, prop, provider);
+                    if (indexedAdvice != null) {
+                        final int index = propertyIndexes[i];
+                        if (!indexedAdvice.intercept(bean, jgen, index, prop, provider)) {
+                            indexedAdvice.before(bean, jgen, index, prop, provider);
+                            prop.serializeAsField(bean, jgen, provider);
+                            indexedAdvice.after(bean, jgen, index, prop, provider);
+                        }
+                    } else if (!advice.intercept(bean, jgen, prop, provider)) {
+                        advice.before(bean, jgen, prop, provider);
                         prop.serializeAsField(bean, jgen, provider);
-                        beanSerializerAdvice.after(bean, jgen, prop, provider);
+                        advice.after(bean, jgen, prop, provider);
                     }
                 }
             }
@@ -239,6 +386,65 @@ public class AdvisedBeanSerializer extends BeanSerializerBase {
         }
     }
 
+    /**
+     * @return advice of the bean currently being serialized (used when it cannot be passed along, e.g. when fields
+     * are serialized from within BeanSerializerBase's serializeWithType)
+     */
+    private BeanSerializerAdvice currentAdvice() {
+        return contextualBeanSerializerAdvice != null ? contextualBeanSerializerAdvice.current() :
+            beanSerializerAdvice;
+    }
+
+    protected final BeanSerializerAdvice getBeanSerializerAdvice() {
+        return beanSerializerAdvice;
+    }
+
+    /**
+     * @return properties in the order they are serialized (unless view is active)
+     */
+    protected final BeanPropertyWriter[] getProperties() {
+        return _props;
+    }
+
+    /**
+     * @return (stable) index of the property at the given position of {@link #getProperties()}
+     */
+    final int getPropertyIndex(int position) {
+        return propertyIndexes[position];
+    }
+
+    protected final BeanPropertyWriter[] getPropertiesToSerialize(SerializerProvider provider) {
+        if (_filteredProps != null && provider.getActiveView() != null) {
+            return _filteredProps;
+        }
+        return _props;
+    }
+
+    protected final void serializeAnyGetter(Object bean, JsonGenerator jgen, SerializerProvider provider)
+            throws Exception {
+        if (_anyGetterWriter != null) {
+            _anyGetterWriter.getAndSerialize(bean, jgen, provider);
+        }
+    }
+
+    /**
+     * Same exception handling {@link #serializeFields(Object, JsonGenerator, SerializerProvider)} does (used by
+     * {@link AdvisedBeanSerializerGenerator}-generated subclasses).
+     */
+    protected final void handleSerializeFieldsException(Throwable e, Object bean, BeanPropertyWriter[] props, int i,
+            SerializerProvider provider) throws IOException {
+        String name = (i == props.length) ? "[anySetter]" : props[i].getName();
+        if (e instanceof StackOverflowError) {
+            JsonMappingException mapE = new JsonMappingException("Infinite recursion (StackOverflowError)", e);
+            mapE.prependPath(new JsonMappingException.Reference(bean, name));
+            throw mapE;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        wrapAndThrow(provider, e, bean, name);
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName() + " for " + handledType().getName();
@@ -15,9 +15,22 @@
  */
 package com.github.shyiko.jackson.module.advice;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanProperty;
 import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
 import com.fasterxml.jackson.databind.ser.BeanSerializerBuilder;
+import com.fasterxml.jackson.databind.ser.impl.FilteredBeanPropertyWriter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
@@ -26,19 +39,49 @@ public class AdvisedBeanSerializerBuilder extends BeanSerializerBuilder {
 
     private final static BeanPropertyWriter[] EMPTY_PROPERTY_LIST = new BeanPropertyWriter[0];
     private BeanSerializerAdvice beanSerializerAdvice;
+    private boolean codeGeneration;
 
     public AdvisedBeanSerializerBuilder(BeanSerializerBuilder src,
             Class<? extends BeanSerializerAdvice> beanSerializerAdvice) {
+        this(src, beanSerializerAdvice, false);
+    }
+
+    public AdvisedBeanSerializerBuilder(BeanSerializerBuilder src,
+            Class<? extends BeanSerializerAdvice> beanSerializerAdvice, boolean codeGeneration) {
+        this(src, Collections.<Class<? extends BeanSerializerAdvice>>singletonList(beanSerializerAdvice),
+            codeGeneration);
+    }
+
+    public AdvisedBeanSerializerBuilder(BeanSerializerBuilder src,
+            List<Class<? extends BeanSerializerAdvice>> beanSerializerAdvices, boolean codeGeneration) {
+        this(src, BeanSerializerAdviceChain.compose(beanSerializerAdvices), codeGeneration);
+    }
+
+    public AdvisedBeanSerializerBuilder(BeanSerializerBuilder src, BeanSerializerAdvice beanSerializerAdvice,
+            boolean codeGeneration) {
         super(src);
-        try {
-            this.beanSerializerAdvice = beanSerializerAdvice.newInstance();
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to create instance of " + beanSerializerAdvice + ".", e);
-        }
+        // not carried over by the copy-constructor
+        setTypeId(src.getTypeId());
+        setObjectIdWriter(src.getObjectIdWriter());
+        this.codeGeneration = codeGeneration;
+        this.beanSerializerAdvice = beanSerializerAdvice;
+    }
+
+    /**
+     * Exposed so that configuration (required by virtual properties) could be carried over from the original builder
+     * (BeanSerializerBuilder's copy-constructor doesn't).
+     */
+    @Override
+    public void setConfig(SerializationConfig config) {
+        super.setConfig(config);
     }
 
     @Override
     public JsonSerializer<?> build() {
+        if (beanSerializerAdvice instanceof VirtualPropertyBeanSerializerAdvice) {
+            addVirtualProperties(
+                ((VirtualPropertyBeanSerializerAdvice<?>) beanSerializerAdvice).getVirtualProperties());
+        }
         BeanPropertyWriter[] properties;
         if (_properties == null || _properties.isEmpty()) {
             if (_anyGetter == null) {
@@ -48,8 +91,109 @@ public class AdvisedBeanSerializerBuilder extends BeanSerializerBuilder {
         } else {
             properties = _properties.toArray(new BeanPropertyWriter[_properties.size()]);
         }
-        return new AdvisedBeanSerializer(_beanDesc.getType(), this, properties, _filteredProperties,
-                beanSerializerAdvice);
+        if (beanSerializerAdvice instanceof IndexedBeanSerializerAdvice) {
+            String[] propertyNames = new String[properties.length];
+            for (int i = 0; i < properties.length; i++) {
+                propertyNames[i] = properties[i].getName();
+            }
+            ((IndexedBeanSerializerAdvice) beanSerializerAdvice).resolve(new PropertyIndex(propertyNames));
+        }
+        if (beanSerializerAdvice instanceof FieldInjectingBeanSerializerAdvice) {
+            resolveInjectedFieldNames((FieldInjectingBeanSerializerAdvice) beanSerializerAdvice);
+        }
+        boolean propertyAdvice = beanSerializerAdvice instanceof BeanSerializerAdviceChain ?
+            ((BeanSerializerAdviceChain) beanSerializerAdvice).hasPropertyHooks() :
+            isPropertyAdvice(beanSerializerAdvice.getClass());
+        // generated serializer is of no use if there are no property-scoped hooks to call
+        boolean generate = codeGeneration && propertyAdvice;
+        if (generate) {
+            for (int i = 0; i < properties.length; i++) {
+                if (DirectBeanPropertyWriter.isApplicable(properties[i])) {
+                    properties[i] = new DirectBeanPropertyWriter(properties[i]);
+                }
+            }
+        }
+        AdvisedBeanSerializer serializer = new AdvisedBeanSerializer(_beanDesc.getType(), this, properties,
+                _filteredProperties, beanSerializerAdvice, propertyAdvice);
+        if (generate) {
+            try {
+                return AdvisedBeanSerializerGenerator.generate(serializer);
+            } catch (LinkageError e) {
+                // asm is not on the classpath
+            }
+        }
+        return serializer;
+    }
+
+    /**
+     * @return false if none of the property-scoped hooks is overridden (in which case there is no need to
+     * go through {@link BeanSerializerAdvice} for each and every property), true otherwise
+     */
+    protected boolean isPropertyAdvice(Class<?> adviceClass) {
+        if (IndexedBeanSerializerAdvice.class.isAssignableFrom(adviceClass)) {
+            Class<?>[] parameterTypes = {Object.class, JsonGenerator.class, int.class, BeanProperty.class,
+                SerializerProvider.class};
+            Class<?> baseClass = AbstractIndexedBeanSerializerAdvice.class;
+            return AdviceIntrospector.overrides(adviceClass, baseClass, "intercept", parameterTypes) ||
+                   AdviceIntrospector.overrides(adviceClass, baseClass, "before", parameterTypes) ||
+                   AdviceIntrospector.overrides(adviceClass, baseClass, "after", parameterTypes);
+        }
+        Class<?>[] parameterTypes = {Object.class, JsonGenerator.class, BeanProperty.class, SerializerProvider.class};
+        Class<?> baseClass = AbstractBeanSerializerAdvice.class;
+        return AdviceIntrospector.overrides(adviceClass, baseClass, "intercept", parameterTypes) ||
+               AdviceIntrospector.overrides(adviceClass, baseClass, "before", parameterTypes) ||
+               AdviceIntrospector.overrides(adviceClass, baseClass, "after", parameterTypes);
+    }
+
+    /**
+     * Encodes names of the injected fields (the same way BeanPropertyWriter encodes names of the properties).
+     */
+    private static void resolveInjectedFieldNames(FieldInjectingBeanSerializerAdvice advice) {
+        String[] names = advice.getInjectedFieldNames();
+        SerializableString[] fieldNames = new SerializableString[names.length];
+        for (int i = 0; i < names.length; i++) {
+            fieldNames[i] = new SerializedString(names[i]);
+        }
+        advice.resolve(fieldNames);
+    }
+
+    /**
+     * Turns virtual properties into the regular BeanPropertyWriters (taking views into account the same way
+     * BeanSerializerFactory does). Requires {@link #setConfig(SerializationConfig)} to be called beforehand.
+     */
+    private void addVirtualProperties(List<? extends VirtualProperty<?, ?>> virtualProperties) {
+        if (_config == null) {
+            throw new IllegalStateException("Serialization config is required to build virtual properties");
+        }
+        List<BeanPropertyWriter> properties = _properties != null ?
+            new ArrayList<BeanPropertyWriter>(_properties) : new ArrayList<BeanPropertyWriter>();
+        List<BeanPropertyWriter> filteredProperties = _filteredProperties != null ?
+            new ArrayList<BeanPropertyWriter>(Arrays.asList(_filteredProperties)) : null;
+        boolean includeByDefault = _config.isEnabled(MapperFeature.DEFAULT_VIEW_INCLUSION);
+        for (VirtualProperty<?, ?> virtualProperty : virtualProperties) {
+            BeanPropertyWriter writer = new VirtualBeanPropertyWriter(_config, virtualProperty);
+            int index = properties.size();
+            for (int i = 0; i < properties.size(); i++) {
+                if (properties.get(i).getName().equals(virtualProperty.getAnchor())) {
+                    index = virtualProperty.isBeforeAnchor() ? i : i + 1;
+                    break;
+                }
+            }
+            Class<?>[] views = writer.getViews();
+            if (filteredProperties == null && views != null) {
+                // filtered properties are omitted only if none is bound to a view and all are included by default
+                filteredProperties = new ArrayList<BeanPropertyWriter>(properties);
+            }
+            properties.add(index, writer);
+            if (filteredProperties != null) {
+                filteredProperties.add(index, views != null ?
+                    FilteredBeanPropertyWriter.constructViewBased(writer, views) : includeByDefault ? writer : null);
+            }
+        }
+        setProperties(properties);
+        if (filteredProperties != null) {
+            setFilteredProperties(filteredProperties.toArray(new BeanPropertyWriter[filteredProperties.size()]));
+        }
     }
 
-}
\ No newline at end of file
+}
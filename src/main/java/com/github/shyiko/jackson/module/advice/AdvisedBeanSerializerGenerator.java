@@ -0,0 +1,524 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates {@link AdvisedBeanSerializer} subclass (one per advised bean type, or, to be precise, per set of
+ * properties and advice class) with serializeFields unrolled into a straight line: getters are called (fields are
+ * read) directly and property-scoped hooks of {@link BeanSerializerAdvice} are invoked on the concrete advice type
+ * (hooks advice doesn't override are not called at all). As a result, neither getters nor advice call sites are
+ * shared by all the advised types (and so stay monomorphic/inlinable by the JIT).
+ * <p/>
+ * Generated class is defined in the package of the bean whenever possible, so that non-public getters/fields
+ * could be accessed too. Otherwise it's loaded by a child class loader and only public members are accessed directly.
+ * Properties which can't be accessed directly (as well as the ones not backed by a plain getter/field, e.g.
+ * virtual or afterburner-optimized) go through their {@link BeanPropertyWriter}s. Same goes for all the properties
+ * when view is active.
+ * <p/>
+ * Contextual copies (e.g. {@link AdvisedBeanSerializer#withIgnorals(String[])}) are generated too.
+ * Requires org.ow2.asm:asm (optional dependency).
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public final class AdvisedBeanSerializerGenerator {
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+    // bean class -> layout (see layoutOf) -> generated class
+    private static final Map<Class<?>, Map<String, WeakReference<Class<?>>>> CACHE =
+        new WeakHashMap<Class<?>, Map<String, WeakReference<Class<?>>>>();
+    private static final Map<Class<?>, Class<?>> WRAPPERS = new HashMap<Class<?>, Class<?>>();
+
+    static {
+        WRAPPERS.put(boolean.class, Boolean.class);
+        WRAPPERS.put(byte.class, Byte.class);
+        WRAPPERS.put(char.class, Character.class);
+        WRAPPERS.put(short.class, Short.class);
+        WRAPPERS.put(int.class, Integer.class);
+        WRAPPERS.put(long.class, Long.class);
+        WRAPPERS.put(float.class, Float.class);
+        WRAPPERS.put(double.class, Double.class);
+    }
+
+    // local variables of the generated serializeFields
+    private static final int THIS_VAR = 0, BEAN_VAR = 1, JGEN_VAR = 2, PROVIDER_VAR = 3, ADVICE_PARAMETER_VAR = 4,
+        PROPS_VAR = 5, I_VAR = 6, PROP_VAR = 7, ADVICE_VAR = 8, EXCEPTION_VAR = 9;
+    private static final String SUPER_NAME = Type.getInternalName(AdvisedBeanSerializer.class);
+    private static final String DIRECT_WRITER_NAME = Type.getInternalName(DirectBeanPropertyWriter.class);
+    private static final Class<?>[] PROPERTY_HOOK_PARAMETER_TYPES =
+        {Object.class, JsonGenerator.class, BeanProperty.class, SerializerProvider.class};
+    private static final Class<?>[] INDEXED_PROPERTY_HOOK_PARAMETER_TYPES =
+        {Object.class, JsonGenerator.class, int.class, BeanProperty.class, SerializerProvider.class};
+    private static final String SERIALIZE_FIELDS_DESC = Type.getMethodDescriptor(Type.VOID_TYPE,
+        Type.getType(Object.class), Type.getType(JsonGenerator.class), Type.getType(SerializerProvider.class));
+    private static final String SERIALIZE_ADVISED_FIELDS_DESC = Type.getMethodDescriptor(Type.VOID_TYPE,
+        Type.getType(Object.class), Type.getType(JsonGenerator.class), Type.getType(SerializerProvider.class),
+        Type.getType(BeanSerializerAdvice.class));
+    private static final String SERIALIZE_VALUE_DESC = Type.getMethodDescriptor(Type.VOID_TYPE,
+        Type.getType(Object.class), Type.getType(Object.class), Type.getType(JsonGenerator.class),
+        Type.getType(SerializerProvider.class));
+
+    private AdvisedBeanSerializerGenerator() {
+    }
+
+    /**
+     * @param serializer serializer to optimize
+     * @return instance of generated class if code generation is possible, original serializer otherwise
+     */
+    public static AdvisedBeanSerializer generate(AdvisedBeanSerializer serializer) {
+        try {
+            Class<?> generatedClass = resolveClass(serializer);
+            if (generatedClass != null) {
+                return (AdvisedBeanSerializer) generatedClass.getConstructor(AdvisedBeanSerializer.class).
+                    newInstance(serializer);
+            }
+        } catch (LinkageError e) {
+            // generated class failed verification
+        } catch (Exception e) {
+            // can't be generated, falling back
+        }
+        return serializer;
+    }
+
+    private static synchronized Class<?> resolveClass(AdvisedBeanSerializer serializer) {
+        Class<?> beanClass = serializer.handledType();
+        ClassLoader classLoader = beanClass.getClassLoader();
+        if (classLoader == null || !isVisible(AdvisedBeanSerializer.class, classLoader)) {
+            // generated class wouldn't be able to link against this module
+            return null;
+        }
+        Map<String, WeakReference<Class<?>>> classes = CACHE.get(beanClass);
+        if (classes == null) {
+            CACHE.put(beanClass, classes = new HashMap<String, WeakReference<Class<?>>>());
+        }
+        String layout = layoutOf(serializer);
+        WeakReference<Class<?>> reference = classes.get(layout);
+        Class<?> result = reference != null ? reference.get() : null;
+        if (result == null) {
+            String className = beanClass.getName() + "$$AdvisedBeanSerializer$$" + COUNTER.incrementAndGet();
+            result = defineClassInPackage(beanClass, className, generateClass(serializer, className, true));
+            if (result == null) {
+                result = new GeneratedClassLoader(classLoader).defineClass(className,
+                    generateClass(serializer, className, false));
+            }
+            classes.put(layout, new WeakReference<Class<?>>(result));
+        }
+        return result;
+    }
+
+    /**
+     * @return string uniquely identifying generated code (advice class, property indexes and members accessed
+     * directly)
+     */
+    private static String layoutOf(AdvisedBeanSerializer serializer) {
+        StringBuilder sb = new StringBuilder(serializer.getBeanSerializerAdvice().getClass().getName());
+        BeanPropertyWriter[] properties = serializer.getProperties();
+        for (int i = 0; i < properties.length; i++) {
+            sb.append(',').append(serializer.getPropertyIndex(i));
+            if (properties[i] instanceof DirectBeanPropertyWriter) {
+                Member member = properties[i].getMember().getMember();
+                sb.append(':').append(member.getDeclaringClass().getName()).append('#').append(member.getName()).
+                    append(member instanceof Method ? "()" : "");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static Class<?> defineClassInPackage(Class<?> beanClass, String className, byte[] bytecode) {
+        Class<?> result = defineClassUsingLookup(beanClass, bytecode);
+        if (result != null) {
+            return result;
+        }
+        try {
+            Method method = ClassLoader.class.getDeclaredMethod("defineClass",
+                String.class, byte[].class, int.class, int.class);
+            method.setAccessible(true);
+            return (Class<?>) method.invoke(beanClass.getClassLoader(), className, bytecode, 0, bytecode.length);
+        } catch (Exception e) {
+            // access to ClassLoader.defineClass is denied
+            return null;
+        }
+    }
+
+    /**
+     * MethodHandles.privateLookupIn(hostClass, MethodHandles.lookup()).defineClass(bytecode) (Java 9+, the only
+     * way to define class in the package of the bean once reflective access to ClassLoader.defineClass is denied).
+     * Invoked reflectively so that library could still be used on Java 6-8.
+     * @return defined class, null if lookup-based definition is not available (or not permitted)
+     */
+    static Class<?> defineClassUsingLookup(Class<?> hostClass, byte[] bytecode) {
+        try {
+            Class<?> methodHandlesClass = Class.forName("java.lang.invoke.MethodHandles");
+            Class<?> lookupClass = Class.forName("java.lang.invoke.MethodHandles$Lookup");
+            Method privateLookupIn = methodHandlesClass.getMethod("privateLookupIn", Class.class, lookupClass);
+            Object lookup = privateLookupIn.invoke(null, hostClass, methodHandlesClass.getMethod("lookup").
+                invoke(null));
+            return (Class<?>) lookupClass.getMethod("defineClass", byte[].class).invoke(lookup, bytecode);
+        } catch (Exception e) {
+            // Java 8 or older (or bean's package is not open to this module)
+            return null;
+        }
+    }
+
+    /**
+     * @param samePackage true if class is going to be defined in the package (and by the class loader) of the bean
+     */
+    static byte[] generateClass(AdvisedBeanSerializer serializer, String className, boolean samePackage) {
+        Class<?> beanClass = serializer.handledType();
+        BeanSerializerAdvice advice = serializer.getBeanSerializerAdvice();
+        boolean indexed = advice instanceof IndexedBeanSerializerAdvice;
+        Class<?> adviceType = adviceTypeOf(advice.getClass(), indexed, beanClass, samePackage);
+        String internalName = className.replace('.', '/');
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, internalName, null,
+            SUPER_NAME, null);
+        generateConstructor(cw);
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PROTECTED, "serializeFields", SERIALIZE_ADVISED_FIELDS_DESC,
+            null, new String[]{Type.getInternalName(IOException.class)});
+        new SerializeFieldsGenerator(mv, advice.getClass(), adviceType, indexed).
+            generate(serializer, samePackage);
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /**
+     * @return advice class if it can be referenced from the generated class (and advice passed to serializeFields is
+     * known to be of that class), advice interface otherwise
+     */
+    private static Class<?> adviceTypeOf(Class<?> adviceClass, boolean indexed, Class<?> beanClass,
+            boolean samePackage) {
+        // advices bound to the bean by other contextual advices' enter() are not necessarily of the same class
+        boolean boundToSameClass = !ContextualBeanSerializerAdvice.class.isAssignableFrom(adviceClass) ||
+            AbstractContextualBeanSerializerAdvice.class.isAssignableFrom(adviceClass) ||
+            adviceClass == BeanSerializerAdviceChain.class;
+        boolean accessible = Modifier.isPublic(adviceClass.getModifiers()) ||
+            samePackage && isInPackageOf(adviceClass, beanClass);
+        if (boundToSameClass && accessible && isVisible(adviceClass, beanClass.getClassLoader())) {
+            return adviceClass;
+        }
+        return indexed ? IndexedBeanSerializerAdvice.class : BeanSerializerAdvice.class;
+    }
+
+    /**
+     * @return member backing the property if it can be accessed from the generated class, null otherwise
+     */
+    private static Member directlyAccessibleMemberOf(BeanPropertyWriter property, Class<?> beanClass,
+            boolean samePackage) {
+        if (!(property instanceof DirectBeanPropertyWriter)) {
+            return null;
+        }
+        Member member = property.getMember().getMember();
+        Class<?> declaringClass = member.getDeclaringClass();
+        if (Modifier.isPublic(declaringClass.getModifiers()) && Modifier.isPublic(member.getModifiers()) ||
+                samePackage && !Modifier.isPrivate(member.getModifiers()) && isInPackageOf(declaringClass, beanClass)) {
+            return member;
+        }
+        return null;
+    }
+
+    private static boolean isVisible(Class<?> cls, ClassLoader classLoader) {
+        try {
+            return Class.forName(cls.getName(), false, classLoader) == cls;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static boolean isInPackageOf(Class<?> cls, Class<?> anotherCls) {
+        return cls.getClassLoader() == anotherCls.getClassLoader() &&
+            packageOf(cls).equals(packageOf(anotherCls));
+    }
+
+    private static String packageOf(Class<?> cls) {
+        String name = cls.getName();
+        int index = name.lastIndexOf('.');
+        return index == -1 ? "" : name.substring(0, index);
+    }
+
+    /**
+     * public &lt;init&gt;(AdvisedBeanSerializer src) {
+     *     super(src);
+     * }
+     */
+    private static void generateConstructor(ClassWriter cw) {
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>",
+            Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(AdvisedBeanSerializer.class)), null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, SUPER_NAME, "<init>",
+            Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(AdvisedBeanSerializer.class)), false);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * protected void serializeFields(Object bean, JsonGenerator jgen, SerializerProvider provider,
+     *         BeanSerializerAdvice beanAdvice) {
+     *     BeanPropertyWriter[] props = getPropertiesToSerialize(provider);
+     *     if (props != getProperties()) {
+     *         super.serializeFields(bean, jgen, provider, beanAdvice); // view is active
+     *         return;
+     *     }
+     *     &lt;adviceType&gt; advice = (&lt;adviceType&gt;) beanAdvice;
+     *     int i = 0;
+     *     try {
+     *         // for each property (hooks advice doesn't override are omitted)
+     *         i = &lt;i&gt;;
+     *         BeanPropertyWriter prop = props[&lt;i&gt;];
+     *         if (!advice.intercept(bean, jgen, [&lt;index&gt;,] prop, provider)) {
+     *             advice.before(bean, jgen, [&lt;index&gt;,] prop, provider);
+     *             ((DirectBeanPropertyWriter) prop).serializeAsField(bean, ((&lt;Bean&gt;) bean).getX(), jgen,
+     *                 provider); // or prop.serializeAsField(bean, jgen, provider) if X can't be accessed directly
+     *             advice.after(bean, jgen, [&lt;index&gt;,] prop, provider);
+     *         }
+     *         // end of for each property
+     *         i = props.length;
+     *         serializeAnyGetter(bean, jgen, provider);
+     *     } catch (Throwable e) {
+     *         handleSerializeFieldsException(e, bean, props, i, provider);
+     *     }
+     * }
+     */
+    private static final class SerializeFieldsGenerator {
+
+        private final MethodVisitor mv;
+        private final Class<?> adviceType;
+        private final boolean indexed;
+        private final boolean intercept;
+        private final boolean before;
+        private final boolean after;
+
+        private SerializeFieldsGenerator(MethodVisitor mv, Class<?> adviceClass, Class<?> adviceType,
+                boolean indexed) {
+            this.mv = mv;
+            this.adviceType = adviceType;
+            this.indexed = indexed;
+            this.intercept = overrides(adviceClass, "intercept");
+            this.before = overrides(adviceClass, "before");
+            this.after = overrides(adviceClass, "after");
+        }
+
+        private boolean overrides(Class<?> adviceClass, String methodName) {
+            return indexed ?
+                AdviceIntrospector.overrides(adviceClass, AbstractIndexedBeanSerializerAdvice.class, methodName,
+                    INDEXED_PROPERTY_HOOK_PARAMETER_TYPES) :
+                AdviceIntrospector.overrides(adviceClass, AbstractBeanSerializerAdvice.class, methodName,
+                    PROPERTY_HOOK_PARAMETER_TYPES);
+        }
+
+        private void generate(AdvisedBeanSerializer serializer, boolean samePackage) {
+            mv.visitCode();
+            Label tryStart = new Label(), tryEnd = new Label(), handler = new Label(), unrolled = new Label();
+            mv.visitTryCatchBlock(tryStart, tryEnd, handler, Type.getInternalName(Throwable.class));
+            mv.visitVarInsn(Opcodes.ALOAD, THIS_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, PROVIDER_VAR);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SUPER_NAME, "getPropertiesToSerialize",
+                Type.getMethodDescriptor(Type.getType(BeanPropertyWriter[].class),
+                    Type.getType(SerializerProvider.class)), false);
+            mv.visitVarInsn(Opcodes.ASTORE, PROPS_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, PROPS_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, THIS_VAR);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SUPER_NAME, "getProperties",
+                Type.getMethodDescriptor(Type.getType(BeanPropertyWriter[].class)), false);
+            mv.visitJumpInsn(Opcodes.IF_ACMPEQ, unrolled);
+            mv.visitVarInsn(Opcodes.ALOAD, THIS_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, BEAN_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, JGEN_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, PROVIDER_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, ADVICE_PARAMETER_VAR);
+            mv.visitMethodInsn(Opcodes.INVOKESPECIAL, SUPER_NAME, "serializeFields", SERIALIZE_ADVISED_FIELDS_DESC,
+                false);
+            mv.visitInsn(Opcodes.RETURN);
+            mv.visitLabel(unrolled);
+            mv.visitVarInsn(Opcodes.ALOAD, ADVICE_PARAMETER_VAR);
+            mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(adviceType));
+            mv.visitVarInsn(Opcodes.ASTORE, ADVICE_VAR);
+            mv.visitInsn(Opcodes.ICONST_0);
+            mv.visitVarInsn(Opcodes.ISTORE, I_VAR);
+            mv.visitLabel(tryStart);
+            Class<?> beanClass = serializer.handledType();
+            BeanPropertyWriter[] properties = serializer.getProperties();
+            for (int i = 0; i < properties.length; i++) {
+                if (i != 0) {
+                    visitInt(i);
+                    mv.visitVarInsn(Opcodes.ISTORE, I_VAR);
+                }
+                visitProperty(i, serializer.getPropertyIndex(i),
+                    directlyAccessibleMemberOf(properties[i], beanClass, samePackage));
+            }
+            visitInt(properties.length);
+            mv.visitVarInsn(Opcodes.ISTORE, I_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, THIS_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, BEAN_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, JGEN_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, PROVIDER_VAR);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SUPER_NAME, "serializeAnyGetter", SERIALIZE_FIELDS_DESC, false);
+            mv.visitLabel(tryEnd);
+            mv.visitInsn(Opcodes.RETURN);
+            mv.visitLabel(handler);
+            mv.visitVarInsn(Opcodes.ASTORE, EXCEPTION_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, THIS_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, EXCEPTION_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, BEAN_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, PROPS_VAR);
+            mv.visitVarInsn(Opcodes.ILOAD, I_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, PROVIDER_VAR);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, SUPER_NAME, "handleSerializeFieldsException",
+                Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(Throwable.class), Type.getType(Object.class),
+                    Type.getType(BeanPropertyWriter[].class), Type.INT_TYPE, Type.getType(SerializerProvider.class)),
+                false);
+            mv.visitInsn(Opcodes.RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        /**
+         * @param member getter/field to read value from (null if property should be serialized through
+         * BeanPropertyWriter)
+         */
+        private void visitProperty(int position, int index, Member member) {
+            Label next = new Label();
+            mv.visitVarInsn(Opcodes.ALOAD, PROPS_VAR);
+            visitInt(position);
+            mv.visitInsn(Opcodes.AALOAD);
+            if (member != null) {
+                mv.visitTypeInsn(Opcodes.CHECKCAST, DIRECT_WRITER_NAME);
+            }
+            mv.visitVarInsn(Opcodes.ASTORE, PROP_VAR);
+            if (intercept) {
+                visitPropertyHook("intercept", index, Type.BOOLEAN_TYPE);
+                mv.visitJumpInsn(Opcodes.IFNE, next);
+            }
+            if (before) {
+                visitPropertyHook("before", index, Type.VOID_TYPE);
+            }
+            mv.visitVarInsn(Opcodes.ALOAD, PROP_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, BEAN_VAR);
+            if (member != null) {
+                visitValue(member);
+                mv.visitVarInsn(Opcodes.ALOAD, JGEN_VAR);
+                mv.visitVarInsn(Opcodes.ALOAD, PROVIDER_VAR);
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, DIRECT_WRITER_NAME, "serializeAsField",
+                    SERIALIZE_VALUE_DESC, false);
+            } else {
+                mv.visitVarInsn(Opcodes.ALOAD, JGEN_VAR);
+                mv.visitVarInsn(Opcodes.ALOAD, PROVIDER_VAR);
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, Type.getInternalName(BeanPropertyWriter.class),
+                    "serializeAsField", SERIALIZE_FIELDS_DESC, false);
+            }
+            if (after) {
+                visitPropertyHook("after", index, Type.VOID_TYPE);
+            }
+            mv.visitLabel(next);
+        }
+
+        /**
+         * ((&lt;Bean&gt;) bean).getX() / ((&lt;Bean&gt;) bean).x (boxed if primitive)
+         */
+        private void visitValue(Member member) {
+            Class<?> declaringClass = member.getDeclaringClass();
+            String owner = Type.getInternalName(declaringClass);
+            Class<?> valueType;
+            mv.visitVarInsn(Opcodes.ALOAD, BEAN_VAR);
+            mv.visitTypeInsn(Opcodes.CHECKCAST, owner);
+            if (member instanceof Method) {
+                Method method = (Method) member;
+                mv.visitMethodInsn(declaringClass.isInterface() ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL,
+                    owner, method.getName(), Type.getMethodDescriptor(method), declaringClass.isInterface());
+                valueType = method.getReturnType();
+            } else {
+                Field field = (Field) member;
+                mv.visitFieldInsn(Opcodes.GETFIELD, owner, field.getName(), Type.getDescriptor(field.getType()));
+                valueType = field.getType();
+            }
+            if (valueType.isPrimitive()) {
+                Class<?> wrapperType = WRAPPERS.get(valueType);
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(wrapperType), "valueOf",
+                    Type.getMethodDescriptor(Type.getType(wrapperType), Type.getType(valueType)), false);
+            }
+        }
+
+        /**
+         * advice.&lt;name&gt;(bean, jgen, [&lt;index&gt;,] prop, provider)
+         */
+        private void visitPropertyHook(String name, int index, Type returnType) {
+            mv.visitVarInsn(Opcodes.ALOAD, ADVICE_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, BEAN_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, JGEN_VAR);
+            if (indexed) {
+                visitInt(index);
+            }
+            mv.visitVarInsn(Opcodes.ALOAD, PROP_VAR);
+            mv.visitVarInsn(Opcodes.ALOAD, PROVIDER_VAR);
+            Class<?>[] parameterTypes = indexed ? INDEXED_PROPERTY_HOOK_PARAMETER_TYPES : PROPERTY_HOOK_PARAMETER_TYPES;
+            Type[] argumentTypes = new Type[parameterTypes.length];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                argumentTypes[i] = Type.getType(parameterTypes[i]);
+            }
+            mv.visitMethodInsn(adviceType.isInterface() ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL,
+                Type.getInternalName(adviceType), name, Type.getMethodDescriptor(returnType, argumentTypes),
+                adviceType.isInterface());
+        }
+
+        private void visitInt(int value) {
+            if (value <= 5) {
+                mv.visitInsn(Opcodes.ICONST_0 + value);
+            } else if (value <= Byte.MAX_VALUE) {
+                mv.visitIntInsn(Opcodes.BIPUSH, value);
+            } else if (value <= Short.MAX_VALUE) {
+                mv.visitIntInsn(Opcodes.SIPUSH, value);
+            } else {
+                mv.visitLdcInsn(value);
+            }
+        }
+    }
+
+    /**
+     * Fallback used when class can't be defined within bean's own class loader.
+     */
+    private static final class GeneratedClassLoader extends ClassLoader {
+
+        private GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        private Class<?> defineClass(String name, byte[] bytecode) {
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+
+}
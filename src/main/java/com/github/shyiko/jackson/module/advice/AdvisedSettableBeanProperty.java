@@ -0,0 +1,133 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link SettableBeanProperty} wrapper applying {@link BeanDeserializerAdvice#intercept(Object, String,
+ * com.fasterxml.jackson.core.JsonParser, com.fasterxml.jackson.databind.DeserializationContext)} (bean-scoped hooks
+ * are ignored) to a single property (used in case of field/method-level {@link JsonDeserializerAdvice}).
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+@SuppressWarnings("unchecked")
+public class AdvisedSettableBeanProperty extends SettableBeanProperty {
+
+    private static final long serialVersionUID = 1L;
+
+    private final SettableBeanProperty delegate;
+    private final BeanDeserializerAdvice beanDeserializerAdvice;
+    private final ContextualBeanDeserializerAdvice contextualBeanDeserializerAdvice;
+
+    public AdvisedSettableBeanProperty(SettableBeanProperty delegate,
+            Class<? extends BeanDeserializerAdvice> beanDeserializerAdvice) {
+        this(delegate, Collections.<Class<? extends BeanDeserializerAdvice>>singletonList(beanDeserializerAdvice));
+    }
+
+    public AdvisedSettableBeanProperty(SettableBeanProperty delegate,
+            List<Class<? extends BeanDeserializerAdvice>> beanDeserializerAdvices) {
+        this(delegate, BeanDeserializerAdviceChain.compose(beanDeserializerAdvices));
+    }
+
+    public AdvisedSettableBeanProperty(SettableBeanProperty delegate, BeanDeserializerAdvice beanDeserializerAdvice) {
+        super(delegate);
+        this.delegate = delegate;
+        this.beanDeserializerAdvice = beanDeserializerAdvice;
+        this.contextualBeanDeserializerAdvice = beanDeserializerAdvice instanceof ContextualBeanDeserializerAdvice ?
+            (ContextualBeanDeserializerAdvice) beanDeserializerAdvice : null;
+    }
+
+    protected AdvisedSettableBeanProperty(AdvisedSettableBeanProperty src, SettableBeanProperty delegate) {
+        super(delegate);
+        this.delegate = delegate;
+        this.beanDeserializerAdvice = src.beanDeserializerAdvice;
+        this.contextualBeanDeserializerAdvice = src.contextualBeanDeserializerAdvice;
+    }
+
+    @Override
+    public SettableBeanProperty withValueDeserializer(JsonDeserializer<?> deser) {
+        return new AdvisedSettableBeanProperty(this, delegate.withValueDeserializer(deser));
+    }
+
+    @Override
+    public SettableBeanProperty withName(PropertyName newName) {
+        return new AdvisedSettableBeanProperty(this, delegate.withName(newName));
+    }
+
+    @Override
+    public <A extends Annotation> A getAnnotation(Class<A> acls) {
+        return delegate.getAnnotation(acls);
+    }
+
+    @Override
+    public AnnotatedMember getMember() {
+        return delegate.getMember();
+    }
+
+    @Override
+    public Object getInjectableValueId() {
+        return delegate.getInjectableValueId();
+    }
+
+    @Override
+    public void deserializeAndSet(JsonParser jp, DeserializationContext ctxt, Object instance) throws IOException {
+        if (!intercept(jp, ctxt, instance)) {
+            delegate.deserializeAndSet(jp, ctxt, instance);
+        }
+    }
+
+    @Override
+    public Object deserializeSetAndReturn(JsonParser jp, DeserializationContext ctxt, Object instance)
+            throws IOException {
+        if (!intercept(jp, ctxt, instance)) {
+            return delegate.deserializeSetAndReturn(jp, ctxt, instance);
+        }
+        return instance;
+    }
+
+    private boolean intercept(JsonParser jp, DeserializationContext ctxt, Object instance) throws IOException {
+        if (contextualBeanDeserializerAdvice == null) {
+            return beanDeserializerAdvice.intercept(instance, getName(), jp, ctxt);
+        }
+        contextualBeanDeserializerAdvice.enter();
+        try {
+            return beanDeserializerAdvice.intercept(instance, getName(), jp, ctxt);
+        } finally {
+            contextualBeanDeserializerAdvice.exit();
+        }
+    }
+
+    @Override
+    public void set(Object instance, Object value) throws IOException {
+        delegate.set(instance, value);
+    }
+
+    @Override
+    public Object setAndReturn(Object instance, Object value) throws IOException {
+        return delegate.setAndReturn(instance, value);
+    }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * {@link BeanSerializerAdvice} which gets a chance to look at the whole collection of beans before any of them is
+ * serialized (e.g. in order to replace N lookups (one per bean) with a single batched one).
+ * @param <T> type of the bean this advice can be applied to
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public interface BatchBeanSerializerAdvice<T> extends BeanSerializerAdvice<T> {
+
+    /**
+     * Called before elements of the collection are serialized (once per batch of consecutive elements, see
+     * {@link BatchPreparingCollectionSerializer}).
+     * @param beans (non-null) beans of the batch (not to be retained once the call returns)
+     * @param provider serializer provider
+     * @return per-collection data (anything that makes sense to the advice), which will be available (to all the hooks
+     * called while serializing elements of this collection) through
+     * {@link BatchPreparingCollectionSerializer#getPrepared(SerializerProvider, BatchBeanSerializerAdvice)}
+     * @throws IOException if anything goes wrong
+     */
+    Object prepare(Collection<? extends T> beans, SerializerProvider provider) throws IOException;
+
+}
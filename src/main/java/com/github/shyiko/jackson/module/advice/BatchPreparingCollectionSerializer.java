@@ -0,0 +1,429 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsonFormatVisitors.JsonFormatVisitorWrapper;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.impl.IndexedListSerializer;
+import com.fasterxml.jackson.databind.ser.std.CollectionSerializer;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Collection serializer wrapper calling {@link BatchBeanSerializerAdvice#prepare(java.util.Collection,
+ * com.fasterxml.jackson.databind.SerializerProvider)} (if elements are serialized by {@link AdvisedBeanSerializer}
+ * with such advice) before delegating to the original serializer.
+ * <p>
+ * Jackson's own collection serializers are handed a view of the collection, which prepares advices batch by batch
+ * (each batch being a run of (at most {@value #MAX_BATCH_SIZE}) consecutive elements sharing them) as elements are
+ * pulled out of it, so that collection is traversed only once. Any other serializer gets the whole collection
+ * prepared up front (as long as all the elements share the advices).
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+@SuppressWarnings("unchecked")
+public class BatchPreparingCollectionSerializer extends JsonSerializer<Collection<?>>
+        implements ContextualSerializer, ResolvableSerializer {
+
+    private static final BatchBeanSerializerAdvice[] NO_ADVICES = new BatchBeanSerializerAdvice[0];
+    private static final int MAX_BATCH_SIZE = 1024;
+
+    private final JsonSerializer<Collection<?>> delegate;
+    /**
+     * element class -> batch advices of the serializer responsible for it (shared by contextual instances)
+     */
+    private final ConcurrentMap<Class<?>, BatchBeanSerializerAdvice[]> advicesByClass;
+
+    public BatchPreparingCollectionSerializer(JsonSerializer<?> delegate) {
+        this(delegate, new ConcurrentHashMap<Class<?>, BatchBeanSerializerAdvice[]>());
+    }
+
+    private BatchPreparingCollectionSerializer(JsonSerializer<?> delegate,
+            ConcurrentMap<Class<?>, BatchBeanSerializerAdvice[]> advicesByClass) {
+        this.delegate = (JsonSerializer<Collection<?>>) delegate;
+        this.advicesByClass = advicesByClass;
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider prov, BeanProperty property)
+            throws JsonMappingException {
+        if (delegate instanceof ContextualSerializer) {
+            JsonSerializer<?> contextual = ((ContextualSerializer) delegate).createContextual(prov, property);
+            if (contextual != delegate) {
+                return new BatchPreparingCollectionSerializer(contextual, advicesByClass);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        if (delegate instanceof ResolvableSerializer) {
+            ((ResolvableSerializer) delegate).resolve(provider);
+        }
+    }
+
+    /**
+     * @return true if delegate is known to go through the collection (once, in order) using either
+     * {@link Collection#iterator()} or {@link List#get(int)}
+     */
+    private boolean isBatchable() {
+        Object serializer = delegate;
+        return serializer instanceof CollectionSerializer || serializer instanceof IndexedListSerializer;
+    }
+
+    @Override
+    public void serialize(Collection<?> value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+        if (isBatchable()) {
+            Batches batches = new Batches(value, provider);
+            try {
+                delegate.serialize(batches, jgen, provider);
+            } catch (PreparationException e) {
+                throw (IOException) e.getCause();
+            } catch (JsonMappingException e) {
+                throw unwrap(e);
+            } finally {
+                batches.close();
+            }
+            return;
+        }
+        BatchBeanSerializerAdvice[] advices = resolveAdvices(value, provider);
+        if (advices == null) {
+            delegate.serialize(value, jgen, provider);
+            return;
+        }
+        Object[] previous = prepare(advices, value, provider);
+        try {
+            delegate.serialize(value, jgen, provider);
+        } finally {
+            restore(advices, previous, provider);
+        }
+    }
+
+    @Override
+    public void serializeWithType(Collection<?> value, JsonGenerator jgen, SerializerProvider provider,
+            TypeSerializer typeSer) throws IOException {
+        if (isBatchable()) {
+            Batches batches = new Batches(value, provider);
+            try {
+                delegate.serializeWithType(batches, jgen, provider, typeSer);
+            } catch (PreparationException e) {
+                throw (IOException) e.getCause();
+            } catch (JsonMappingException e) {
+                throw unwrap(e);
+            } finally {
+                batches.close();
+            }
+            return;
+        }
+        BatchBeanSerializerAdvice[] advices = resolveAdvices(value, provider);
+        if (advices == null) {
+            delegate.serializeWithType(value, jgen, provider, typeSer);
+            return;
+        }
+        Object[] previous = prepare(advices, value, provider);
+        try {
+            delegate.serializeWithType(value, jgen, provider, typeSer);
+        } finally {
+            restore(advices, previous, provider);
+        }
+    }
+
+    /**
+     * @return original failure of {@link BatchBeanSerializerAdvice#prepare(Collection, SerializerProvider)} if
+     * delegate wrapped it (see SerializationFeature.WRAP_EXCEPTIONS), the exception itself otherwise
+     */
+    private static IOException unwrap(JsonMappingException e) {
+        Throwable cause = e.getCause();
+        return cause instanceof PreparationException ? (IOException) cause.getCause() : e;
+    }
+
+    /**
+     * @return values prepared for the enclosing collection (if any), to be restored once this one is serialized
+     */
+    @SuppressWarnings("unchecked")
+    private static Object[] prepare(BatchBeanSerializerAdvice[] advices, Collection<?> value,
+            SerializerProvider provider) throws IOException {
+        Object[] previous = new Object[advices.length];
+        int prepared = 0;
+        try {
+            for (; prepared < advices.length; prepared++) {
+                Object[] holder = getHolder(provider, advices[prepared]);
+                previous[prepared] = holder[0];
+                holder[0] = advices[prepared].prepare(value, provider);
+            }
+        } catch (IOException e) {
+            restore(Arrays.copyOf(advices, prepared), previous, provider);
+            throw e;
+        } catch (RuntimeException e) {
+            restore(Arrays.copyOf(advices, prepared), previous, provider);
+            throw e;
+        }
+        return previous;
+    }
+
+    private static void restore(BatchBeanSerializerAdvice[] advices, Object[] previous,
+            SerializerProvider provider) {
+        for (int i = 0; i < advices.length; i++) {
+            getHolder(provider, advices[i])[0] = previous[i];
+        }
+    }
+
+    /**
+     * @param provider serializer provider
+     * @param advice advice
+     * @return value returned by {@link BatchBeanSerializerAdvice#prepare(java.util.Collection,
+     * com.fasterxml.jackson.databind.SerializerProvider)} for the collection currently being serialized, null if
+     * bean is not a part of such collection
+     */
+    public static Object getPrepared(SerializerProvider provider, BatchBeanSerializerAdvice<?> advice) {
+        Object[] holder = (Object[]) provider.getAttribute(advice);
+        return holder != null ? holder[0] : null;
+    }
+
+    /**
+     * Per-call attributes cannot be removed (only overridden with non-null values), hence the (mutable) holder.
+     */
+    private static Object[] getHolder(SerializerProvider provider, BatchBeanSerializerAdvice advice) {
+        Object[] holder = (Object[]) provider.getAttribute(advice);
+        if (holder == null) {
+            provider.setAttribute(advice, holder = new Object[1]);
+        }
+        return holder;
+    }
+
+    /**
+     * @return batch advices of the {@link AdvisedBeanSerializer}(s) responsible for the elements of collection, as
+     * long as there is at least one and all the (non-null) elements share them, null otherwise. Collections of
+     * non-advised elements are rejected by the first (non-null) one.
+     */
+    private BatchBeanSerializerAdvice[] resolveAdvices(Collection<?> value, SerializerProvider provider)
+            throws IOException {
+        BatchBeanSerializerAdvice[] result = null;
+        Class<?> resolvedClass = null;
+        for (Object element : value) {
+            if (element == null || element.getClass() == resolvedClass) {
+                continue;
+            }
+            resolvedClass = element.getClass();
+            BatchBeanSerializerAdvice[] advices = resolveAdvices(resolvedClass, provider);
+            if (advices.length == 0 || (result != null && !Arrays.equals(advices, result))) {
+                return null;
+            }
+            result = advices;
+        }
+        return result;
+    }
+
+    /**
+     * @return batch advices of the serializer responsible for the given class (either the advice itself or the members
+     * of {@link BeanSerializerAdviceChain}), empty array if there are none
+     */
+    private BatchBeanSerializerAdvice[] resolveAdvices(Class<?> elementClass, SerializerProvider provider)
+            throws IOException {
+        BatchBeanSerializerAdvice[] result = advicesByClass.get(elementClass);
+        if (result == null) {
+            result = NO_ADVICES;
+            JsonSerializer<Object> serializer = provider.findValueSerializer(elementClass, null);
+            if (serializer instanceof AdvisedBeanSerializer) {
+                BeanSerializerAdvice advice = ((AdvisedBeanSerializer) serializer).getBeanSerializerAdvice();
+                if (advice instanceof BeanSerializerAdviceChain) {
+                    result = ((BeanSerializerAdviceChain) advice).getBatchAdvices();
+                } else if (advice instanceof BatchBeanSerializerAdvice) {
+                    result = new BatchBeanSerializerAdvice[] {(BatchBeanSerializerAdvice) advice};
+                }
+            }
+            advicesByClass.put(elementClass, result);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isEmpty(Collection<?> value) {
+        return delegate.isEmpty(value);
+    }
+
+    @Override
+    public boolean usesObjectId() {
+        return delegate.usesObjectId();
+    }
+
+    @Override
+    public Class<Collection<?>> handledType() {
+        return delegate.handledType();
+    }
+
+    @Override
+    public JsonSerializer<?> getDelegatee() {
+        return delegate;
+    }
+
+    @Override
+    public void acceptJsonFormatVisitor(JsonFormatVisitorWrapper visitor, JavaType type)
+            throws JsonMappingException {
+        delegate.acceptJsonFormatVisitor(visitor, type);
+    }
+
+    /**
+     * View of the collection preparing advices for the next batch of elements once the last element of the previous
+     * one is pulled out (and so has already been serialized).
+     */
+    private final class Batches extends AbstractList<Object> {
+
+        private final Collection<?> value;
+        private final SerializerProvider provider;
+        private final Iterator<?> iterator;
+        private final List<Object> batch = new ArrayList<Object>();
+        // non-null elements of the batch
+        private final List<Object> beans = new ArrayList<Object>();
+        // advices prepared for the batch (null if there are none)
+        private BatchBeanSerializerAdvice[] advices;
+        private Object[] previous;
+        // first element of the next batch (already pulled out of the iterator)
+        private Object pending;
+        private boolean hasPending;
+        // index of the first element of the batch
+        private int offset;
+        // index of the element to be handed over next
+        private int position;
+
+        private Batches(Collection<?> value, SerializerProvider provider) {
+            this.value = value;
+            this.provider = provider;
+            this.iterator = value.iterator();
+        }
+
+        @Override
+        public Object get(int index) {
+            if (index != position) {
+                return ((List<?>) value).get(index);
+            }
+            return next();
+        }
+
+        @Override
+        public int size() {
+            return value.size();
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return new Iterator<Object>() {
+
+                @Override
+                public boolean hasNext() {
+                    return position - offset < batch.size() || hasPending || iterator.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return Batches.this.next();
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        private Object next() {
+            if (position - offset == batch.size()) {
+                try {
+                    nextBatch();
+                } catch (IOException e) {
+                    throw new PreparationException(e);
+                }
+            }
+            return batch.get(position++ - offset);
+        }
+
+        private void nextBatch() throws IOException {
+            close();
+            offset = position;
+            batch.clear();
+            beans.clear();
+            BatchBeanSerializerAdvice[] batchAdvices = null;
+            Class<?> resolvedClass = null;
+            while (batch.size() < MAX_BATCH_SIZE && (hasPending || iterator.hasNext())) {
+                Object element = hasPending ? pending : iterator.next();
+                if (element != null && element.getClass() != resolvedClass) {
+                    BatchBeanSerializerAdvice[] elementAdvices = resolveAdvices(element.getClass(), provider);
+                    if (batchAdvices != null && !Arrays.equals(elementAdvices, batchAdvices)) {
+                        pending = element;
+                        hasPending = true;
+                        break;
+                    }
+                    batchAdvices = elementAdvices;
+                    resolvedClass = element.getClass();
+                }
+                hasPending = false;
+                pending = null;
+                batch.add(element);
+                if (element != null) {
+                    beans.add(element);
+                }
+            }
+            if (batchAdvices != null && batchAdvices.length != 0) {
+                previous = prepare(batchAdvices, beans, provider);
+                advices = batchAdvices;
+            }
+        }
+
+        /**
+         * Restores values prepared for the enclosing collection (if any).
+         */
+        private void close() {
+            if (advices != null) {
+                restore(advices, previous, provider);
+                advices = null;
+            }
+        }
+    }
+
+    /**
+     * Carrier of the {@link BatchBeanSerializerAdvice#prepare(Collection, SerializerProvider)} failure through
+     * {@link Iterator#next()}.
+     */
+    private static final class PreparationException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private PreparationException(IOException cause) {
+            super(cause);
+        }
+    }
+
+}
@@ -29,6 +29,12 @@ public interface BeanDeserializerAdvice<T> {
     void before(T bean, JsonParser json, DeserializationContext context) throws IOException;
 
     /**
+     * Called (in between before and after) for each property of the bean. In case of bean created through
+     * property-based creator, values of the (non-creator) properties preceding the creation are kept aside and
+     * passed here right after before (creator properties themselves are consumed by the creator and so never
+     * intercepted, see {@link CreatorBeanDeserializerAdvice}). Nothing is kept aside if advice doesn't override this
+     * method. Implement {@link SelectiveBeanDeserializerAdvice} to limit buffering to the properties that are
+     * actually intercepted.
      * @param bean bean instance
      * @param propertyName bean property name
      * @param json json parser
@@ -0,0 +1,433 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ordered composition of {@link BeanDeserializerAdvice}s (see {@link BeanSerializerAdviceChain} for the details).
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+@SuppressWarnings("unchecked")
+public final class BeanDeserializerAdviceChain implements IndexedBeanDeserializerAdvice<Object>,
+        ContextualBeanDeserializerAdvice<Object>, CreatorBeanDeserializerAdvice<Object>,
+        SelectiveBeanDeserializerAdvice<Object>, LazyBeanDeserializerAdvice<Object> {
+
+    private static final Class<?>[] BEAN_HOOK_PARAMETER_TYPES =
+        {Object.class, JsonParser.class, DeserializationContext.class};
+    private static final Class<?>[] PROPERTY_HOOK_PARAMETER_TYPES =
+        {Object.class, String.class, JsonParser.class, DeserializationContext.class};
+    private static final Class<?>[] INDEXED_PROPERTY_HOOK_PARAMETER_TYPES =
+        {Object.class, int.class, String.class, JsonParser.class, DeserializationContext.class};
+    private static final Class<?>[] CREATION_HOOK_PARAMETER_TYPES =
+        {CreatorParameters.class, JsonParser.class, DeserializationContext.class};
+    private static final Class<?>[] CREATION_PROPERTY_HOOK_PARAMETER_TYPES =
+        {CreatorParameters.class, String.class, JsonParser.class, DeserializationContext.class};
+
+    private final IndexedBeanDeserializerAdvice[] indexedAdvices;
+    private final ContextualBeanDeserializerAdvice[] contextualAdvices;
+    private final BeanDeserializerAdvice[] before;
+    private final BeanDeserializerAdvice[] intercept;
+    private final BeanDeserializerAdvice[] after;
+    // interceptIndexedIndexed[i] is either interceptIndexed[i] or null (if plain hook should be called)
+    private final BeanDeserializerAdvice[] interceptIndexed;
+    private final IndexedBeanDeserializerAdvice[] interceptIndexedIndexed;
+    // interceptIndexedPrimitive[i] is either interceptIndexed[i] or null (if it has no typed hooks)
+    private final PrimitiveBeanDeserializerAdvice[] interceptIndexedPrimitive;
+    private final boolean hasPrimitiveAdvices;
+    // interceptNames[i] holds names declared by intercept[i] (null if it's not a SelectiveBeanDeserializerAdvice)
+    private final Set<String>[] interceptNames;
+    private final Set<String>[] interceptIndexedNames;
+    // interceptIndexedMasks[i][j] tells whether interceptIndexed[i] has declared property with index j
+    private final boolean[][] interceptIndexedMasks;
+    private final String[] lazyPropertyNames;
+    private final CreatorBeanDeserializerAdvice[] beforeCreation;
+    private final CreatorBeanDeserializerAdvice[] interceptBeforeCreation;
+    // timers[i] corresponds to the advice at [i] of the respective hook array
+    private final SamplingAdviceTimer[] beforeTimers;
+    private final SamplingAdviceTimer[] interceptTimers;
+    private final SamplingAdviceTimer[] afterTimers;
+    private final SamplingAdviceTimer[] interceptIndexedTimers;
+    private final SamplingAdviceTimer[] beforeCreationTimers;
+    private final SamplingAdviceTimer[] interceptBeforeCreationTimers;
+
+    private BeanDeserializerAdviceChain(List<BeanDeserializerAdvice> advices, AdviceMetrics metrics) {
+        List<BeanDeserializerAdvice> reversedAdvices = new ArrayList<BeanDeserializerAdvice>(advices);
+        Collections.reverse(reversedAdvices);
+        List<IndexedBeanDeserializerAdvice> indexed = new ArrayList<IndexedBeanDeserializerAdvice>();
+        List<ContextualBeanDeserializerAdvice> contextual = new ArrayList<ContextualBeanDeserializerAdvice>();
+        List<BeanDeserializerAdvice> interceptIndexedList = new ArrayList<BeanDeserializerAdvice>();
+        for (BeanDeserializerAdvice advice : advices) {
+            if (advice instanceof ContextualBeanDeserializerAdvice) {
+                contextual.add((ContextualBeanDeserializerAdvice) advice);
+            }
+            boolean overrides;
+            if (advice instanceof IndexedBeanDeserializerAdvice) {
+                indexed.add((IndexedBeanDeserializerAdvice) advice);
+                // typed hooks are not introspected
+                overrides = advice instanceof PrimitiveBeanDeserializerAdvice || AdviceIntrospector.overrides(
+                    advice.getClass(), AbstractIndexedBeanDeserializerAdvice.class, "intercept",
+                    INDEXED_PROPERTY_HOOK_PARAMETER_TYPES);
+            } else {
+                overrides = AdviceIntrospector.overrides(advice.getClass(), AbstractBeanDeserializerAdvice.class,
+                    "intercept", PROPERTY_HOOK_PARAMETER_TYPES);
+            }
+            if (overrides) {
+                interceptIndexedList.add(advice);
+            }
+        }
+        this.indexedAdvices = indexed.toArray(new IndexedBeanDeserializerAdvice[indexed.size()]);
+        this.contextualAdvices = contextual.toArray(new ContextualBeanDeserializerAdvice[contextual.size()]);
+        this.before = select(advices, "before", BEAN_HOOK_PARAMETER_TYPES);
+        this.intercept = select(advices, "intercept", PROPERTY_HOOK_PARAMETER_TYPES);
+        this.after = select(reversedAdvices, "after", BEAN_HOOK_PARAMETER_TYPES);
+        this.interceptIndexed = interceptIndexedList.toArray(new BeanDeserializerAdvice[interceptIndexedList.size()]);
+        this.interceptIndexedIndexed = new IndexedBeanDeserializerAdvice[interceptIndexed.length];
+        this.interceptIndexedPrimitive = new PrimitiveBeanDeserializerAdvice[interceptIndexed.length];
+        boolean anyPrimitive = false;
+        for (int i = 0; i < interceptIndexed.length; i++) {
+            if (interceptIndexed[i] instanceof IndexedBeanDeserializerAdvice) {
+                interceptIndexedIndexed[i] = (IndexedBeanDeserializerAdvice) interceptIndexed[i];
+            }
+            if (interceptIndexed[i] instanceof PrimitiveBeanDeserializerAdvice) {
+                interceptIndexedPrimitive[i] = (PrimitiveBeanDeserializerAdvice) interceptIndexed[i];
+                anyPrimitive = true;
+            }
+        }
+        this.hasPrimitiveAdvices = anyPrimitive;
+        this.interceptNames = interceptedNames(intercept);
+        this.interceptIndexedNames = interceptedNames(interceptIndexed);
+        this.interceptIndexedMasks = new boolean[interceptIndexed.length][];
+        this.lazyPropertyNames = lazyPropertyNames(advices);
+        this.beforeCreation = selectCreator(advices, "beforeCreation", CREATION_HOOK_PARAMETER_TYPES);
+        this.interceptBeforeCreation = selectCreator(advices, "interceptBeforeCreation",
+            CREATION_PROPERTY_HOOK_PARAMETER_TYPES);
+        this.beforeTimers = timers(metrics, before, AdviceHook.DESERIALIZATION_BEAN);
+        this.interceptTimers = timers(metrics, intercept, AdviceHook.DESERIALIZATION_PROPERTY);
+        this.afterTimers = timers(metrics, after, AdviceHook.DESERIALIZATION_BEAN);
+        this.interceptIndexedTimers = timers(metrics, interceptIndexed, AdviceHook.DESERIALIZATION_PROPERTY);
+        this.beforeCreationTimers = timers(metrics, beforeCreation, AdviceHook.DESERIALIZATION_BEAN);
+        this.interceptBeforeCreationTimers = timers(metrics, interceptBeforeCreation,
+            AdviceHook.DESERIALIZATION_PROPERTY);
+    }
+
+    /**
+     * @param adviceClasses advice classes (in the order advices should be applied)
+     * @return either advice itself (if there is only one) or a chain of advices
+     */
+    public static BeanDeserializerAdvice compose(List<Class<? extends BeanDeserializerAdvice>> adviceClasses) {
+        return compose(adviceClasses, null);
+    }
+
+    /**
+     * @param adviceClasses advice classes (in the order advices should be applied)
+     * @param metrics metrics to report to (null if advices should not be instrumented)
+     * @return either advice itself (if there is only one and metrics are not required) or a chain of advices
+     */
+    public static BeanDeserializerAdvice compose(List<Class<? extends BeanDeserializerAdvice>> adviceClasses,
+            AdviceMetrics metrics) {
+        // fresh factory, so that advices are not shared
+        return compose(adviceClasses, new CachingAdviceFactory(), metrics);
+    }
+
+    /**
+     * @param adviceClasses advice classes (in the order advices should be applied)
+     * @param adviceFactory factory to obtain advices from
+     * @param metrics metrics to report to (null if advices should not be instrumented)
+     * @return either advice itself (if there is only one and metrics are not required) or a chain of advices
+     */
+    public static BeanDeserializerAdvice compose(List<Class<? extends BeanDeserializerAdvice>> adviceClasses,
+            AdviceFactory adviceFactory, AdviceMetrics metrics) {
+        List<BeanDeserializerAdvice> advices = new ArrayList<BeanDeserializerAdvice>(adviceClasses.size());
+        for (Class<? extends BeanDeserializerAdvice> adviceClass : adviceClasses) {
+            advices.add(adviceFactory.getAdvice(adviceClass));
+        }
+        return advices.size() == 1 && metrics == null ? advices.get(0) :
+            new BeanDeserializerAdviceChain(advices, metrics);
+    }
+
+    private static BeanDeserializerAdvice[] select(List<BeanDeserializerAdvice> advices, String methodName,
+            Class<?>[] parameterTypes) {
+        List<BeanDeserializerAdvice> result = new ArrayList<BeanDeserializerAdvice>();
+        for (BeanDeserializerAdvice advice : advices) {
+            if (AdviceIntrospector.overrides(advice.getClass(), AbstractBeanDeserializerAdvice.class, methodName,
+                    parameterTypes)) {
+                result.add(advice);
+            }
+        }
+        return result.toArray(new BeanDeserializerAdvice[result.size()]);
+    }
+
+    private static Set<String>[] interceptedNames(BeanDeserializerAdvice[] advices) {
+        Set<String>[] result = new Set[advices.length];
+        for (int i = 0; i < advices.length; i++) {
+            String[] names = advices[i] instanceof SelectiveBeanDeserializerAdvice ?
+                ((SelectiveBeanDeserializerAdvice) advices[i]).getInterceptedPropertyNames() : null;
+            if (names != null) {
+                result[i] = new HashSet<String>(Arrays.asList(names));
+            }
+        }
+        return result;
+    }
+
+    private static String[] lazyPropertyNames(List<BeanDeserializerAdvice> advices) {
+        Set<String> result = new LinkedHashSet<String>();
+        for (BeanDeserializerAdvice advice : advices) {
+            if (advice instanceof LazyBeanDeserializerAdvice) {
+                result.addAll(Arrays.asList(((LazyBeanDeserializerAdvice) advice).getLazyPropertyNames()));
+            }
+        }
+        return result.toArray(new String[result.size()]);
+    }
+
+    private static CreatorBeanDeserializerAdvice[] selectCreator(List<BeanDeserializerAdvice> advices,
+            String methodName, Class<?>[] parameterTypes) {
+        List<CreatorBeanDeserializerAdvice> result = new ArrayList<CreatorBeanDeserializerAdvice>();
+        for (BeanDeserializerAdvice advice : advices) {
+            if (advice instanceof CreatorBeanDeserializerAdvice && AdviceIntrospector.overrides(advice.getClass(),
+                    AbstractCreatorBeanDeserializerAdvice.class, methodName, parameterTypes)) {
+                result.add((CreatorBeanDeserializerAdvice) advice);
+            }
+        }
+        return result.toArray(new CreatorBeanDeserializerAdvice[result.size()]);
+    }
+
+    /**
+     * @return timers (one per advice), null if metrics are not required
+     */
+    private static SamplingAdviceTimer[] timers(AdviceMetrics metrics, BeanDeserializerAdvice[] advices,
+            AdviceHook hook) {
+        if (metrics == null) {
+            return null;
+        }
+        SamplingAdviceTimer[] result = new SamplingAdviceTimer[advices.length];
+        for (int i = 0; i < advices.length; i++) {
+            result[i] = new SamplingAdviceTimer(metrics.timer(advices[i].getClass(), hook),
+                metrics.getSamplingInterval());
+        }
+        return result;
+    }
+
+    /**
+     * @return true if at least one of the advices implements {@link CreatorBeanDeserializerAdvice} hooks, false
+     * otherwise
+     */
+    boolean hasCreatorAdvices() {
+        return beforeCreation.length != 0 || interceptBeforeCreation.length != 0;
+    }
+
+    /**
+     * @return true if at least one of the advices overrides intercept, false otherwise
+     */
+    boolean hasPropertyAdvices() {
+        return intercept.length != 0 || interceptIndexed.length != 0;
+    }
+
+    @Override
+    public void resolve(PropertyIndex propertyIndex) {
+        for (int i = 0; i < interceptIndexed.length; i++) {
+            if (interceptIndexedNames[i] != null) {
+                boolean[] mask = new boolean[propertyIndex.size()];
+                for (int j = 0; j < mask.length; j++) {
+                    mask[j] = interceptIndexedNames[i].contains(propertyIndex.nameOf(j));
+                }
+                interceptIndexedMasks[i] = mask;
+            }
+        }
+        for (IndexedBeanDeserializerAdvice advice : indexedAdvices) {
+            advice.resolve(propertyIndex);
+        }
+    }
+
+    /**
+     * @return union of the names declared by the (intercepting) members, null if at least one of them is not a
+     * {@link SelectiveBeanDeserializerAdvice} (or returns null)
+     */
+    @Override
+    public String[] getInterceptedPropertyNames() {
+        Set<String> result = new LinkedHashSet<String>();
+        for (Set<String>[] names : new Set[][] {interceptNames, interceptIndexedNames}) {
+            for (Set<String> adviceNames : names) {
+                if (adviceNames == null) {
+                    return null;
+                }
+                result.addAll(adviceNames);
+            }
+        }
+        return result.toArray(new String[result.size()]);
+    }
+
+    /**
+     * @return union of the names declared by the {@link LazyBeanDeserializerAdvice} members
+     */
+    @Override
+    public String[] getLazyPropertyNames() {
+        return lazyPropertyNames.clone();
+    }
+
+    @Override
+    public void enter() {
+        for (ContextualBeanDeserializerAdvice advice : contextualAdvices) {
+            advice.enter();
+        }
+    }
+
+    @Override
+    public void exit() {
+        for (int i = contextualAdvices.length - 1; i > -1; i--) {
+            contextualAdvices[i].exit();
+        }
+    }
+
+    @Override
+    public void before(Object bean, JsonParser json, DeserializationContext context) throws IOException {
+        for (int i = 0; i < before.length; i++) {
+            if (beforeTimers == null || !beforeTimers[i].sample()) {
+                before[i].before(bean, json, context);
+            } else {
+                long start = System.nanoTime();
+                before[i].before(bean, json, context);
+                beforeTimers[i].record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    @Override
+    public boolean intercept(Object bean, String propertyName, JsonParser json, DeserializationContext context)
+            throws IOException {
+        for (int i = 0; i < intercept.length; i++) {
+            if (interceptNames[i] != null && !interceptNames[i].contains(propertyName)) {
+                continue;
+            }
+            boolean intercepted;
+            if (interceptTimers == null || !interceptTimers[i].sample()) {
+                intercepted = intercept[i].intercept(bean, propertyName, json, context);
+            } else {
+                long start = System.nanoTime();
+                intercepted = intercept[i].intercept(bean, propertyName, json, context);
+                interceptTimers[i].record(System.nanoTime() - start);
+            }
+            if (intercepted) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean intercept(Object bean, int propertyIndex, String propertyName, JsonParser json,
+            DeserializationContext context) throws IOException {
+        // members with typed hooks get scalar values of the known properties already decoded
+        boolean primitive = hasPrimitiveAdvices && propertyIndex > -1 && PrimitiveIntercepts.supports(json);
+        for (int i = 0; i < interceptIndexed.length; i++) {
+            if (interceptIndexedNames[i] != null && !isDeclared(i, propertyIndex, propertyName)) {
+                continue;
+            }
+            IndexedBeanDeserializerAdvice indexedAdvice = interceptIndexedIndexed[i];
+            PrimitiveBeanDeserializerAdvice primitiveAdvice = primitive ? interceptIndexedPrimitive[i] : null;
+            boolean intercepted;
+            if (interceptIndexedTimers == null || !interceptIndexedTimers[i].sample()) {
+                intercepted = primitiveAdvice != null ?
+                    PrimitiveIntercepts.intercept(primitiveAdvice, bean, propertyIndex, json) :
+                    indexedAdvice != null ?
+                    indexedAdvice.intercept(bean, propertyIndex, propertyName, json, context) :
+                    interceptIndexed[i].intercept(bean, propertyName, json, context);
+            } else {
+                long start = System.nanoTime();
+                intercepted = primitiveAdvice != null ?
+                    PrimitiveIntercepts.intercept(primitiveAdvice, bean, propertyIndex, json) :
+                    indexedAdvice != null ?
+                    indexedAdvice.intercept(bean, propertyIndex, propertyName, json, context) :
+                    interceptIndexed[i].intercept(bean, propertyName, json, context);
+                interceptIndexedTimers[i].record(System.nanoTime() - start);
+            }
+            if (intercepted) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void beforeCreation(CreatorParameters parameters, JsonParser json, DeserializationContext context)
+            throws IOException {
+        for (int i = 0; i < beforeCreation.length; i++) {
+            if (beforeCreationTimers == null || !beforeCreationTimers[i].sample()) {
+                beforeCreation[i].beforeCreation(parameters, json, context);
+            } else {
+                long start = System.nanoTime();
+                beforeCreation[i].beforeCreation(parameters, json, context);
+                beforeCreationTimers[i].record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    @Override
+    public boolean interceptBeforeCreation(CreatorParameters parameters, String propertyName, JsonParser json,
+            DeserializationContext context) throws IOException {
+        for (int i = 0; i < interceptBeforeCreation.length; i++) {
+            boolean intercepted;
+            if (interceptBeforeCreationTimers == null || !interceptBeforeCreationTimers[i].sample()) {
+                intercepted = interceptBeforeCreation[i].interceptBeforeCreation(parameters, propertyName, json,
+                    context);
+            } else {
+                long start = System.nanoTime();
+                intercepted = interceptBeforeCreation[i].interceptBeforeCreation(parameters, propertyName, json,
+                    context);
+                interceptBeforeCreationTimers[i].record(System.nanoTime() - start);
+            }
+            if (intercepted) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if property has been declared by the (selective) interceptIndexed[adviceIndex], false otherwise
+     */
+    private boolean isDeclared(int adviceIndex, int propertyIndex, String propertyName) {
+        boolean[] mask = interceptIndexedMasks[adviceIndex];
+        if (mask != null && propertyIndex > -1 && propertyIndex < mask.length) {
+            return mask[propertyIndex];
+        }
+        return interceptIndexedNames[adviceIndex].contains(propertyName);
+    }
+
+    @Override
+    public void after(Object bean, JsonParser json, DeserializationContext context) throws IOException {
+        for (int i = 0; i < after.length; i++) {
+            if (afterTimers == null || !afterTimers[i].sample()) {
+                after[i].after(bean, json, context);
+            } else {
+                long start = System.nanoTime();
+                after[i].after(bean, json, context);
+                afterTimers[i].record(System.nanoTime() - start);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,552 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ordered composition of {@link BeanSerializerAdvice}s. Each hook is backed by a flat array containing only
+ * the advices which actually override it (so that advices not interested in, say, property-scoped hooks cost
+ * nothing while serializing properties).
+ * <p>
+ * "before" hooks are called in the declaration order, "after" hooks - in the reverse one (so that first advice
+ * "wraps" the rest). First advice returning true from "intercept" hook wins (rest are not called).
+ * <p>
+ * Chain is an {@link IndexedBeanSerializerAdvice}: indexed advices get their indexed hooks called (when chain is used
+ * as a type-level advice), the rest get the plain ones.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+@SuppressWarnings("unchecked")
+public final class BeanSerializerAdviceChain implements IndexedBeanSerializerAdvice<Object>,
+        ContextualBeanSerializerAdvice<Object>, FieldInjectingBeanSerializerAdvice<Object>,
+        VirtualPropertyBeanSerializerAdvice<Object> {
+
+    private static final Class<?>[] BEAN_HOOK_PARAMETER_TYPES =
+        {Object.class, JsonGenerator.class, SerializerProvider.class};
+    private static final Class<?>[] PROPERTY_HOOK_PARAMETER_TYPES =
+        {Object.class, JsonGenerator.class, BeanProperty.class, SerializerProvider.class};
+    private static final Class<?>[] INDEXED_PROPERTY_HOOK_PARAMETER_TYPES =
+        {Object.class, JsonGenerator.class, int.class, BeanProperty.class, SerializerProvider.class};
+
+    private final IndexedBeanSerializerAdvice[] indexedAdvices;
+    private final ContextualBeanSerializerAdvice[] contextualAdvices;
+    private final FieldInjectingBeanSerializerAdvice[] fieldInjectingAdvices;
+    private final VirtualPropertyBeanSerializerAdvice[] virtualPropertyAdvices;
+    private final BeanSerializerAdvice[] beforeBean;
+    private final BeanSerializerAdvice[] interceptBean;
+    private final BeanSerializerAdvice[] afterBean;
+    private final BeanSerializerAdvice[] beforeProperty;
+    private final BeanSerializerAdvice[] interceptProperty;
+    private final BeanSerializerAdvice[] afterProperty;
+    // indexed variants of the property-scoped hooks (*Indexed[i] is either the same advice as *[i] or null if plain
+    // hook should be called)
+    private final BeanSerializerAdvice[] beforeIndexedProperty;
+    private final IndexedBeanSerializerAdvice[] beforeIndexedPropertyIndexed;
+    private final BeanSerializerAdvice[] interceptIndexedProperty;
+    private final IndexedBeanSerializerAdvice[] interceptIndexedPropertyIndexed;
+    private final BeanSerializerAdvice[] afterIndexedProperty;
+    private final IndexedBeanSerializerAdvice[] afterIndexedPropertyIndexed;
+    // timers[i] corresponds to the advice at [i] of the respective hook array
+    private final SamplingAdviceTimer[] beforeBeanTimers;
+    private final SamplingAdviceTimer[] interceptBeanTimers;
+    private final SamplingAdviceTimer[] afterBeanTimers;
+    private final SamplingAdviceTimer[] beforePropertyTimers;
+    private final SamplingAdviceTimer[] interceptPropertyTimers;
+    private final SamplingAdviceTimer[] afterPropertyTimers;
+    private final SamplingAdviceTimer[] beforeIndexedPropertyTimers;
+    private final SamplingAdviceTimer[] interceptIndexedPropertyTimers;
+    private final SamplingAdviceTimer[] afterIndexedPropertyTimers;
+    private final BatchBeanSerializerAdvice[] batchAdvices;
+    // chain over the advices returned by contextual advices' enter() (one per nesting level, see #enter())
+    private final AdviceContextPool<Binding> bindings = new AdviceContextPool<Binding>() {
+
+        @Override
+        protected Binding newContext() {
+            return new Binding(contextualAdvices.length);
+        }
+    };
+
+    private BeanSerializerAdviceChain(List<BeanSerializerAdvice> advices, AdviceMetrics metrics) {
+        List<BeanSerializerAdvice> reversedAdvices = new ArrayList<BeanSerializerAdvice>(advices);
+        Collections.reverse(reversedAdvices);
+        List<IndexedBeanSerializerAdvice> indexed = new ArrayList<IndexedBeanSerializerAdvice>();
+        List<ContextualBeanSerializerAdvice> contextual = new ArrayList<ContextualBeanSerializerAdvice>();
+        List<BatchBeanSerializerAdvice> batch = new ArrayList<BatchBeanSerializerAdvice>();
+        List<FieldInjectingBeanSerializerAdvice> fieldInjecting = new ArrayList<FieldInjectingBeanSerializerAdvice>();
+        List<VirtualPropertyBeanSerializerAdvice> virtual = new ArrayList<VirtualPropertyBeanSerializerAdvice>();
+        for (BeanSerializerAdvice advice : advices) {
+            if (advice instanceof VirtualPropertyBeanSerializerAdvice) {
+                virtual.add((VirtualPropertyBeanSerializerAdvice) advice);
+            }
+            if (advice instanceof FieldInjectingBeanSerializerAdvice) {
+                fieldInjecting.add((FieldInjectingBeanSerializerAdvice) advice);
+            }
+            if (advice instanceof BatchBeanSerializerAdvice) {
+                batch.add((BatchBeanSerializerAdvice) advice);
+            }
+            if (advice instanceof IndexedBeanSerializerAdvice) {
+                indexed.add((IndexedBeanSerializerAdvice) advice);
+            }
+            if (advice instanceof ContextualBeanSerializerAdvice) {
+                contextual.add((ContextualBeanSerializerAdvice) advice);
+            }
+        }
+        this.indexedAdvices = indexed.toArray(new IndexedBeanSerializerAdvice[indexed.size()]);
+        this.contextualAdvices = contextual.toArray(new ContextualBeanSerializerAdvice[contextual.size()]);
+        this.fieldInjectingAdvices =
+            fieldInjecting.toArray(new FieldInjectingBeanSerializerAdvice[fieldInjecting.size()]);
+        this.virtualPropertyAdvices = virtual.toArray(new VirtualPropertyBeanSerializerAdvice[virtual.size()]);
+        this.beforeBean = select(advices, "before", BEAN_HOOK_PARAMETER_TYPES);
+        this.interceptBean = select(advices, "intercept", BEAN_HOOK_PARAMETER_TYPES);
+        this.afterBean = select(reversedAdvices, "after", BEAN_HOOK_PARAMETER_TYPES);
+        this.beforeProperty = select(advices, "before", PROPERTY_HOOK_PARAMETER_TYPES);
+        this.interceptProperty = select(advices, "intercept", PROPERTY_HOOK_PARAMETER_TYPES);
+        this.afterProperty = select(reversedAdvices, "after", PROPERTY_HOOK_PARAMETER_TYPES);
+        this.beforeIndexedProperty = selectIndexed(advices, "before");
+        this.beforeIndexedPropertyIndexed = asIndexed(beforeIndexedProperty);
+        this.interceptIndexedProperty = selectIndexed(advices, "intercept");
+        this.interceptIndexedPropertyIndexed = asIndexed(interceptIndexedProperty);
+        this.afterIndexedProperty = selectIndexed(reversedAdvices, "after");
+        this.afterIndexedPropertyIndexed = asIndexed(afterIndexedProperty);
+        this.batchAdvices = batch.toArray(new BatchBeanSerializerAdvice[batch.size()]);
+        this.beforeBeanTimers = timers(metrics, beforeBean, AdviceHook.SERIALIZATION_BEAN);
+        this.interceptBeanTimers = timers(metrics, interceptBean, AdviceHook.SERIALIZATION_BEAN);
+        this.afterBeanTimers = timers(metrics, afterBean, AdviceHook.SERIALIZATION_BEAN);
+        this.beforePropertyTimers = timers(metrics, beforeProperty, AdviceHook.SERIALIZATION_PROPERTY);
+        this.interceptPropertyTimers = timers(metrics, interceptProperty, AdviceHook.SERIALIZATION_PROPERTY);
+        this.afterPropertyTimers = timers(metrics, afterProperty, AdviceHook.SERIALIZATION_PROPERTY);
+        this.beforeIndexedPropertyTimers = timers(metrics, beforeIndexedProperty, AdviceHook.SERIALIZATION_PROPERTY);
+        this.interceptIndexedPropertyTimers = timers(metrics, interceptIndexedProperty,
+            AdviceHook.SERIALIZATION_PROPERTY);
+        this.afterIndexedPropertyTimers = timers(metrics, afterIndexedProperty, AdviceHook.SERIALIZATION_PROPERTY);
+    }
+
+    /**
+     * Copy of the chain with {@code from[i]} advices replaced by {@code to[i]} (timers are shared).
+     */
+    private BeanSerializerAdviceChain(BeanSerializerAdviceChain chain, BeanSerializerAdvice[] from,
+            BeanSerializerAdvice[] to) {
+        this.indexedAdvices = substitute(chain.indexedAdvices, from, to);
+        this.contextualAdvices = substitute(chain.contextualAdvices, from, to);
+        this.fieldInjectingAdvices = substitute(chain.fieldInjectingAdvices, from, to);
+        this.virtualPropertyAdvices = substitute(chain.virtualPropertyAdvices, from, to);
+        this.beforeBean = substitute(chain.beforeBean, from, to);
+        this.interceptBean = substitute(chain.interceptBean, from, to);
+        this.afterBean = substitute(chain.afterBean, from, to);
+        this.beforeProperty = substitute(chain.beforeProperty, from, to);
+        this.interceptProperty = substitute(chain.interceptProperty, from, to);
+        this.afterProperty = substitute(chain.afterProperty, from, to);
+        this.beforeIndexedProperty = substitute(chain.beforeIndexedProperty, from, to);
+        this.beforeIndexedPropertyIndexed = substitute(chain.beforeIndexedPropertyIndexed, from, to);
+        this.interceptIndexedProperty = substitute(chain.interceptIndexedProperty, from, to);
+        this.interceptIndexedPropertyIndexed = substitute(chain.interceptIndexedPropertyIndexed, from, to);
+        this.afterIndexedProperty = substitute(chain.afterIndexedProperty, from, to);
+        this.afterIndexedPropertyIndexed = substitute(chain.afterIndexedPropertyIndexed, from, to);
+        this.batchAdvices = substitute(chain.batchAdvices, from, to);
+        this.beforeBeanTimers = chain.beforeBeanTimers;
+        this.interceptBeanTimers = chain.interceptBeanTimers;
+        this.afterBeanTimers = chain.afterBeanTimers;
+        this.beforePropertyTimers = chain.beforePropertyTimers;
+        this.interceptPropertyTimers = chain.interceptPropertyTimers;
+        this.afterPropertyTimers = chain.afterPropertyTimers;
+        this.beforeIndexedPropertyTimers = chain.beforeIndexedPropertyTimers;
+        this.interceptIndexedPropertyTimers = chain.interceptIndexedPropertyTimers;
+        this.afterIndexedPropertyTimers = chain.afterIndexedPropertyTimers;
+    }
+
+    /**
+     * @param adviceClasses advice classes (in the order advices should be applied)
+     * @return either advice itself (if there is only one) or a chain of advices
+     */
+    public static BeanSerializerAdvice compose(List<Class<? extends BeanSerializerAdvice>> adviceClasses) {
+        return compose(adviceClasses, null);
+    }
+
+    /**
+     * @param adviceClasses advice classes (in the order advices should be applied)
+     * @param metrics metrics to report to (null if advices should not be instrumented)
+     * @return either advice itself (if there is only one and metrics are not required) or a chain of advices
+     */
+    public static BeanSerializerAdvice compose(List<Class<? extends BeanSerializerAdvice>> adviceClasses,
+            AdviceMetrics metrics) {
+        // fresh factory, so that advices are not shared
+        return compose(adviceClasses, new CachingAdviceFactory(), metrics);
+    }
+
+    /**
+     * @param adviceClasses advice classes (in the order advices should be applied)
+     * @param adviceFactory factory to obtain advices from
+     * @param metrics metrics to report to (null if advices should not be instrumented)
+     * @return either advice itself (if there is only one and metrics are not required) or a chain of advices
+     */
+    public static BeanSerializerAdvice compose(List<Class<? extends BeanSerializerAdvice>> adviceClasses,
+            AdviceFactory adviceFactory, AdviceMetrics metrics) {
+        List<BeanSerializerAdvice> advices = new ArrayList<BeanSerializerAdvice>(adviceClasses.size());
+        for (Class<? extends BeanSerializerAdvice> adviceClass : adviceClasses) {
+            advices.add(adviceFactory.getAdvice(adviceClass));
+        }
+        return advices.size() == 1 && metrics == null ? advices.get(0) :
+            new BeanSerializerAdviceChain(advices, metrics);
+    }
+
+    private static BeanSerializerAdvice[] select(List<BeanSerializerAdvice> advices, String methodName,
+            Class<?>[] parameterTypes) {
+        List<BeanSerializerAdvice> result = new ArrayList<BeanSerializerAdvice>();
+        for (BeanSerializerAdvice advice : advices) {
+            if (AdviceIntrospector.overrides(advice.getClass(), AbstractBeanSerializerAdvice.class, methodName,
+                    parameterTypes)) {
+                result.add(advice);
+            }
+        }
+        return result.toArray(new BeanSerializerAdvice[result.size()]);
+    }
+
+    private static BeanSerializerAdvice[] selectIndexed(List<BeanSerializerAdvice> advices, String methodName) {
+        List<BeanSerializerAdvice> result = new ArrayList<BeanSerializerAdvice>();
+        for (BeanSerializerAdvice advice : advices) {
+            boolean overrides = advice instanceof IndexedBeanSerializerAdvice ?
+                AdviceIntrospector.overrides(advice.getClass(), AbstractIndexedBeanSerializerAdvice.class,
+                    methodName, INDEXED_PROPERTY_HOOK_PARAMETER_TYPES) :
+                AdviceIntrospector.overrides(advice.getClass(), AbstractBeanSerializerAdvice.class,
+                    methodName, PROPERTY_HOOK_PARAMETER_TYPES);
+            if (overrides) {
+                result.add(advice);
+            }
+        }
+        return result.toArray(new BeanSerializerAdvice[result.size()]);
+    }
+
+    /**
+     * @return timers (one per advice), null if metrics are not required
+     */
+    private static SamplingAdviceTimer[] timers(AdviceMetrics metrics, BeanSerializerAdvice[] advices,
+            AdviceHook hook) {
+        if (metrics == null) {
+            return null;
+        }
+        SamplingAdviceTimer[] result = new SamplingAdviceTimer[advices.length];
+        for (int i = 0; i < advices.length; i++) {
+            result[i] = new SamplingAdviceTimer(metrics.timer(advices[i].getClass(), hook),
+                metrics.getSamplingInterval());
+        }
+        return result;
+    }
+
+    private static <A> A[] substitute(A[] advices, Object[] from, Object[] to) {
+        A[] result = advices.clone();
+        for (int i = 0; i < result.length; i++) {
+            for (int j = 0; j < from.length; j++) {
+                if (result[i] == from[j]) {
+                    result[i] = (A) to[j];
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static IndexedBeanSerializerAdvice[] asIndexed(BeanSerializerAdvice[] advices) {
+        IndexedBeanSerializerAdvice[] result = new IndexedBeanSerializerAdvice[advices.length];
+        for (int i = 0; i < advices.length; i++) {
+            if (advices[i] instanceof IndexedBeanSerializerAdvice) {
+                result[i] = (IndexedBeanSerializerAdvice) advices[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return advices implementing {@link BatchBeanSerializerAdvice} (in the order advices are applied)
+     */
+    public BatchBeanSerializerAdvice[] getBatchAdvices() {
+        return batchAdvices.clone();
+    }
+
+    /**
+     * @return false if none of the advices overrides property-scoped hooks (the ones called when chain is used as
+     * a type-level advice), true otherwise
+     */
+    public boolean hasPropertyHooks() {
+        return beforeIndexedProperty.length != 0 || interceptIndexedProperty.length != 0 ||
+            afterIndexedProperty.length != 0;
+    }
+
+    @Override
+    public void resolve(PropertyIndex propertyIndex) {
+        for (IndexedBeanSerializerAdvice advice : indexedAdvices) {
+            advice.resolve(propertyIndex);
+        }
+    }
+
+    @Override
+    public List<VirtualProperty<Object, ?>> getVirtualProperties() {
+        List<VirtualProperty<Object, ?>> result = new ArrayList<VirtualProperty<Object, ?>>();
+        for (VirtualPropertyBeanSerializerAdvice advice : virtualPropertyAdvices) {
+            result.addAll(advice.getVirtualProperties());
+        }
+        return result;
+    }
+
+    @Override
+    public String[] getInjectedFieldNames() {
+        List<String> result = new ArrayList<String>();
+        for (FieldInjectingBeanSerializerAdvice advice : fieldInjectingAdvices) {
+            result.addAll(Arrays.asList(advice.getInjectedFieldNames()));
+        }
+        return result.toArray(new String[result.size()]);
+    }
+
+    @Override
+    public void resolve(SerializableString[] injectedFieldNames) {
+        int offset = 0;
+        for (FieldInjectingBeanSerializerAdvice advice : fieldInjectingAdvices) {
+            int length = advice.getInjectedFieldNames().length;
+            SerializableString[] fieldNames = new SerializableString[length];
+            System.arraycopy(injectedFieldNames, offset, fieldNames, 0, length);
+            advice.resolve(fieldNames);
+            offset += length;
+        }
+    }
+
+    /**
+     * @return chain over the advices returned by contextual advices' {@link ContextualBeanSerializerAdvice#enter()}
+     * (this chain if there are no contextual advices). Bound chain is cached per nesting level and rebuilt only when
+     * some of the advices returned by enter() differ from the ones it was built over
+     */
+    @Override
+    public BeanSerializerAdvice<Object> enter() {
+        if (contextualAdvices.length == 0) {
+            return this;
+        }
+        Binding binding = bindings.acquire();
+        BeanSerializerAdvice[] boundAdvices = binding.advices;
+        boolean changed = binding.chain == null;
+        for (int i = 0; i < contextualAdvices.length; i++) {
+            BeanSerializerAdvice advice = contextualAdvices[i].enter();
+            if (boundAdvices[i] != advice) {
+                boundAdvices[i] = advice;
+                changed = true;
+            }
+        }
+        if (changed) {
+            binding.chain = new BeanSerializerAdviceChain(this, contextualAdvices, boundAdvices);
+        }
+        return binding.chain;
+    }
+
+    @Override
+    public BeanSerializerAdvice<Object> current() {
+        return contextualAdvices.length == 0 ? this : bindings.current().chain;
+    }
+
+    @Override
+    public void exit() {
+        if (contextualAdvices.length == 0) {
+            return;
+        }
+        try {
+            for (int i = contextualAdvices.length - 1; i > -1; i--) {
+                contextualAdvices[i].exit();
+            }
+        } finally {
+            bindings.release();
+        }
+    }
+
+    @Override
+    public void before(Object bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+        for (int i = 0; i < beforeBean.length; i++) {
+            if (beforeBeanTimers == null || !beforeBeanTimers[i].sample()) {
+                beforeBean[i].before(bean, json, provider);
+            } else {
+                long start = System.nanoTime();
+                beforeBean[i].before(bean, json, provider);
+                beforeBeanTimers[i].record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    @Override
+    public boolean intercept(Object bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+        for (int i = 0; i < interceptBean.length; i++) {
+            boolean intercepted;
+            if (interceptBeanTimers == null || !interceptBeanTimers[i].sample()) {
+                intercepted = interceptBean[i].intercept(bean, json, provider);
+            } else {
+                long start = System.nanoTime();
+                intercepted = interceptBean[i].intercept(bean, json, provider);
+                interceptBeanTimers[i].record(System.nanoTime() - start);
+            }
+            if (intercepted) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void after(Object bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+        for (int i = 0; i < afterBean.length; i++) {
+            if (afterBeanTimers == null || !afterBeanTimers[i].sample()) {
+                afterBean[i].after(bean, json, provider);
+            } else {
+                long start = System.nanoTime();
+                afterBean[i].after(bean, json, provider);
+                afterBeanTimers[i].record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    @Override
+    public void before(Object bean, JsonGenerator json, BeanProperty property, SerializerProvider provider)
+            throws IOException {
+        for (int i = 0; i < beforeProperty.length; i++) {
+            if (beforePropertyTimers == null || !beforePropertyTimers[i].sample()) {
+                beforeProperty[i].before(bean, json, property, provider);
+            } else {
+                long start = System.nanoTime();
+                beforeProperty[i].before(bean, json, property, provider);
+                beforePropertyTimers[i].record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    @Override
+    public boolean intercept(Object bean, JsonGenerator json, BeanProperty property, SerializerProvider provider)
+            throws IOException {
+        for (int i = 0; i < interceptProperty.length; i++) {
+            boolean intercepted;
+            if (interceptPropertyTimers == null || !interceptPropertyTimers[i].sample()) {
+                intercepted = interceptProperty[i].intercept(bean, json, property, provider);
+            } else {
+                long start = System.nanoTime();
+                intercepted = interceptProperty[i].intercept(bean, json, property, provider);
+                interceptPropertyTimers[i].record(System.nanoTime() - start);
+            }
+            if (intercepted) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void after(Object bean, JsonGenerator json, BeanProperty property, SerializerProvider provider)
+            throws IOException {
+        for (int i = 0; i < afterProperty.length; i++) {
+            if (afterPropertyTimers == null || !afterPropertyTimers[i].sample()) {
+                afterProperty[i].after(bean, json, property, provider);
+            } else {
+                long start = System.nanoTime();
+                afterProperty[i].after(bean, json, property, provider);
+                afterPropertyTimers[i].record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    @Override
+    public void before(Object bean, JsonGenerator json, int propertyIndex, BeanProperty property,
+            SerializerProvider provider) throws IOException {
+        for (int i = 0; i < beforeIndexedProperty.length; i++) {
+            IndexedBeanSerializerAdvice indexedAdvice = beforeIndexedPropertyIndexed[i];
+            if (beforeIndexedPropertyTimers == null || !beforeIndexedPropertyTimers[i].sample()) {
+                if (indexedAdvice != null) {
+                    indexedAdvice.before(bean, json, propertyIndex, property, provider);
+                } else {
+                    beforeIndexedProperty[i].before(bean, json, property, provider);
+                }
+            } else {
+                long start = System.nanoTime();
+                if (indexedAdvice != null) {
+                    indexedAdvice.before(bean, json, propertyIndex, property, provider);
+                } else {
+                    beforeIndexedProperty[i].before(bean, json, property, provider);
+                }
+                beforeIndexedPropertyTimers[i].record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    @Override
+    public boolean intercept(Object bean, JsonGenerator json, int propertyIndex, BeanProperty property,
+            SerializerProvider provider) throws IOException {
+        for (int i = 0; i < interceptIndexedProperty.length; i++) {
+            IndexedBeanSerializerAdvice indexedAdvice = interceptIndexedPropertyIndexed[i];
+            boolean intercepted;
+            if (interceptIndexedPropertyTimers == null || !interceptIndexedPropertyTimers[i].sample()) {
+                intercepted = indexedAdvice != null ?
+                    indexedAdvice.intercept(bean, json, propertyIndex, property, provider) :
+                    interceptIndexedProperty[i].intercept(bean, json, property, provider);
+            } else {
+                long start = System.nanoTime();
+                intercepted = indexedAdvice != null ?
+                    indexedAdvice.intercept(bean, json, propertyIndex, property, provider) :
+                    interceptIndexedProperty[i].intercept(bean, json, property, provider);
+                interceptIndexedPropertyTimers[i].record(System.nanoTime() - start);
+            }
+            if (intercepted) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void after(Object bean, JsonGenerator json, int propertyIndex, BeanProperty property,
+            SerializerProvider provider) throws IOException {
+        for (int i = 0; i < afterIndexedProperty.length; i++) {
+            IndexedBeanSerializerAdvice indexedAdvice = afterIndexedPropertyIndexed[i];
+            if (afterIndexedPropertyTimers == null || !afterIndexedPropertyTimers[i].sample()) {
+                if (indexedAdvice != null) {
+                    indexedAdvice.after(bean, json, propertyIndex, property, provider);
+                } else {
+                    afterIndexedProperty[i].after(bean, json, property, provider);
+                }
+            } else {
+                long start = System.nanoTime();
+                if (indexedAdvice != null) {
+                    indexedAdvice.after(bean, json, propertyIndex, property, provider);
+                } else {
+                    afterIndexedProperty[i].after(bean, json, property, provider);
+                }
+                afterIndexedPropertyTimers[i].record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Chain bound to the contexts of the bean (see {@link #enter()}).
+     */
+    private static final class Binding {
+
+        private final BeanSerializerAdvice[] advices;
+        private BeanSerializerAdviceChain chain;
+
+        private Binding(int numberOfContextualAdvices) {
+            this.advices = new BeanSerializerAdvice[numberOfContextualAdvices];
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Consumer of the beans emitted (see {@link BeanStream#emit(com.fasterxml.jackson.databind.DeserializationContext,
+ * Object)}) while deserializing a collection. Called synchronously from within deserialization, which makes it
+ * naturally backpressured (parser doesn't move until the batch is consumed).
+ * @param <T> type of the beans
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public interface BeanSink<T> {
+
+    /**
+     * @param beans batch of beans (up to the batch size the sink was registered with). The list is reused (cleared)
+     * once this method returns and so it should not be retained.
+     * @throws IOException if beans cannot be consumed (deserialization is aborted)
+     */
+    void accept(List<T> beans) throws IOException;
+
+}
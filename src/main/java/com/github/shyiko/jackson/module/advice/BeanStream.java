@@ -0,0 +1,208 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming consumption of the (large) arrays of advised beans. Once a {@link BeanSink} is registered for the bean
+ * type (see {@link #withSink(ObjectReader, Class, int, BeanSink)}), {@link BeanDeserializerAdvice#after(Object,
+ * com.fasterxml.jackson.core.JsonParser, DeserializationContext)} can hand the bean over to it with
+ * {@link #emit(DeserializationContext, Object)}, in which case bean is not added to the collection being deserialized
+ * (so that memory usage stays flat regardless of the input size). Emitted beans are delivered in batches.
+ * <p/>
+ * Root-level sequences read with {@link ObjectReader#readValues(com.fasterxml.jackson.core.JsonParser)} are already
+ * streamed by {@link MappingIterator}, {@link #drain(MappingIterator, int, BeanSink)} adds batching on top of it.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public final class BeanStream {
+
+    private final BeanSink<Object> sink;
+    private final List<Object> batch;
+    private final int batchSize;
+    private final BeanStream previous;
+    /**
+     * bean marked by {@link #emit(DeserializationContext, Object)} (honored only if it turns out to be an element of
+     * the collection, as opposed to a bean nested in it)
+     */
+    private Object emitted;
+
+    private BeanStream(Registration registration, BeanStream previous) {
+        this.sink = registration.sink;
+        this.batchSize = registration.batchSize;
+        this.batch = new ArrayList<Object>(batchSize);
+        this.previous = previous;
+    }
+
+    /**
+     * @param reader object reader
+     * @param type bean type
+     * @param batchSize maximum number of beans passed to the sink at once
+     * @param sink sink emitted beans should be delivered to
+     * @param <T> bean type
+     * @return reader with the sink registered (sink is shared by all the readValue calls made with it)
+     * @throws IllegalArgumentException if batchSize is less than 1
+     */
+    public static <T> ObjectReader withSink(ObjectReader reader, Class<T> type, int batchSize,
+            BeanSink<? super T> sink) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        return reader.withAttribute(new RegistrationKey(type), new Registration(sink, batchSize));
+    }
+
+    /**
+     * Marks bean as consumed. Meant to be called from {@link BeanDeserializerAdvice#after(Object,
+     * com.fasterxml.jackson.core.JsonParser, DeserializationContext)}.
+     * @param context deserialization context
+     * @param bean bean
+     * @return true if bean is going to be handed over to the sink (and dropped from the enclosing collection),
+     * false if there is no collection with a sink registered for the type of its elements being deserialized
+     */
+    public static boolean emit(DeserializationContext context, Object bean) {
+        Object[] holder = (Object[]) context.getAttribute(BeanStream.class);
+        BeanStream stream = holder != null ? (BeanStream) holder[0] : null;
+        if (stream == null) {
+            return false;
+        }
+        stream.emitted = bean;
+        return true;
+    }
+
+    /**
+     * @param iterator iterator (e.g. the one returned by {@link ObjectReader#readValues(
+     * com.fasterxml.jackson.core.JsonParser)})
+     * @param batchSize maximum number of values passed to the sink at once
+     * @param sink sink
+     * @param <T> value type
+     * @return number of values delivered to the sink
+     * @throws IOException if anything goes wrong during json processing (or sink fails)
+     */
+    public static <T> long drain(MappingIterator<T> iterator, int batchSize, BeanSink<? super T> sink)
+            throws IOException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        List<T> batch = new ArrayList<T>(batchSize);
+        long count = 0;
+        while (iterator.hasNextValue()) {
+            batch.add(iterator.nextValue());
+            if (batch.size() == batchSize) {
+                count += deliver(batch, sink);
+            }
+        }
+        if (!batch.isEmpty()) {
+            count += deliver(batch, sink);
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> int deliver(List<T> batch, BeanSink<? super T> sink) throws IOException {
+        int size = batch.size();
+        ((BeanSink<T>) sink).accept(batch);
+        batch.clear();
+        return size;
+    }
+
+    /**
+     * @return stream of the collection about to be deserialized, null if there is no sink registered for the type
+     * of its elements
+     */
+    static BeanStream open(DeserializationContext context, Class<?> elementType) {
+        Registration registration = (Registration) context.getAttribute(new RegistrationKey(elementType));
+        if (registration == null) {
+            return null;
+        }
+        Object[] holder = (Object[]) context.getAttribute(BeanStream.class);
+        if (holder == null) {
+            context.setAttribute(BeanStream.class, holder = new Object[1]);
+        }
+        BeanStream stream = new BeanStream(registration, (BeanStream) holder[0]);
+        holder[0] = stream;
+        return stream;
+    }
+
+    /**
+     * @param element element of the collection
+     * @return true if element has been emitted (in which case it's taken over by the stream), false otherwise
+     */
+    boolean offer(Object element) throws IOException {
+        if (element == null || element != emitted) {
+            return false;
+        }
+        emitted = null;
+        batch.add(element);
+        if (batch.size() == batchSize) {
+            deliver(batch, sink);
+        }
+        return true;
+    }
+
+    /**
+     * Delivers what's left (if deserialization succeeded) and restores the stream of the enclosing collection.
+     */
+    void close(DeserializationContext context, boolean succeeded) throws IOException {
+        ((Object[]) context.getAttribute(BeanStream.class))[0] = previous;
+        if (succeeded && !batch.isEmpty()) {
+            deliver(batch, sink);
+        }
+    }
+
+    /**
+     * Key of the per-call attribute holding {@link Registration}.
+     */
+    private static final class RegistrationKey {
+
+        private final Class<?> type;
+
+        private RegistrationKey(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RegistrationKey && ((RegistrationKey) o).type == type;
+        }
+
+        @Override
+        public int hashCode() {
+            return type.hashCode();
+        }
+    }
+
+    /**
+     * Sink registered with {@link #withSink(ObjectReader, Class, int, BeanSink)}.
+     */
+    @SuppressWarnings("unchecked")
+    private static final class Registration {
+
+        private final BeanSink<Object> sink;
+        private final int batchSize;
+
+        private Registration(BeanSink<?> sink, int batchSize) {
+            this.sink = (BeanSink<Object>) sink;
+            this.batchSize = batchSize;
+        }
+    }
+
+}
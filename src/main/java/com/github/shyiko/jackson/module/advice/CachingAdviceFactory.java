@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Default {@link AdviceFactory}, which creates advices using {@link AdviceRegistry} (if any) or no-arg constructor
+ * and keeps a single instance per class (for as long as the factory itself is around). Indexed advices are created
+ * anew each time.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public class CachingAdviceFactory implements AdviceFactory {
+
+    private final ConcurrentMap<Class<?>, Object> advices = new ConcurrentHashMap<Class<?>, Object>();
+    private final AdviceRegistry adviceRegistry;
+
+    public CachingAdviceFactory() {
+        this(null);
+    }
+
+    /**
+     * @param adviceRegistry registry to create advices with (null if reflection should be used for all of them)
+     */
+    public CachingAdviceFactory(AdviceRegistry adviceRegistry) {
+        this.adviceRegistry = adviceRegistry;
+    }
+
+    @Override
+    public <T> T getAdvice(Class<T> adviceClass) {
+        if (!isShareable(adviceClass)) {
+            return newInstance(adviceClass);
+        }
+        Object advice = advices.get(adviceClass);
+        if (advice == null) {
+            Object newAdvice = newInstance(adviceClass);
+            advice = advices.putIfAbsent(adviceClass, newAdvice);
+            if (advice == null) {
+                advice = newAdvice;
+            }
+        }
+        return adviceClass.cast(advice);
+    }
+
+    /**
+     * @param adviceClass class of the advice
+     * @return true if the same instance can be applied to different types, false otherwise
+     */
+    protected boolean isShareable(Class<?> adviceClass) {
+        return !IndexedBeanSerializerAdvice.class.isAssignableFrom(adviceClass) &&
+            !IndexedBeanDeserializerAdvice.class.isAssignableFrom(adviceClass);
+    }
+
+    /**
+     * @param adviceClass class of the advice
+     * @param <T> type of the advice
+     * @return new instance of the advice
+     */
+    protected <T> T newInstance(Class<T> adviceClass) {
+        T advice = adviceRegistry != null ? adviceRegistry.newInstance(adviceClass) : null;
+        if (advice != null) {
+            return advice;
+        }
+        try {
+            return adviceClass.newInstance();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to create instance of " + adviceClass + ".", e);
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * JSON value captured as is (without being bound to anything). Objects and arrays read from byte[] are kept as a
+ * copy of the raw input span (parser only skips over them), anything else is copied into {@link TokenBuffer}.
+ * <p>
+ * Parser created over a sub-range of byte[] reports locations relative to the start of that range, which makes span
+ * unrecoverable. Hence raw span is used only when parser is known to cover byte[] up to its end (offset of the
+ * current location plus the number of bytes left in the parser's buffer equals the length of the byte[]), which
+ * can only be the case if locations are absolute. Everything else goes to {@link TokenBuffer}.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+final class CapturedValue {
+
+    private static final String UTF_8 = "UTF-8";
+    private static final OutputStream DISCARDING_STREAM = new OutputStream() {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private final byte[] raw;
+    private final TokenBuffer tokens;
+
+    private CapturedValue(byte[] raw, TokenBuffer tokens) {
+        this.raw = raw;
+        this.tokens = tokens;
+    }
+
+    /**
+     * @param jp parser positioned at the first token of the value (left at the last one once value is captured)
+     * @return captured value
+     */
+    public static CapturedValue capture(JsonParser jp) throws IOException {
+        JsonToken token = jp.getCurrentToken();
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            Object source = jp.getTokenLocation().getSourceRef();
+            if (source instanceof byte[]) {
+                int valueOffset = valueOffset(jp, (byte[]) source, token);
+                if (valueOffset != -1) {
+                    return new CapturedValue(captureSpan(jp, (byte[]) source, valueOffset), null);
+                }
+            }
+        }
+        TokenBuffer tokens = new TokenBuffer(jp);
+        tokens.copyCurrentStructure(jp);
+        return new CapturedValue(null, tokens);
+    }
+
+    /**
+     * Token location is not reliable here (it's where parser started to look for the token, which might be
+     * (separator preceding) the field name in case of object's property), while current location is right after the
+     * opening bracket.
+     * @return offset of the first byte of the value, -1 if it cannot be determined
+     */
+    private static int valueOffset(JsonParser jp, byte[] source, JsonToken token) throws IOException {
+        long offset = jp.getCurrentLocation().getByteOffset();
+        if (offset < 1 || offset > source.length) {
+            return -1;
+        }
+        // number of bytes parser has yet to process (reported without copying)
+        int remaining = jp.releaseBuffered(DISCARDING_STREAM);
+        if (remaining < 1 || offset + remaining != source.length) {
+            return -1;
+        }
+        int valueOffset = (int) offset - 1;
+        return source[valueOffset] == opening(token) ? valueOffset : -1;
+    }
+
+    private static byte[] captureSpan(JsonParser jp, byte[] source, int offset) throws IOException {
+        jp.skipChildren();
+        return Arrays.copyOfRange(source, offset, (int) jp.getCurrentLocation().getByteOffset());
+    }
+
+    /**
+     * @return '{' or '['
+     */
+    private static int opening(JsonToken token) {
+        return token == JsonToken.START_OBJECT ? '{' : '[';
+    }
+
+    /**
+     * @return true if value is kept as a raw span of the input, false otherwise
+     */
+    public boolean isRaw() {
+        return raw != null;
+    }
+
+    /**
+     * @param codec codec to bind value with
+     * @param type type of the value
+     * @return bound value
+     */
+    public <T> T readValue(ObjectCodec codec, JavaType type) throws IOException {
+        JsonParser jp = raw != null ? codec.getFactory().createParser(raw) : tokens.asParser(codec);
+        try {
+            return codec.readValue(jp, type);
+        } finally {
+            jp.close();
+        }
+    }
+
+    /**
+     * @param jgen generator to write value to (raw spans are written verbatim)
+     */
+    public void writeTo(JsonGenerator jgen) throws IOException {
+        if (raw != null) {
+            jgen.writeRawValue(new String(raw, UTF_8));
+        } else {
+            tokens.serialize(jgen);
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import java.util.List;
+
+/**
+ * {@link AdviceRegistry} delegating to the first registry which knows about the type (advice class).
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+final class CompositeAdviceRegistry implements AdviceRegistry {
+
+    private final AdviceRegistry[] registries;
+
+    private CompositeAdviceRegistry(List<AdviceRegistry> registries) {
+        this.registries = registries.toArray(new AdviceRegistry[registries.size()]);
+    }
+
+    /**
+     * @param registries registries (in the order of precedence)
+     * @return null if there are no registries, the registry itself if there is only one, composite otherwise
+     */
+    static AdviceRegistry of(List<AdviceRegistry> registries) {
+        if (registries.isEmpty()) {
+            return null;
+        }
+        return registries.size() == 1 ? registries.get(0) : new CompositeAdviceRegistry(registries);
+    }
+
+    @Override
+    public List<Class<? extends BeanSerializerAdvice<?>>> getSerializerAdvices(Class<?> type) {
+        for (AdviceRegistry registry : registries) {
+            List<Class<? extends BeanSerializerAdvice<?>>> result = registry.getSerializerAdvices(type);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<Class<? extends BeanDeserializerAdvice<?>>> getDeserializerAdvices(Class<?> type) {
+        for (AdviceRegistry registry : registries) {
+            List<Class<? extends BeanDeserializerAdvice<?>>> result = registry.getDeserializerAdvices(type);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public <T> T newInstance(Class<T> adviceClass) {
+        for (AdviceRegistry registry : registries) {
+            T result = registry.newInstance(adviceClass);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+}
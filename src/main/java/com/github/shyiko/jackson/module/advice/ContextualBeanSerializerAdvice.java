@@ -0,0 +1,44 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+/**
+ * {@link BeanSerializerAdvice} keeping per-bean state (context) across the hooks (see
+ * {@link AbstractContextualBeanSerializerAdvice} for the default implementation).
+ * @param <T> type of the bean this advice can be applied to
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public interface ContextualBeanSerializerAdvice<T> extends BeanSerializerAdvice<T> {
+
+    /**
+     * Called before any other hook of the bean.
+     * @return advice all the hooks of the bean are to be called on (e.g. copy of this advice bound to the context of
+     * the bean), so that context doesn't need to be looked up on each and every hook
+     */
+    BeanSerializerAdvice<T> enter();
+
+    /**
+     * @return advice returned by {@link #enter()} for the bean currently being serialized (used when it cannot be
+     * passed along, e.g. from within Jackson's own serializeWithType)
+     */
+    BeanSerializerAdvice<T> current();
+
+    /**
+     * Called after the last hook of the bean (regardless of whether serialization succeeded or not).
+     */
+    void exit();
+
+}
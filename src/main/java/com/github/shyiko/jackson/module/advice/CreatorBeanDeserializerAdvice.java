@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+
+import java.io.IOException;
+
+/**
+ * {@link BeanDeserializerAdvice} taking part in deserialization of the beans created through property-based creator
+ * (constructor or factory method annotated with {@link com.fasterxml.jackson.annotation.JsonCreator}), before the
+ * instance exists. Properties are streamed through
+ * {@link #interceptBeforeCreation(CreatorParameters, String, JsonParser, DeserializationContext)} until the last
+ * creator parameter is known, the bean is created and then the usual
+ * {@link #before(Object, JsonParser, DeserializationContext)}, intercept and
+ * {@link #after(Object, JsonParser, DeserializationContext)} sequence follows. Regular (non-creator) properties the
+ * advice intercepts are not passed to interceptBeforeCreation, they are replayed through intercept right after before
+ * instead (so that each property is seen by one of the hooks only).
+ * Values captured before creation can be kept in the context of {@link ContextualBeanDeserializerAdvice} or passed
+ * to the creator with {@link CreatorParameters#assign(String, Object)}.
+ * @param <T> type of the bean this advice can be applied to
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public interface CreatorBeanDeserializerAdvice<T> extends BeanDeserializerAdvice<T> {
+
+    /**
+     * Called before the first property of the bean is read.
+     * @param parameters creator parameters
+     * @param json json parser
+     * @param context deserialization context
+     * @throws IOException if anything goes wrong during json processing
+     */
+    void beforeCreation(CreatorParameters parameters, JsonParser json, DeserializationContext context)
+            throws IOException;
+
+    /**
+     * @param parameters creator parameters (collected so far)
+     * @param propertyName bean property name
+     * @param json json parser
+     * @param context deserialization context
+     * @return true if property deserialization has been taken care of and thus standard processing should not be run,
+     * false otherwise
+     * @throws IOException if anything goes wrong during json processing
+     */
+    boolean interceptBeforeCreation(CreatorParameters parameters, String propertyName, JsonParser json,
+            DeserializationContext context) throws IOException;
+
+}
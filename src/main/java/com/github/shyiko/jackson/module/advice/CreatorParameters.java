@@ -0,0 +1,96 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.impl.PropertyBasedCreator;
+import com.fasterxml.jackson.databind.deser.impl.PropertyValueBuffer;
+
+import java.util.BitSet;
+
+/**
+ * Arguments of the property-based creator (constructor or factory method annotated with
+ * {@link com.fasterxml.jackson.annotation.JsonCreator}) collected so far. Exposed to
+ * {@link CreatorBeanDeserializerAdvice} while bean instance does not exist yet.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public final class CreatorParameters {
+
+    private final PropertyBasedCreator creator;
+    private final PropertyValueBuffer buffer;
+    /**
+     * creator indexes of the parameters assigned through {@link #assign(String, Object)} (null until there is one)
+     */
+    private BitSet assigned;
+
+    CreatorParameters(PropertyBasedCreator creator, PropertyValueBuffer buffer) {
+        this.creator = creator;
+        this.buffer = buffer;
+    }
+
+    /**
+     * @param name property name
+     * @return true if property is one of the creator parameters, false otherwise
+     */
+    public boolean isCreatorProperty(String name) {
+        return creator.findCreatorProperty(name) != null;
+    }
+
+    /**
+     * @param name creator property name
+     * @param value value of the creator parameter. Corresponding json property (if any) is going to be skipped.
+     * @throws IllegalArgumentException if there is no creator property with such name
+     * @throws IllegalStateException if parameter has already been assigned
+     */
+    public void assign(String name, Object value) {
+        SettableBeanProperty property = creator.findCreatorProperty(name);
+        if (property == null) {
+            throw new IllegalArgumentException("Unknown creator property \"" + name + "\".");
+        }
+        int index = property.getCreatorIndex();
+        if (isAssigned(index)) {
+            throw new IllegalStateException("Creator property \"" + name + "\" has already been assigned.");
+        }
+        if (assigned == null) {
+            assigned = new BitSet();
+        }
+        assigned.set(index);
+        buffer.assignParameter(index, value);
+    }
+
+    /**
+     * @param name creator property name
+     * @return true if value of the creator parameter has been supplied by {@link #assign(String, Object)}, false
+     * otherwise
+     */
+    public boolean isAssigned(String name) {
+        SettableBeanProperty property = creator.findCreatorProperty(name);
+        return property != null && isAssigned(property.getCreatorIndex());
+    }
+
+    boolean isAssigned(int creatorIndex) {
+        return assigned != null && assigned.get(creatorIndex);
+    }
+
+    /**
+     * @return true if all the creator parameters have been assigned (meaning that bean is about to be created),
+     * false otherwise
+     */
+    public boolean isComplete() {
+        return buffer.isComplete();
+    }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.introspect.AnnotatedField;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMethod;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.PropertySerializerMap;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+
+import java.lang.reflect.Modifier;
+
+/**
+ * {@link BeanPropertyWriter} which can be handed the value of the property instead of reading it through reflection
+ * (used by {@link AdvisedBeanSerializerGenerator}-generated serializers, which call getters (and read fields)
+ * directly). Otherwise behaves exactly like the writer it was copied from.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public final class DirectBeanPropertyWriter extends BeanPropertyWriter {
+
+    public DirectBeanPropertyWriter(BeanPropertyWriter src) {
+        super(src);
+    }
+
+    private DirectBeanPropertyWriter(BeanPropertyWriter src, SerializedString name) {
+        super(src, name);
+    }
+
+    /**
+     * @return true if writer is a plain {@link BeanPropertyWriter} backed by a (non-static) getter or field,
+     * false otherwise
+     */
+    public static boolean isApplicable(BeanPropertyWriter writer) {
+        if (writer.getClass() != BeanPropertyWriter.class) {
+            return false;
+        }
+        AnnotatedMember member = writer.getMember();
+        return (member instanceof AnnotatedMethod && ((AnnotatedMethod) member).getParameterCount() == 0 ||
+            member instanceof AnnotatedField) && !Modifier.isStatic(member.getMember().getModifiers());
+    }
+
+    @Override
+    public BeanPropertyWriter rename(NameTransformer transformer) {
+        String newName = transformer.transform(_name.getValue());
+        if (newName.equals(_name.toString())) {
+            return this;
+        }
+        return new DirectBeanPropertyWriter(this, new SerializedString(newName));
+    }
+
+    /**
+     * Same as {@link #serializeAsField(Object, JsonGenerator, SerializerProvider)} except that value of the property
+     * is given (instead of being read from the bean).
+     */
+    public void serializeAsField(Object bean, Object value, JsonGenerator jgen, SerializerProvider prov)
+            throws Exception {
+        if (value == null) {
+            if (_nullSerializer != null) {
+                jgen.writeFieldName(_name);
+                _nullSerializer.serialize(null, jgen, prov);
+            }
+            return;
+        }
+        JsonSerializer<Object> ser = _serializer;
+        if (ser == null) {
+            Class<?> cls = value.getClass();
+            PropertySerializerMap map = _dynamicSerializers;
+            ser = map.serializerFor(cls);
+            if (ser == null) {
+                ser = _findAndAddDynamic(map, cls, prov);
+            }
+        }
+        if (_suppressableValue != null) {
+            if (MARKER_FOR_EMPTY == _suppressableValue) {
+                if (ser.isEmpty(value)) {
+                    return;
+                }
+            } else if (_suppressableValue.equals(value)) {
+                return;
+            }
+        }
+        if (value == bean) {
+            _handleSelfReference(bean, ser);
+        }
+        jgen.writeFieldName(_name);
+        if (_typeSerializer == null) {
+            ser.serialize(value, jgen, prov);
+        } else {
+            ser.serializeWithType(value, jgen, prov, _typeSerializer);
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.SerializableString;
+
+/**
+ * {@link BeanSerializerAdvice} declaring (upfront) names of the fields it injects, so that they could be encoded once
+ * (when serializer is built) instead of being quoted/escaped on each write (the same way names of the regular
+ * properties are). Injected fields are expected to be written with
+ * {@link com.fasterxml.jackson.core.JsonGenerator#writeFieldName(SerializableString)}.
+ * @param <T> type of the bean this advice can be applied to
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public interface FieldInjectingBeanSerializerAdvice<T> extends BeanSerializerAdvice<T> {
+
+    /**
+     * @return names of the fields advice injects
+     */
+    String[] getInjectedFieldNames();
+
+    /**
+     * Called once (when serializer is built) before any of the hooks.
+     * @param injectedFieldNames pre-encoded names (in the order of {@link #getInjectedFieldNames()})
+     */
+    void resolve(SerializableString[] injectedFieldNames);
+
+}
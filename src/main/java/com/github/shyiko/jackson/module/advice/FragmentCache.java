@@ -0,0 +1,179 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded (LRU) cache of the pre-serialized json fragments (see {@link AbstractCachingBeanSerializerAdvice}).
+ * Entries are evicted either when cache grows beyond maximum size or when they get older than expireAfterWrite.
+ * Thread-safe.
+ * <p>
+ * Lookups take no locks (access time is recorded by the entry itself). LRU order is approximate: once cache grows
+ * beyond maximum size, least recently accessed entries are evicted in a batch (of up to 1/8 of the maximum size, so
+ * that the cost of finding them is spread across the subsequent insertions).
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public class FragmentCache {
+
+    private final int maximumSize;
+    private final long expireAfterWriteNanos;
+    private final ConcurrentMap<Object, Entry> entries = new ConcurrentHashMap<Object, Entry>();
+    private final Object evictionLock = new Object();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * @param maximumSize maximum number of fragments to keep
+     * @param expireAfterWrite time after which fragment is considered stale
+     * @param unit unit of expireAfterWrite
+     */
+    public FragmentCache(int maximumSize, long expireAfterWrite, TimeUnit unit) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        if (expireAfterWrite < 1) {
+            throw new IllegalArgumentException("Expiration time must be positive");
+        }
+        this.maximumSize = maximumSize;
+        this.expireAfterWriteNanos = unit.toNanos(expireAfterWrite);
+    }
+
+    /**
+     * @param key cache key
+     * @return fragment previously stored under the given key, null if there is none (or it has expired)
+     */
+    public char[] get(Object key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            long now = System.nanoTime();
+            if (now - entry.writeTime < expireAfterWriteNanos) {
+                entry.accessTime = now;
+                hitCount.incrementAndGet();
+                return entry.fragment;
+            }
+            if (entries.remove(key, entry)) {
+                evictionCount.incrementAndGet();
+            }
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * @param key cache key
+     * @param fragment json fragment
+     */
+    public void put(Object key, char[] fragment) {
+        entries.put(key, new Entry(fragment, System.nanoTime()));
+        if (entries.size() > maximumSize) {
+            evict(key);
+        }
+    }
+
+    /**
+     * Evicts least recently accessed entries (except for the one just put).
+     */
+    private void evict(Object retainedKey) {
+        synchronized (evictionLock) {
+            int size = entries.size();
+            if (size <= maximumSize) {
+                return; // evicted by the concurrent put
+            }
+            // access times are taken once (sorting by the volatile ones would be inconsistent)
+            List<Candidate> candidates = new ArrayList<Candidate>(size);
+            for (Map.Entry<Object, Entry> mapEntry : entries.entrySet()) {
+                if (!mapEntry.getKey().equals(retainedKey)) {
+                    candidates.add(new Candidate(mapEntry.getKey(), mapEntry.getValue()));
+                }
+            }
+            Collections.sort(candidates);
+            int excess = Math.min(size - (maximumSize - maximumSize / 8), candidates.size());
+            for (int i = 0; i < excess; i++) {
+                Candidate candidate = candidates.get(i);
+                if (entries.remove(candidate.key, candidate.entry)) {
+                    evictionCount.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return number of entries removed either because of the size limit or expiration (explicit {@link #clear()}
+     * is not counted)
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    private static final class Entry {
+
+        private final char[] fragment;
+        private final long writeTime;
+        private volatile long accessTime;
+
+        private Entry(char[] fragment, long writeTime) {
+            this.fragment = fragment;
+            this.writeTime = writeTime;
+            this.accessTime = writeTime;
+        }
+    }
+
+    private static final class Candidate implements Comparable<Candidate> {
+
+        private final Object key;
+        private final Entry entry;
+        private final long accessTime;
+
+        private Candidate(Object key, Entry entry) {
+            this.key = key;
+            this.entry = entry;
+            this.accessTime = entry.accessTime;
+        }
+
+        @Override
+        public int compareTo(Candidate that) {
+            // nanoTime values are to be compared by difference
+            long difference = accessTime - that.accessTime;
+            return difference < 0 ? -1 : difference > 0 ? 1 : 0;
+        }
+    }
+
+}
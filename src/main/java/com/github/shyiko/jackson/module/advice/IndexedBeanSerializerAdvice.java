@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+/**
+ * {@link BeanSerializerAdvice} identifying properties by (int) index (see {@link PropertyIndex}). When (type-level)
+ * advice implements this interface, property-scoped hooks defined here are called instead of the ones inherited from
+ * {@link BeanSerializerAdvice}.
+ * @param <T> type of the bean this advice can be applied to
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public interface IndexedBeanSerializerAdvice<T> extends BeanSerializerAdvice<T> {
+
+    /**
+     * Called once (when serializer is built) before any other method of this advice.
+     * @param propertyIndex mapping between names and indexes of the bean properties
+     */
+    void resolve(PropertyIndex propertyIndex);
+
+    void before(T bean, JsonGenerator json, int propertyIndex, BeanProperty property, SerializerProvider provider)
+            throws IOException;
+
+    /**
+     * @param bean bean instance
+     * @param json json generator
+     * @param propertyIndex index of the property
+     * @param property bean property
+     * @param provider serializer provider
+     * @return true if property serialization has been taken care of (neither of
+     * {@link #before(Object, com.fasterxml.jackson.core.JsonGenerator, int,
+     * com.fasterxml.jackson.databind.BeanProperty, com.fasterxml.jackson.databind.SerializerProvider)},
+     * standard processing, {@link #after(Object, com.fasterxml.jackson.core.JsonGenerator, int,
+     * com.fasterxml.jackson.databind.BeanProperty, com.fasterxml.jackson.databind.SerializerProvider)}
+     * will be called in this case), false otherwise
+     * @throws IOException if anything goes wrong during json generation
+     */
+    boolean intercept(T bean, JsonGenerator json, int propertyIndex, BeanProperty property,
+            SerializerProvider provider) throws IOException;
+
+    void after(T bean, JsonGenerator json, int propertyIndex, BeanProperty property, SerializerProvider provider)
+            throws IOException;
+
+}
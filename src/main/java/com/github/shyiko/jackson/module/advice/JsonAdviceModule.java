@@ -18,13 +18,34 @@ package com.github.shyiko.jackson.module.advice;
 import com.fasterxml.jackson.core.Version;
 import com.fasterxml.jackson.databind.BeanDescription;
 import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.PropertyName;
 import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
 import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.Deserializers;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.std.CollectionDeserializer;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
 import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.Serializers;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 
 import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
 
@@ -33,31 +54,94 @@ import java.util.jar.Manifest;
  */
 public class JsonAdviceModule extends Module {
 
-    private static final Version MODULE_VERSION;
-
-    static {
-        String groupId = "com.github.shyiko", artifactId = "jackson-module-advice", build = "UNKNOWN";
-        int major = 0, minor = 0, patch = 0;
-        try {
-            Manifest manifest = ManifestLoader.load(groupId, artifactId);
-            if (manifest != null) {
-                Attributes attributes = manifest.getMainAttributes();
-                String version = attributes.getValue("Implementation-Version");
-                if (version != null) {
-                    String[] versionSplit = version.split("[.]");
-                    if (versionSplit.length == 3) {
-                        major = Integer.parseInt(versionSplit[0]);
-                        minor = Integer.parseInt(versionSplit[1]);
-                        String[] splitBetweenPathAndBuild = versionSplit[2].split("-");
-                        patch = Integer.parseInt(splitBetweenPathAndBuild[0]);
-                        build = splitBetweenPathAndBuild.length == 2 ? splitBetweenPathAndBuild[1] : null;
-                    }
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+    private final Map<Class<?>, List<Class<? extends BeanSerializerAdvice>>> serializerAdvices =
+        new HashMap<Class<?>, List<Class<? extends BeanSerializerAdvice>>>();
+    private final Map<Class<?>, List<Class<? extends BeanDeserializerAdvice>>> deserializerAdvices =
+        new HashMap<Class<?>, List<Class<? extends BeanDeserializerAdvice>>>();
+    private boolean codeGeneration;
+    private AdviceMetrics metrics;
+    private AdviceRegistry adviceRegistry;
+    private boolean adviceRegistryResolved;
+    private AdviceFactory adviceFactory;
+
+    /**
+     * @param codeGeneration true if serializers of the advised types should be generated at runtime (see
+     * {@link AdvisedBeanSerializerGenerator}), false otherwise (default). Requires org.ow2.asm:asm on the classpath
+     * (standard serializers are used when it's not available).
+     * @return this module
+     */
+    public JsonAdviceModule withCodeGeneration(boolean codeGeneration) {
+        this.codeGeneration = codeGeneration;
+        return this;
+    }
+
+    /**
+     * @param metrics metrics advice hooks should be reported to (e.g. {@link AdviceMetricsRegistry}), null (default)
+     * if advices should not be instrumented. Note that instrumented advices are not eligible for code generation.
+     * @return this module
+     */
+    public JsonAdviceModule withMetrics(AdviceMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * @param adviceFactory factory advices should be obtained from (by default - {@link CachingAdviceFactory} backed
+     * by the advice registry, which means that advices are shared by all the mappers this module is registered with)
+     * @return this module
+     */
+    public JsonAdviceModule withAdviceFactory(AdviceFactory adviceFactory) {
+        if (adviceFactory == null) {
+            throw new IllegalArgumentException("Advice factory cannot be null");
+        }
+        this.adviceFactory = adviceFactory;
+        return this;
+    }
+
+    /**
+     * Has to be called before module is registered (otherwise default advice factory won't take it into account).
+     * @param adviceRegistry registry to resolve type-level advices with (in addition to the mix-ins and
+     * registrations), null if advices should be resolved reflectively. By default - registries generated for the
+     * package of the type (looked up by name with the class loader of the type, once per package). Passing registry
+     * explicitly is needed when registry is not generated by jackson-module-advice-processor (or to skip the
+     * lookup).
+     * @return this module
+     */
+    public synchronized JsonAdviceModule withAdviceRegistry(AdviceRegistry adviceRegistry) {
+        this.adviceRegistry = adviceRegistry;
+        this.adviceRegistryResolved = true;
+        return this;
+    }
+
+    /**
+     * @param type type to advise serialization of
+     * @param adviceClass advice class (applied after the ones declared with {@link JsonSerializerAdvice} and the ones
+     * registered earlier)
+     * @return this module
+     */
+    public JsonAdviceModule withSerializerAdvice(Class<?> type, Class<? extends BeanSerializerAdvice> adviceClass) {
+        List<Class<? extends BeanSerializerAdvice>> adviceClasses = serializerAdvices.get(type);
+        if (adviceClasses == null) {
+            serializerAdvices.put(type, adviceClasses = new ArrayList<Class<? extends BeanSerializerAdvice>>());
+        }
+        adviceClasses.add(adviceClass);
+        return this;
+    }
+
+    /**
+     * @param type type to advise deserialization of
+     * @param adviceClass advice class (applied after the ones declared with {@link JsonDeserializerAdvice} and the
+     * ones registered earlier)
+     * @return this module
+     */
+    public JsonAdviceModule withDeserializerAdvice(Class<?> type,
+            Class<? extends BeanDeserializerAdvice> adviceClass) {
+        List<Class<? extends BeanDeserializerAdvice>> adviceClasses = deserializerAdvices.get(type);
+        if (adviceClasses == null) {
+            deserializerAdvices.put(type, adviceClasses = new ArrayList<Class<? extends BeanDeserializerAdvice>>());
         }
-        MODULE_VERSION = new Version(major, minor, patch, build, groupId, artifactId);
+        adviceClasses.add(adviceClass);
+        return this;
     }
 
     @Override
@@ -65,20 +149,66 @@ public class JsonAdviceModule extends Module {
         return this.getClass().getSimpleName();
     }
 
+    /**
+     * @return version of the module (taken from the MANIFEST.MF, which involves reading all of them on the
+     * classpath, only if {@link PackageVersion} is unknown)
+     */
     @Override
     public Version version() {
-        return MODULE_VERSION;
+        return !PackageVersion.VERSION.isUknownVersion() ? PackageVersion.VERSION : ManifestVersion.VERSION;
     }
 
     @Override
     public void setupModule(SetupContext context) {
+        final AdviceFactory factory = getAdviceFactory();
         context.addBeanSerializerModifier(new BeanSerializerModifier() {
 
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                    List<BeanPropertyWriter> beanProperties) {
+                for (ListIterator<BeanPropertyWriter> iterator = beanProperties.listIterator(); iterator.hasNext();) {
+                    BeanPropertyWriter writer = iterator.next();
+                    JsonSerializerAdvice advice = writer.getAnnotation(JsonSerializerAdvice.class);
+                    if (advice != null) {
+                        iterator.set(new AdvisedBeanPropertyWriter(writer,
+                            BeanSerializerAdviceChain.compose(Arrays.asList(advice.value()), factory, metrics)));
+                    }
+                }
+                return beanProperties;
+            }
+
             @Override
             public com.fasterxml.jackson.databind.ser.BeanSerializerBuilder updateBuilder(SerializationConfig config,
                     BeanDescription beanDesc, com.fasterxml.jackson.databind.ser.BeanSerializerBuilder builder) {
-                JsonSerializerAdvice advice = beanDesc.getClassAnnotations().get(JsonSerializerAdvice.class);
-                return advice != null ? new AdvisedBeanSerializerBuilder(builder, advice.value()) : builder;
+                List<Class<? extends BeanSerializerAdvice>> adviceClasses = resolveSerializerAdvices(
+                    beanDesc.getBeanClass(), beanDesc.getClassAnnotations().get(JsonSerializerAdvice.class));
+                if (adviceClasses.isEmpty()) {
+                    return builder;
+                }
+                AdvisedBeanSerializerBuilder advisedBuilder = new AdvisedBeanSerializerBuilder(builder,
+                    BeanSerializerAdviceChain.compose(adviceClasses, factory, metrics), codeGeneration);
+                advisedBuilder.setConfig(config);
+                return advisedBuilder;
+            }
+
+            @Override
+            public JsonSerializer<?> modifyCollectionSerializer(SerializationConfig config, CollectionType valueType,
+                    BeanDescription beanDesc, JsonSerializer<?> serializer) {
+                Class<?> contentClass = valueType.getContentType().getRawClass();
+                // exact type of the elements (and so the advice) is known only at the time of serialization (annotated
+                // types cannot be enumerated upfront, hence the wrapper, which resolves advices once per element class)
+                boolean batchAdviceExpected = contentClass == Object.class || contentClass.isInterface() ||
+                    Modifier.isAbstract(contentClass.getModifiers());
+                if (!batchAdviceExpected) {
+                    JsonSerializerAdvice advice = config.introspectClassAnnotations(contentClass).getClassAnnotations().
+                        get(JsonSerializerAdvice.class);
+                    List<Class<? extends BeanSerializerAdvice>> adviceClasses =
+                        resolveSerializerAdvices(contentClass, advice);
+                    for (Class<? extends BeanSerializerAdvice> adviceClass : adviceClasses) {
+                        batchAdviceExpected |= BatchBeanSerializerAdvice.class.isAssignableFrom(adviceClass);
+                    }
+                }
+                return batchAdviceExpected ? new BatchPreparingCollectionSerializer(serializer) : serializer;
             }
         });
         context.addBeanDeserializerModifier(new BeanDeserializerModifier() {
@@ -86,10 +216,197 @@ public class JsonAdviceModule extends Module {
             @Override
             public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription beanDesc,
                     BeanDeserializerBuilder builder) {
-                JsonDeserializerAdvice advice = beanDesc.getClassAnnotations().get(JsonDeserializerAdvice.class);
-                return  advice != null ? new AdvisedBeanDeserializerBuilder(builder, advice.value()) : builder;
+                List<SettableBeanProperty> advisedProperties = new ArrayList<SettableBeanProperty>();
+                for (Iterator<SettableBeanProperty> iterator = builder.getProperties(); iterator.hasNext();) {
+                    SettableBeanProperty property = iterator.next();
+                    // creator properties are resolved by PropertyBasedCreator (which knows nothing about wrappers)
+                    if (property.getCreatorIndex() == -1) {
+                        JsonDeserializerAdvice advice = property.getAnnotation(JsonDeserializerAdvice.class);
+                        if (advice != null) {
+                            advisedProperties.add(new AdvisedSettableBeanProperty(property, BeanDeserializerAdviceChain.
+                                compose(Arrays.asList(advice.value()), factory, metrics)));
+                        }
+                    }
+                }
+                for (SettableBeanProperty advisedProperty : advisedProperties) {
+                    builder.addOrReplaceProperty(advisedProperty, true);
+                }
+                List<Class<? extends BeanDeserializerAdvice>> adviceClasses = resolveDeserializerAdvices(
+                    beanDesc.getBeanClass(), beanDesc.getClassAnnotations().get(JsonDeserializerAdvice.class));
+                if (adviceClasses.isEmpty()) {
+                    return builder;
+                }
+                BeanDeserializerAdvice advice =
+                    BeanDeserializerAdviceChain.compose(adviceClasses, factory, metrics);
+                if (advice instanceof LazyBeanDeserializerAdvice) {
+                    deferProperties(builder, beanDesc, ((LazyBeanDeserializerAdvice) advice).getLazyPropertyNames());
+                }
+                return new AdvisedBeanDeserializerBuilder(builder, advice);
+            }
+
+            @Override
+            public JsonDeserializer<?> modifyCollectionDeserializer(DeserializationConfig config,
+                    CollectionType type, BeanDescription beanDesc, JsonDeserializer<?> deserializer) {
+                if (deserializer.getClass() != CollectionDeserializer.class) {
+                    return deserializer;
+                }
+                // elements can be emitted to the BeanStream only by advised deserializers
+                Class<?> contentClass = type.getContentType().getRawClass();
+                JsonDeserializerAdvice advice = config.introspectClassAnnotations(contentClass).getClassAnnotations().
+                    get(JsonDeserializerAdvice.class);
+                return resolveDeserializerAdvices(contentClass, advice).isEmpty() ? deserializer :
+                    new StreamingCollectionDeserializer((CollectionDeserializer) deserializer);
+            }
+        });
+        context.addDeserializers(new Deserializers.Base() {
+
+            @Override
+            public JsonDeserializer<?> findBeanDeserializer(JavaType type, DeserializationConfig config,
+                    BeanDescription beanDesc) {
+                return type.getRawClass() == Lazy.class ? new LazyDeserializer(valueTypeOf(type), false) : null;
+            }
+        });
+        context.addSerializers(new Serializers.Base() {
+
+            @Override
+            public JsonSerializer<?> findSerializer(SerializationConfig config, JavaType type,
+                    BeanDescription beanDesc) {
+                return type.getRawClass() == Lazy.class ? new LazySerializer() : null;
             }
         });
     }
 
+    private synchronized AdviceFactory getAdviceFactory() {
+        if (adviceFactory == null) {
+            adviceFactory = new CachingAdviceFactory(getAdviceRegistry());
+        }
+        return adviceFactory;
+    }
+
+    private synchronized AdviceRegistry getAdviceRegistry() {
+        if (!adviceRegistryResolved) {
+            adviceRegistry = new PackageAdviceRegistry();
+            adviceRegistryResolved = true;
+        }
+        return adviceRegistry;
+    }
+
+    /**
+     * Replaces value deserializers of the given (non-creator, {@link Lazy}) properties with the deferring ones.
+     */
+    private static void deferProperties(BeanDeserializerBuilder builder, BeanDescription beanDesc,
+            String[] names) {
+        for (String name : names) {
+            SettableBeanProperty property = builder.findProperty(new PropertyName(name));
+            // creator properties are resolved by PropertyBasedCreator (which ignores builder's copies)
+            if (property == null || property.getType().getRawClass() != Lazy.class ||
+                    property.getCreatorIndex() != -1) {
+                throw new IllegalStateException("Lazy property \"" + name + "\" of " +
+                    beanDesc.getBeanClass() + " must be a non-creator property of type " +
+                    Lazy.class.getName());
+            }
+            builder.addOrReplaceProperty(property.withValueDeserializer(
+                new LazyDeserializer(valueTypeOf(property.getType()), true)), true);
+        }
+    }
+
+    private static JavaType valueTypeOf(JavaType lazyType) {
+        JavaType valueType = lazyType.containedType(0);
+        return valueType != null ? valueType : TypeFactory.unknownType();
+    }
+
+    /**
+     * @param type bean type
+     * @param effectiveAdvice type-level advice annotation as seen by Jackson (mix-in annotation, if present, overrides
+     * the one declared by the type itself)
+     * @return advice classes (in the order of application, see {@link JsonSerializerAdvice})
+     */
+    private List<Class<? extends BeanSerializerAdvice>> resolveSerializerAdvices(Class<?> type,
+            JsonSerializerAdvice effectiveAdvice) {
+        Set<Class<? extends BeanSerializerAdvice>> result = new LinkedHashSet<Class<? extends BeanSerializerAdvice>>();
+        AdviceRegistry registry = getAdviceRegistry();
+        List<Class<? extends BeanSerializerAdvice<?>>> indexed =
+            registry != null ? registry.getSerializerAdvices(type) : null;
+        if (indexed != null) {
+            result.addAll(indexed);
+        } else {
+            JsonSerializerAdvice ownAdvice = type.getAnnotation(JsonSerializerAdvice.class);
+            if (ownAdvice != null) {
+                result.addAll(Arrays.asList(ownAdvice.value()));
+            }
+        }
+        if (effectiveAdvice != null) {
+            result.addAll(Arrays.asList(effectiveAdvice.value()));
+        }
+        List<Class<? extends BeanSerializerAdvice>> registered = serializerAdvices.get(type);
+        if (registered != null) {
+            result.addAll(registered);
+        }
+        return new ArrayList<Class<? extends BeanSerializerAdvice>>(result);
+    }
+
+    /**
+     * @see #resolveSerializerAdvices(Class, JsonSerializerAdvice)
+     */
+    private List<Class<? extends BeanDeserializerAdvice>> resolveDeserializerAdvices(Class<?> type,
+            JsonDeserializerAdvice effectiveAdvice) {
+        Set<Class<? extends BeanDeserializerAdvice>> result =
+            new LinkedHashSet<Class<? extends BeanDeserializerAdvice>>();
+        AdviceRegistry registry = getAdviceRegistry();
+        List<Class<? extends BeanDeserializerAdvice<?>>> indexed =
+            registry != null ? registry.getDeserializerAdvices(type) : null;
+        if (indexed != null) {
+            result.addAll(indexed);
+        } else {
+            JsonDeserializerAdvice ownAdvice = type.getAnnotation(JsonDeserializerAdvice.class);
+            if (ownAdvice != null) {
+                result.addAll(Arrays.asList(ownAdvice.value()));
+            }
+        }
+        if (effectiveAdvice != null) {
+            result.addAll(Arrays.asList(effectiveAdvice.value()));
+        }
+        List<Class<? extends BeanDeserializerAdvice>> registered = deserializerAdvices.get(type);
+        if (registered != null) {
+            result.addAll(registered);
+        }
+        return new ArrayList<Class<? extends BeanDeserializerAdvice>>(result);
+    }
+
+    /**
+     * Holder of the version from the MANIFEST.MF (loaded on first access).
+     */
+    private static final class ManifestVersion {
+
+        private static final Version VERSION = load();
+
+        private ManifestVersion() {
+        }
+
+        private static Version load() {
+            String groupId = "com.github.shyiko", artifactId = "jackson-module-advice", build = "UNKNOWN";
+            int major = 0, minor = 0, patch = 0;
+            try {
+                Manifest manifest = ManifestLoader.load(groupId, artifactId);
+                if (manifest != null) {
+                    Attributes attributes = manifest.getMainAttributes();
+                    String version = attributes.getValue("Implementation-Version");
+                    if (version != null) {
+                        String[] versionSplit = version.split("[.]");
+                        if (versionSplit.length == 3) {
+                            major = Integer.parseInt(versionSplit[0]);
+                            minor = Integer.parseInt(versionSplit[1]);
+                            String[] splitBetweenPathAndBuild = versionSplit[2].split("-");
+                            patch = Integer.parseInt(splitBetweenPathAndBuild[0]);
+                            build = splitBetweenPathAndBuild.length == 2 ? splitBetweenPathAndBuild[1] : null;
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return new Version(major, minor, patch, build, groupId, artifactId);
+        }
+    }
+
 }
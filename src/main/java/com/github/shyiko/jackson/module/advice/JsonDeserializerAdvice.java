@@ -23,6 +23,13 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
+ * When placed on a field/method (property), only {@link BeanDeserializerAdvice#intercept(Object, String,
+ * com.fasterxml.jackson.core.JsonParser, com.fasterxml.jackson.databind.DeserializationContext)} is applied to that
+ * particular property (and that property only).
+ * <p>
+ * Multiple advices are applied in order (see {@link BeanDeserializerAdviceChain}). Type-level advices declared by
+ * the type itself come first, followed by the ones declared by the mix-in (if any) and then the ones registered with
+ * {@link JsonAdviceModule#withDeserializerAdvice(Class, Class)}.
  * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
  */
 @Target({ElementType.TYPE, ElementType.FIELD, ElementType.METHOD})
@@ -30,5 +37,5 @@ import java.lang.annotation.Target;
 @JacksonAnnotation
 public @interface JsonDeserializerAdvice {
 
-    Class<? extends BeanDeserializerAdvice> value();
+    Class<? extends BeanDeserializerAdvice>[] value();
 }
@@ -23,6 +23,12 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
+ * When placed on a field/method (property), only property-scoped hooks of {@link BeanSerializerAdvice} are applied to
+ * that particular property (and that property only).
+ * <p>
+ * Multiple advices are applied in order (see {@link BeanSerializerAdviceChain}). Type-level advices declared by
+ * the type itself come first, followed by the ones declared by the mix-in (if any) and then the ones registered with
+ * {@link JsonAdviceModule#withSerializerAdvice(Class, Class)}.
  * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
  */
 @Target({ElementType.TYPE, ElementType.FIELD, ElementType.METHOD})
@@ -30,6 +36,6 @@ import java.lang.annotation.Target;
 @JacksonAnnotation
 public @interface JsonSerializerAdvice {
 
-    Class<? extends BeanSerializerAdvice> value();
+    Class<? extends BeanSerializerAdvice>[] value();
 
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+/**
+ * Holder of a (possibly) not yet deserialized value. Properties of this type are deserialized eagerly unless declared
+ * lazy by {@link LazyBeanDeserializerAdvice}, in which case value is captured as is (see {@link CapturedValue}) and
+ * bound (using codec of the original parser) on first {@link #get()}. Value which hasn't been accessed is serialized
+ * back exactly as it was read.
+ * @param <T> type of the value
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public final class Lazy<T> {
+
+    private T value;
+    private CapturedValue captured;
+    private ObjectCodec codec;
+    private JavaType type;
+
+    private Lazy(T value, CapturedValue captured, ObjectCodec codec, JavaType type) {
+        this.value = value;
+        this.captured = captured;
+        this.codec = codec;
+        this.type = type;
+    }
+
+    /**
+     * @param value value
+     * @return holder of the (already available) value
+     */
+    public static <T> Lazy<T> of(T value) {
+        return new Lazy<T>(value, null, null, null);
+    }
+
+    /**
+     * @param jp parser positioned at the first token of the value
+     * @param type type of the value
+     * @return holder of the captured value
+     */
+    static <T> Lazy<T> capture(JsonParser jp, JavaType type) throws IOException {
+        ObjectCodec codec = jp.getCodec();
+        if (codec == null) {
+            throw new IllegalStateException("Lazy value cannot be read by parser without codec");
+        }
+        return new Lazy<T>(null, CapturedValue.capture(jp), codec, type);
+    }
+
+    /**
+     * @return value (deserialized on first call)
+     * @throws IllegalStateException if captured value cannot be deserialized
+     */
+    public synchronized T get() {
+        if (captured != null) {
+            try {
+                value = captured.readValue(codec, type);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to deserialize lazy value of type " + type, e);
+            }
+            captured = null;
+            codec = null;
+            type = null;
+        }
+        return value;
+    }
+
+    /**
+     * @return true if value is available without deserialization, false otherwise
+     */
+    public synchronized boolean isMaterialized() {
+        return captured == null;
+    }
+
+    synchronized void writeTo(JsonGenerator jgen, SerializerProvider provider) throws IOException {
+        if (captured != null) {
+            captured.writeTo(jgen);
+        } else {
+            provider.defaultSerializeValue(value, jgen);
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return captured != null ? "Lazy[?]" : "Lazy[" + value + "]";
+    }
+
+}
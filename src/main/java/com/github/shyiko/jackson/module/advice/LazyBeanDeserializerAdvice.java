@@ -0,0 +1,32 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+/**
+ * {@link BeanDeserializerAdvice} declaring properties (of type {@link Lazy}) which should not be deserialized until
+ * accessed. Values of such properties are captured (and otherwise skipped) when bean is read, see {@link Lazy}.
+ * @param <T> type of the bean this advice can be applied to
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public interface LazyBeanDeserializerAdvice<T> extends BeanDeserializerAdvice<T> {
+
+    /**
+     * Called once (when deserializer is built).
+     * @return names of the lazy properties (each one must be a non-creator property of type {@link Lazy})
+     */
+    String[] getLazyPropertyNames();
+
+}
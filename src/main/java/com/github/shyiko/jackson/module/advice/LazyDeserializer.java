@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * {@link Lazy} deserializer. Either binds value right away (default) or, in case of property declared by
+ * {@link LazyBeanDeserializerAdvice}, captures it for deserialization on first access.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+@SuppressWarnings("unchecked")
+public class LazyDeserializer extends StdDeserializer<Lazy<?>> implements ContextualDeserializer {
+
+    private static final long serialVersionUID = 1L;
+
+    private final JavaType valueType;
+    private final boolean deferred;
+    private final JsonDeserializer<Object> valueDeserializer;
+
+    /**
+     * @param valueType type of the value held by {@link Lazy}
+     * @param deferred true if deserialization of the value should be deferred until first access, false otherwise
+     */
+    public LazyDeserializer(JavaType valueType, boolean deferred) {
+        this(valueType, deferred, null);
+    }
+
+    private LazyDeserializer(JavaType valueType, boolean deferred, JsonDeserializer<Object> valueDeserializer) {
+        super(Lazy.class);
+        this.valueType = valueType;
+        this.deferred = deferred;
+        this.valueDeserializer = valueDeserializer;
+    }
+
+    @Override
+    public JsonDeserializer<?> createContextual(DeserializationContext ctxt, BeanProperty property)
+            throws JsonMappingException {
+        if (deferred || valueDeserializer != null) {
+            return this;
+        }
+        return new LazyDeserializer(valueType, false, ctxt.findContextualValueDeserializer(valueType, property));
+    }
+
+    @Override
+    public Lazy<?> deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
+        if (deferred) {
+            return Lazy.capture(jp, valueType);
+        }
+        return Lazy.of(valueDeserializer.deserialize(jp, ctxt));
+    }
+
+}
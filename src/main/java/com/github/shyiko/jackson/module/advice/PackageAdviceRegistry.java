@@ -0,0 +1,113 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link AdviceRegistry} delegating to the registries generated by jackson-module-advice-processor for the package of
+ * the type ({@code <package>.GeneratedAdviceRegistry}, {@code GeneratedAdviceRegistry2} and so on), which are
+ * looked up by name (once per package) with the class loader of the type. Types of the packages without generated
+ * registries are not indexed (and so are resolved reflectively).
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+final class PackageAdviceRegistry implements AdviceRegistry {
+
+    private static final String REGISTRY_CLASS = "GeneratedAdviceRegistry";
+
+    // class loader -> package -> registry (null if package has none)
+    private final Map<ClassLoader, Map<String, AdviceRegistry>> registriesByPackage =
+        new HashMap<ClassLoader, Map<String, AdviceRegistry>>();
+    // registries looked up so far (advices are instantiated by the registry of the package they are declared in,
+    // which is not necessarily the package of the advice)
+    private final List<AdviceRegistry> registries = new ArrayList<AdviceRegistry>();
+
+    @Override
+    public List<Class<? extends BeanSerializerAdvice<?>>> getSerializerAdvices(Class<?> type) {
+        AdviceRegistry registry = getRegistry(type);
+        return registry != null ? registry.getSerializerAdvices(type) : null;
+    }
+
+    @Override
+    public List<Class<? extends BeanDeserializerAdvice<?>>> getDeserializerAdvices(Class<?> type) {
+        AdviceRegistry registry = getRegistry(type);
+        return registry != null ? registry.getDeserializerAdvices(type) : null;
+    }
+
+    @Override
+    public <T> T newInstance(Class<T> adviceClass) {
+        getRegistry(adviceClass);
+        for (AdviceRegistry registry : getRegistries()) {
+            T result = registry.newInstance(adviceClass);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    private synchronized AdviceRegistry[] getRegistries() {
+        return registries.toArray(new AdviceRegistry[registries.size()]);
+    }
+
+    /**
+     * @return registry of the type's package, null if there is none
+     */
+    private synchronized AdviceRegistry getRegistry(Class<?> type) {
+        ClassLoader classLoader = type.getClassLoader();
+        if (classLoader == null || type.isArray() || type.isPrimitive()) {
+            return null;
+        }
+        Map<String, AdviceRegistry> registryByPackage = registriesByPackage.get(classLoader);
+        if (registryByPackage == null) {
+            registriesByPackage.put(classLoader, registryByPackage = new HashMap<String, AdviceRegistry>());
+        }
+        String packageName = packageOf(type);
+        if (registryByPackage.containsKey(packageName)) {
+            return registryByPackage.get(packageName);
+        }
+        List<AdviceRegistry> packageRegistries = new ArrayList<AdviceRegistry>();
+        for (int i = 1;; i++) {
+            String simpleName = i == 1 ? REGISTRY_CLASS : REGISTRY_CLASS + i;
+            String name = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+            Class<?> registryClass;
+            try {
+                registryClass = Class.forName(name, true, classLoader);
+            } catch (ClassNotFoundException e) {
+                break;
+            }
+            try {
+                packageRegistries.add((AdviceRegistry) registryClass.newInstance());
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to instantiate " + name, e);
+            }
+        }
+        AdviceRegistry result = CompositeAdviceRegistry.of(packageRegistries);
+        registryByPackage.put(packageName, result);
+        registries.addAll(packageRegistries);
+        return result;
+    }
+
+    private static String packageOf(Class<?> type) {
+        String name = type.getName();
+        int index = name.lastIndexOf('.');
+        return index == -1 ? "" : name.substring(0, index);
+    }
+
+}
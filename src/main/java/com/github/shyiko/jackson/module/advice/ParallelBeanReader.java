@@ -0,0 +1,270 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Reader of (large) top-level JSON arrays, which deserializes elements concurrently. Input is split into chunks of
+ * (whole) elements by a structural scan (which only tracks nesting and strings) and each chunk is read by a separate
+ * task, results being concatenated in the original order.
+ * <p>
+ * Thread model: every chunk is read within its own readValues call (hence its own {@link
+ * com.fasterxml.jackson.databind.DeserializationContext} and per-call attributes) by a single thread, elements of the
+ * chunk being deserialized one after another (with all advice hooks of the element called on that thread). Elements
+ * of different chunks are deserialized concurrently and in no particular order, so advices (shared by all threads,
+ * just like deserializers themselves) must be thread-safe. Per-bean state of {@link
+ * ContextualBeanDeserializerAdvice}s is thread-confined.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public final class ParallelBeanReader {
+
+    private ParallelBeanReader() {
+    }
+
+    /**
+     * @param reader reader bound to the type of elements (e.g. objectMapper.reader(Event.class))
+     * @param json UTF-8 encoded JSON array (nothing but whitespace is allowed after it)
+     * @param chunkSize approximate size of the chunk (in bytes) read by a single task
+     * @param executor executor to run tasks on (e.g. ForkJoinPool)
+     * @param <T> type of elements
+     * @return deserialized elements (in the order of appearance)
+     * @throws IOException if any of the chunks fails to be read
+     */
+    public static <T> List<T> readArray(ObjectReader reader, byte[] json, int chunkSize, ExecutorService executor)
+            throws IOException {
+        return readArray(reader, ByteBuffer.wrap(json), chunkSize, executor);
+    }
+
+    /**
+     * @param json UTF-8 encoded JSON array between position and limit of the buffer (e.g. memory-mapped file, see
+     * {@link java.nio.channels.FileChannel#map}), which is not modified in any way
+     * @see #readArray(ObjectReader, byte[], int, ExecutorService)
+     */
+    public static <T> List<T> readArray(ObjectReader reader, ByteBuffer json, int chunkSize, ExecutorService executor)
+            throws IOException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        List<Integer> bounds = split(json, chunkSize);
+        List<Future<List<T>>> futures = new ArrayList<Future<List<T>>>(bounds.size() - 1);
+        try {
+            for (int i = 0; i < bounds.size() - 1; i++) {
+                // chunk starts right after '[' or ',' and ends before the next ',' or ']'
+                int start = i == 0 ? bounds.get(i) : bounds.get(i) + 1;
+                futures.add(executor.submit(new ChunkReader<T>(reader, json.duplicate(), start, bounds.get(i + 1))));
+            }
+            List<T> result = new ArrayList<T>();
+            for (Future<List<T>> future : futures) {
+                result.addAll(future.get());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the chunks to be read");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            for (Future<List<T>> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * @return absolute positions of the opening bracket + 1, element separators chunks should be split at and the
+     * closing bracket (in that order)
+     * @throws JsonParseException if input is not a JSON array or there is anything but whitespace after it (same as
+     * with DeserializationFeature.FAIL_ON_TRAILING_TOKENS of later Jackson versions)
+     */
+    private static List<Integer> split(ByteBuffer json, int chunkSize) throws JsonParseException {
+        int limit = json.limit(), i = json.position();
+        while (i < limit && isWhitespace(json.get(i))) {
+            i++;
+        }
+        if (i == limit || json.get(i) != '[') {
+            throw new JsonParseException("Expected top-level JSON array", JsonLocation.NA);
+        }
+        List<Integer> result = new ArrayList<Integer>();
+        result.add(++i);
+        int depth = 1, chunkStart = i;
+        for (; i < limit; i++) {
+            switch (json.get(i)) {
+                case '"':
+                    i = skipString(json, i + 1, limit);
+                    break;
+                case '{':
+                case '[':
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    if (--depth == 0) {
+                        result.add(i);
+                        ensureNoTrailingTokens(json, i + 1, limit);
+                        return result;
+                    }
+                    break;
+                case ',':
+                    if (depth == 1 && i - chunkStart >= chunkSize) {
+                        result.add(i);
+                        chunkStart = i + 1;
+                    }
+                    break;
+                default:
+            }
+        }
+        throw new JsonParseException("Unexpected end of JSON array", JsonLocation.NA);
+    }
+
+    private static void ensureNoTrailingTokens(ByteBuffer json, int offset, int limit) throws JsonParseException {
+        for (int i = offset; i < limit; i++) {
+            if (!isWhitespace(json.get(i))) {
+                throw new JsonParseException("Trailing token (of type " + (char) json.get(i) + ") found after " +
+                    "top-level JSON array", JsonLocation.NA);
+            }
+        }
+    }
+
+    /**
+     * @return position of the closing quote
+     */
+    private static int skipString(ByteBuffer json, int offset, int limit) {
+        int i = offset;
+        for (; i < limit; i++) {
+            byte b = json.get(i);
+            if (b == '\\') {
+                i++;
+            } else if (b == '"') {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    /**
+     * Reads elements within [start, end) of the buffer (parsed right off the buffer, as an array of its own, so that
+     * locations reported by parser are relative to the chunk, see {@link CapturedValue}).
+     */
+    private static final class ChunkReader<T> implements Callable<List<T>> {
+
+        private final ObjectReader reader;
+        private final ByteBuffer json;
+        private final int start;
+        private final int end;
+
+        private ChunkReader(ObjectReader reader, ByteBuffer json, int start, int end) {
+            this.reader = reader;
+            this.json = json;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public List<T> call() throws IOException {
+            json.limit(end);
+            json.position(start);
+            List<T> result = new ArrayList<T>();
+            MappingIterator<T> iterator = reader.readValues(new ChunkInputStream(json));
+            while (iterator.hasNextValue()) {
+                result.add(iterator.nextValue());
+            }
+            return result;
+        }
+    }
+
+    /**
+     * {@link InputStream} over the remaining bytes of the buffer, enclosed in brackets.
+     */
+    private static final class ChunkInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+        private boolean opened;
+        private boolean closed;
+
+        private ChunkInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!opened) {
+                opened = true;
+                return '[';
+            }
+            if (buffer.hasRemaining()) {
+                return buffer.get() & 0xFF;
+            }
+            if (!closed) {
+                closed = true;
+                return ']';
+            }
+            return -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!opened || !buffer.hasRemaining()) {
+                int c = read();
+                if (c == -1) {
+                    return -1;
+                }
+                b[off] = (byte) c;
+                return 1;
+            }
+            int length = Math.min(len, buffer.remaining());
+            buffer.get(b, off, length);
+            return length;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return buffer.remaining() + (opened ? 0 : 1) + (closed ? 0 : 1);
+        }
+    }
+
+}
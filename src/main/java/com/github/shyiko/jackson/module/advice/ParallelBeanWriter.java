@@ -0,0 +1,276 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Writer of (large) lists, which serializes elements concurrently. List is split into chunks, each one serialized (as
+ * a list of its own) by a separate task into a buffer and written to the output (without enclosing brackets) in the
+ * original order, as soon as it (and all the preceding ones) is ready. Output is the same as of
+ * {@link ObjectWriter#writeValue(OutputStream, Object)} (separators are taken from the serialized lists of two and
+ * three elements), except that the stream is flushed but not closed. If layout cannot be determined up front (e.g.
+ * because it depends on the size of the list) or depends on the class of the list (e.g. because of the type
+ * information included for lists), the whole list is serialized sequentially instead. Serializers registered for the
+ * specific (non-ArrayList) list classes are not detected, so lists of such classes should be written with
+ * {@link ObjectWriter#writeValue(OutputStream, Object)}. Chunk which still doesn't fit the layout (e.g. because list
+ * serializer writes something depending on the elements) fails the whole write with JsonMappingException (output
+ * written so far is left as is, same as when any of the elements fails to be serialized).
+ * <p>
+ * Thread model: elements of a chunk are serialized one after another by a single thread (within its own writeValue
+ * call), while chunks are serialized concurrently, so advices must be thread-safe. Note that
+ * {@link BatchBeanSerializerAdvice}s are prepared for each chunk (rather than the whole list).
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public final class ParallelBeanWriter {
+
+    private ParallelBeanWriter() {
+    }
+
+    /**
+     * @param writer writer to serialize list (and chunks) with
+     * @param value list to serialize
+     * @param out stream to write JSON to
+     * @param chunkSize number of elements serialized by a single task
+     * @param executor executor to run tasks on (e.g. ForkJoinPool)
+     * @throws IOException if any of the chunks fails to be serialized or output cannot be written
+     */
+    public static void writeList(ObjectWriter writer, List<?> value, OutputStream out, int chunkSize,
+            ExecutorService executor) throws IOException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        // wrapper name depends on the type of the root value
+        if (value.size() <= chunkSize || writer.isEnabled(SerializationFeature.WRAP_ROOT_VALUE)) {
+            writeSequentially(writer, value, out);
+            return;
+        }
+        byte[][] layout = layout(writer, value);
+        if (layout == null) {
+            writeSequentially(writer, value, out);
+            return;
+        }
+        writeChunks(writer.withType(ArrayList.class), value, chunkSize, executor, layout, out);
+        out.flush();
+    }
+
+    private static void writeSequentially(ObjectWriter writer, List<?> value, OutputStream out) throws IOException {
+        writer.writeValue(new NonClosingOutputStream(out), value);
+        out.flush();
+    }
+
+    /**
+     * Serializes chunks (as ArrayLists) and writes them to the output, in order.
+     */
+    private static void writeChunks(ObjectWriter writer, List<?> value, int chunkSize, ExecutorService executor,
+            byte[][] layout, OutputStream out) throws IOException {
+        // buffers of the chunks already written to the output (reused by the tasks which are yet to be run)
+        Queue<ChunkBuffer> buffers = new ConcurrentLinkedQueue<ChunkBuffer>();
+        List<Future<ChunkBuffer>> futures = new ArrayList<Future<ChunkBuffer>>();
+        try {
+            for (int i = 0; i < value.size(); i += chunkSize) {
+                futures.add(executor.submit(new ChunkWriter(writer,
+                    new ArrayList<Object>(value.subList(i, Math.min(i + chunkSize, value.size()))), buffers)));
+            }
+            out.write(layout[0]);
+            for (int i = 0; i < futures.size(); i++) {
+                ChunkBuffer chunk = futures.get(i).get();
+                if (!chunk.fits(layout)) {
+                    throw new JsonMappingException("Chunk #" + i + " doesn't match the layout of the list");
+                }
+                if (i != 0) {
+                    out.write(layout[1]);
+                }
+                chunk.writeElementsTo(out, layout[0].length, layout[2].length);
+                buffers.offer(chunk);
+            }
+            out.write(layout[2]);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the chunks to be serialized");
+        } catch (ExecutionException e) {
+            throw rethrow(e);
+        } finally {
+            for (Future<ChunkBuffer> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * @return bytes preceding the first element, separating elements and following the last one (as of ArrayList,
+     * which chunks are serialized as), null if layout cannot be determined, depends on the size of the list or
+     * (unless list itself is an ArrayList) on the class of the list
+     */
+    private static byte[][] layout(ObjectWriter writer, List<?> value) throws IOException {
+        byte[][] layout = probeLayout(writer, new ArrayList<Object>(Arrays.asList(0, 0)));
+        if (layout == null ||
+                !Arrays.deepEquals(layout, probeLayout(writer, new ArrayList<Object>(Arrays.asList(0, 0, 0))))) {
+            return null;
+        }
+        if (value.getClass() == ArrayList.class) {
+            return layout;
+        }
+        byte[][] linkedListLayout = probeLayout(writer, new LinkedList<Object>(Arrays.asList(0, 0)));
+        return linkedListLayout != null && Arrays.deepEquals(layout, linkedListLayout) ? layout : null;
+    }
+
+    /**
+     * @param list list of zeros (2 or more)
+     * @return layout (see {@link #layout(ObjectWriter, List)}), null if elements are not separated by the same bytes
+     */
+    private static byte[][] probeLayout(ObjectWriter writer, List<Object> list) throws IOException {
+        byte[] probe = writer.withType(list.getClass()).writeValueAsBytes(list);
+        int[] positions = new int[list.size()];
+        for (int i = 0, offset = 0; i < positions.length; offset = positions[i++] + 1) {
+            positions[i] = indexOf(probe, offset);
+            if (positions[i] == -1) {
+                return null;
+            }
+        }
+        int last = positions[positions.length - 1];
+        if (indexOf(probe, last + 1) != -1) {
+            return null;
+        }
+        byte[] separator = Arrays.copyOfRange(probe, positions[0] + 1, positions[1]);
+        for (int i = 2; i < positions.length; i++) {
+            if (!Arrays.equals(separator, Arrays.copyOfRange(probe, positions[i - 1] + 1, positions[i]))) {
+                return null;
+            }
+        }
+        return new byte[][] {Arrays.copyOfRange(probe, 0, positions[0]), separator,
+            Arrays.copyOfRange(probe, last + 1, probe.length)};
+    }
+
+    private static int indexOf(byte[] bytes, int offset) {
+        for (int i = offset; i < bytes.length; i++) {
+            if (bytes[i] == '0') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(byte[] bytes, int offset, byte[] region) {
+        for (int i = 0; i < region.length; i++) {
+            if (bytes[offset + i] != region[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static IOException rethrow(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException) {
+            return (IOException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new JsonMappingException("Failed to serialize chunk", cause);
+    }
+
+    private static final class ChunkWriter implements Callable<ChunkBuffer> {
+
+        private final ObjectWriter writer;
+        private final List<?> chunk;
+        private final Queue<ChunkBuffer> buffers;
+
+        private ChunkWriter(ObjectWriter writer, List<?> chunk, Queue<ChunkBuffer> buffers) {
+            this.writer = writer;
+            this.chunk = chunk;
+            this.buffers = buffers;
+        }
+
+        @Override
+        public ChunkBuffer call() throws IOException {
+            ChunkBuffer buffer = buffers.poll();
+            if (buffer == null) {
+                buffer = new ChunkBuffer();
+            } else {
+                buffer.reset();
+            }
+            writer.writeValue(buffer, chunk);
+            return buffer;
+        }
+    }
+
+    /**
+     * ByteArrayOutputStream giving access to its content without copying it.
+     */
+    private static final class ChunkBuffer extends ByteArrayOutputStream {
+
+        private ChunkBuffer() {
+            super(8192);
+        }
+
+        private synchronized boolean fits(byte[][] layout) {
+            return count >= layout[0].length + layout[2].length && regionMatches(buf, 0, layout[0]) &&
+                regionMatches(buf, count - layout[2].length, layout[2]);
+        }
+
+        /**
+         * Writes content stripped of the given number of leading and trailing bytes.
+         */
+        private synchronized void writeElementsTo(OutputStream out, int prefixLength, int suffixLength)
+                throws IOException {
+            out.write(buf, prefixLength, count - prefixLength - suffixLength);
+        }
+    }
+
+    /**
+     * Stream, which (unlike the one it wraps) is left open by ObjectWriter.
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+}
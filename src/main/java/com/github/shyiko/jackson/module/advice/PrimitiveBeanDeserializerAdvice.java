@@ -0,0 +1,60 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import java.io.IOException;
+
+/**
+ * {@link IndexedBeanDeserializerAdvice} receiving scalar values of the (known) properties already decoded, straight
+ * from the parser's buffers (no intermediate {@link String} or wrapper). Which of the typed hooks is called depends on
+ * the current token:
+ * <ul>
+ *     <li>VALUE_NUMBER_INT - {@link #interceptInt(Object, int, int)} or {@link #interceptLong(Object, int, long)}
+ *     (depending on the magnitude)</li>
+ *     <li>VALUE_NUMBER_FLOAT - {@link #interceptDouble(Object, int, double)}</li>
+ *     <li>VALUE_TRUE/VALUE_FALSE - {@link #interceptBoolean(Object, int, boolean)}</li>
+ *     <li>VALUE_STRING - {@link #interceptText(Object, int, char[], int, int)}</li>
+ * </ul>
+ * Anything else (objects, arrays, nulls, big numbers, unknown/ignored properties) goes to
+ * {@link #intercept(Object, int, String, com.fasterxml.jackson.core.JsonParser,
+ * com.fasterxml.jackson.databind.DeserializationContext)}. Each of the typed hooks returns true if property
+ * deserialization has been taken care of and thus standard processing should not be run, false otherwise.
+ * @param <T> type of the bean this advice can be applied to
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public interface PrimitiveBeanDeserializerAdvice<T> extends IndexedBeanDeserializerAdvice<T> {
+
+    boolean interceptInt(T bean, int propertyIndex, int value) throws IOException;
+
+    boolean interceptLong(T bean, int propertyIndex, long value) throws IOException;
+
+    boolean interceptDouble(T bean, int propertyIndex, double value) throws IOException;
+
+    boolean interceptBoolean(T bean, int propertyIndex, boolean value) throws IOException;
+
+    /**
+     * @param bean bean instance
+     * @param propertyIndex index of the property
+     * @param text parser's buffer (valid only for the duration of the call)
+     * @param offset offset of the first character of the value
+     * @param length number of characters
+     * @return true if property deserialization has been taken care of and thus standard processing should not be run,
+     * false otherwise
+     * @throws IOException if anything goes wrong during json processing
+     */
+    boolean interceptText(T bean, int propertyIndex, char[] text, int offset, int length) throws IOException;
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+/**
+ * Token-based dispatch to the typed hooks of {@link PrimitiveBeanDeserializerAdvice}.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+final class PrimitiveIntercepts {
+
+    private PrimitiveIntercepts() {
+    }
+
+    /**
+     * @param json json parser (positioned at the value)
+     * @return true if current value can be passed to one of the typed hooks, false otherwise
+     * @throws IOException if anything goes wrong during json processing
+     */
+    public static boolean supports(JsonParser json) throws IOException {
+        switch (json.getCurrentToken()) {
+            case VALUE_NUMBER_INT:
+                JsonParser.NumberType numberType = json.getNumberType();
+                return numberType == JsonParser.NumberType.INT || numberType == JsonParser.NumberType.LONG;
+            case VALUE_NUMBER_FLOAT:
+                return json.getNumberType() != JsonParser.NumberType.BIG_DECIMAL;
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+            case VALUE_STRING:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Must be preceded by {@link #supports(JsonParser)}.
+     * @return value returned by the typed hook
+     */
+    @SuppressWarnings("unchecked")
+    public static boolean intercept(PrimitiveBeanDeserializerAdvice advice, Object bean, int propertyIndex,
+            JsonParser json) throws IOException {
+        switch (json.getCurrentToken()) {
+            case VALUE_NUMBER_INT:
+                return json.getNumberType() == JsonParser.NumberType.INT ?
+                    advice.interceptInt(bean, propertyIndex, json.getIntValue()) :
+                    advice.interceptLong(bean, propertyIndex, json.getLongValue());
+            case VALUE_NUMBER_FLOAT:
+                return advice.interceptDouble(bean, propertyIndex, json.getDoubleValue());
+            case VALUE_TRUE:
+                return advice.interceptBoolean(bean, propertyIndex, true);
+            case VALUE_FALSE:
+                return advice.interceptBoolean(bean, propertyIndex, false);
+            default:
+                return advice.interceptText(bean, propertyIndex, json.getTextCharacters(), json.getTextOffset(),
+                    json.getTextLength());
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable (name &lt;-&gt; index) mapping of bean properties. Indexes are 0-based, assigned once (when
+ * serializer/deserializer is built) and stay the same for all the contextual copies of serializer/deserializer
+ * (names are the ones declared by the bean, i.e. prior to any {@link com.fasterxml.jackson.annotation.JsonUnwrapped}
+ * prefixing/suffixing).
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public class PropertyIndex {
+
+    private final String[] names;
+    private final Map<String, Integer> indexes;
+
+    public PropertyIndex(String... names) {
+        this.names = names.clone();
+        this.indexes = new HashMap<String, Integer>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            indexes.put(names[i], i);
+        }
+    }
+
+    /**
+     * @param name property name
+     * @return index of the property, -1 if there is no property with such name
+     */
+    public int indexOf(String name) {
+        Integer index = indexes.get(name);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * @param index property index
+     * @return name of the property
+     * @throws IndexOutOfBoundsException if index is not within [0, {@link #size()})
+     */
+    public String nameOf(int index) {
+        return names[index];
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    @Override
+    public String toString() {
+        return indexes.toString();
+    }
+
+}
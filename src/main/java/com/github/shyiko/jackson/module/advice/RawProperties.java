@@ -0,0 +1,89 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Raw JSON of the bean properties passed through (see {@link AbstractPassThroughBeanDeserializerAdvice} and
+ * {@link AbstractPassThroughBeanSerializerAdvice}). Not thread-safe.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public final class RawProperties {
+
+    private final Map<String, CapturedValue> values = new LinkedHashMap<String, CapturedValue>();
+
+    /**
+     * @param name property name
+     * @return true if raw JSON of the property is available, false otherwise
+     */
+    public boolean contains(String name) {
+        return values.containsKey(name);
+    }
+
+    /**
+     * @return names of the properties raw JSON is available for (in the order they were read)
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(values.keySet());
+    }
+
+    /**
+     * Should be called when property is changed, so that bean's own value would be written instead of the raw one.
+     * @param name property name
+     * @return true if raw JSON of the property has been dropped, false if there was none
+     */
+    public boolean remove(String name) {
+        return values.remove(name) != null;
+    }
+
+    void capture(String name, JsonParser jp) throws IOException {
+        values.put(name, CapturedValue.capture(jp));
+    }
+
+    /**
+     * @return true if property has been written, false if there is no raw JSON available for it
+     */
+    boolean writeField(String name, JsonGenerator jgen) throws IOException {
+        CapturedValue value = values.get(name);
+        if (value == null) {
+            return false;
+        }
+        jgen.writeFieldName(name);
+        value.writeTo(jgen);
+        return true;
+    }
+
+    /**
+     * @param excludedNames names of the properties which shouldn't be written
+     */
+    void writeFields(JsonGenerator jgen, Set<String> excludedNames) throws IOException {
+        for (Map.Entry<String, CapturedValue> entry : values.entrySet()) {
+            if (!excludedNames.contains(entry.getKey())) {
+                jgen.writeFieldName(entry.getKey());
+                entry.getValue().writeTo(jgen);
+            }
+        }
+    }
+
+}
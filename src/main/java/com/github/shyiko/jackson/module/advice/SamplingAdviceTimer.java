@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+/**
+ * {@link AdviceTimer} recording (approximately) every N-th invocation of the hook. Each thread counts invocations on
+ * its own, so that hot path never writes to the memory shared with other threads. Chains built without metrics have
+ * no timers at all.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+final class SamplingAdviceTimer implements AdviceTimer {
+
+    private final AdviceTimer delegate;
+    private final int samplingInterval;
+    /**
+     * number of invocations left until the next sampled one (per thread)
+     */
+    private final ThreadLocal<int[]> countdown;
+
+    SamplingAdviceTimer(AdviceTimer delegate, final int samplingInterval) {
+        this.delegate = delegate;
+        this.samplingInterval = samplingInterval;
+        this.countdown = new ThreadLocal<int[]>() {
+
+            @Override
+            protected int[] initialValue() {
+                return new int[] {samplingInterval};
+            }
+        };
+    }
+
+    /**
+     * @return true if current invocation should be recorded, false otherwise
+     */
+    boolean sample() {
+        int[] left = countdown.get();
+        if (--left[0] > 0) {
+            return false;
+        }
+        left[0] = samplingInterval;
+        return true;
+    }
+
+    @Override
+    public void record(long nanos) {
+        delegate.record(nanos);
+    }
+
+}
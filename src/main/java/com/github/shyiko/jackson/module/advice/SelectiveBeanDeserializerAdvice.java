@@ -0,0 +1,34 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+/**
+ * {@link BeanDeserializerAdvice} declaring (upfront) names of the properties it intercepts. Affected entries are
+ * marked when deserializer is built, so that intercept is called only for them (any other property costs nothing but
+ * the usual property lookup).
+ * @param <T> type of the bean this advice can be applied to
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public interface SelectiveBeanDeserializerAdvice<T> extends BeanDeserializerAdvice<T> {
+
+    /**
+     * Called once (when deserializer is built).
+     * @return names of the properties (known, ignored or unknown) intercept should be called for, null if
+     * intercept should be called for all of them
+     */
+    String[] getInterceptedPropertyNames();
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.std.CollectionDeserializer;
+
+import java.io.IOException;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Collection deserializer diverting elements emitted by the advice (see {@link BeanStream}) to the sink registered
+ * for the type of the elements (if any) instead of adding them to the collection.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public class StreamingCollectionDeserializer extends CollectionDeserializer {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Class<?> elementType;
+
+    public StreamingCollectionDeserializer(CollectionDeserializer src) {
+        super(src);
+        this.elementType = src.getContentType().getRawClass();
+    }
+
+    @Override
+    public CollectionDeserializer createContextual(DeserializationContext ctxt, BeanProperty property)
+            throws JsonMappingException {
+        CollectionDeserializer contextual = super.createContextual(ctxt, property);
+        return contextual != this ? new StreamingCollectionDeserializer(contextual) : this;
+    }
+
+    @Override
+    public Collection<Object> deserialize(JsonParser jp, DeserializationContext ctxt, Collection<Object> result)
+            throws IOException {
+        BeanStream stream = BeanStream.open(ctxt, elementType);
+        if (stream == null) {
+            return super.deserialize(jp, ctxt, result);
+        }
+        boolean succeeded = false;
+        try {
+            super.deserialize(jp, ctxt, new StreamingCollection(result, stream));
+            succeeded = true;
+        } catch (SinkException e) {
+            throw (IOException) e.getCause();
+        } finally {
+            stream.close(ctxt, succeeded);
+        }
+        return result;
+    }
+
+    /**
+     * Collection view passing emitted elements to the stream and the rest to the actual collection.
+     */
+    private static final class StreamingCollection extends AbstractCollection<Object> {
+
+        private final Collection<Object> result;
+        private final BeanStream stream;
+
+        private StreamingCollection(Collection<Object> result, BeanStream stream) {
+            this.result = result;
+            this.stream = stream;
+        }
+
+        @Override
+        public boolean add(Object element) {
+            try {
+                return stream.offer(element) || result.add(element);
+            } catch (IOException e) {
+                throw new SinkException(e);
+            }
+        }
+
+        @Override
+        public Iterator<Object> iterator() {
+            return result.iterator();
+        }
+
+        @Override
+        public int size() {
+            return result.size();
+        }
+    }
+
+    /**
+     * Carrier of the {@link BeanSink} failure through {@link Collection#add(Object)}.
+     */
+    private static final class SinkException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private SinkException(IOException cause) {
+            super(cause);
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.introspect.AnnotatedField;
+import com.fasterxml.jackson.databind.introspect.AnnotationMap;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.PropertySerializerMap;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+import com.fasterxml.jackson.databind.util.SimpleBeanPropertyDefinition;
+
+/**
+ * {@link BeanPropertyWriter} of the {@link VirtualProperty}. BeanPropertyWriter (as of 2.3) requires a field or a
+ * method to be backed by, hence the (never accessed) placeholder field. Serialization logic is that of the
+ * BeanPropertyWriter, except for the value, which comes from {@link VirtualProperty.Accessor}.
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+@SuppressWarnings("unchecked")
+final class VirtualBeanPropertyWriter extends BeanPropertyWriter {
+
+    private static final AnnotatedField PLACEHOLDER;
+
+    static {
+        try {
+            PLACEHOLDER = new AnnotatedField(VirtualBeanPropertyWriter.class.getDeclaredField("placeholder"),
+                new AnnotationMap());
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object placeholder;
+
+    private final VirtualProperty.Accessor<Object, Object> accessor;
+    private final Class<?>[] views;
+
+    VirtualBeanPropertyWriter(SerializationConfig config, VirtualProperty<?, ?> property) {
+        super(SimpleBeanPropertyDefinition.construct(config, PLACEHOLDER, property.getName()), PLACEHOLDER,
+            new AnnotationMap(), config.constructType(property.getType()), null, null, null,
+            config.getSerializationInclusion() != JsonInclude.Include.ALWAYS,
+            config.getSerializationInclusion() == JsonInclude.Include.NON_EMPTY ? MARKER_FOR_EMPTY : null);
+        this.accessor = (VirtualProperty.Accessor<Object, Object>) property.getAccessor();
+        this.views = property.getViews();
+    }
+
+    private VirtualBeanPropertyWriter(VirtualBeanPropertyWriter src, SerializedString name) {
+        super(src, name);
+        this.accessor = src.accessor;
+        this.views = src.views;
+    }
+
+    @Override
+    public BeanPropertyWriter rename(NameTransformer transformer) {
+        String name = transformer.transform(getName());
+        return name.equals(getName()) ? this : new VirtualBeanPropertyWriter(this, new SerializedString(name));
+    }
+
+    @Override
+    public Class<?>[] getViews() {
+        return views;
+    }
+
+    @Override
+    public void serializeAsField(Object bean, JsonGenerator jgen, SerializerProvider prov) throws Exception {
+        Object value = accessor.get(bean);
+        if (value == null) {
+            if (_nullSerializer != null) {
+                jgen.writeFieldName(_name);
+                _nullSerializer.serialize(null, jgen, prov);
+            }
+            return;
+        }
+        JsonSerializer<Object> ser = findSerializer(value, prov);
+        if (_suppressableValue != null && (MARKER_FOR_EMPTY == _suppressableValue ? ser.isEmpty(value) :
+                _suppressableValue.equals(value))) {
+            return;
+        }
+        if (value == bean) {
+            _handleSelfReference(bean, ser);
+        }
+        jgen.writeFieldName(_name);
+        if (_typeSerializer == null) {
+            ser.serialize(value, jgen, prov);
+        } else {
+            ser.serializeWithType(value, jgen, prov, _typeSerializer);
+        }
+    }
+
+    @Override
+    public void serializeAsElement(Object bean, JsonGenerator jgen, SerializerProvider prov) throws Exception {
+        Object value = accessor.get(bean);
+        if (value == null) {
+            if (_nullSerializer != null) {
+                _nullSerializer.serialize(null, jgen, prov);
+            } else {
+                jgen.writeNull();
+            }
+            return;
+        }
+        JsonSerializer<Object> ser = findSerializer(value, prov);
+        if (_suppressableValue != null && (MARKER_FOR_EMPTY == _suppressableValue ? ser.isEmpty(value) :
+                _suppressableValue.equals(value))) {
+            serializeAsPlaceholder(bean, jgen, prov);
+            return;
+        }
+        if (value == bean) {
+            _handleSelfReference(bean, ser);
+        }
+        if (_typeSerializer == null) {
+            ser.serialize(value, jgen, prov);
+        } else {
+            ser.serializeWithType(value, jgen, prov, _typeSerializer);
+        }
+    }
+
+    private JsonSerializer<Object> findSerializer(Object value, SerializerProvider prov) throws Exception {
+        JsonSerializer<Object> ser = _serializer;
+        if (ser == null) {
+            Class<?> cls = value.getClass();
+            PropertySerializerMap map = _dynamicSerializers;
+            ser = map.serializerFor(cls);
+            if (ser == null) {
+                ser = _findAndAddDynamic(map, cls, prov);
+            }
+        }
+        return ser;
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+/**
+ * Declaration of the computed ("virtual") property (see {@link VirtualPropertyBeanSerializerAdvice}). Immutable.
+ * <p/>
+ * Example:
+ * <pre>
+ * VirtualProperty.of("fullName", String.class, new VirtualProperty.Accessor&lt;User, String&gt;() {
+ *
+ *     public String get(User bean) {
+ *         return bean.getFirstName() + " " + bean.getLastName();
+ *     }
+ * }).after("firstName");
+ * </pre>
+ * @param <T> type of the bean
+ * @param <V> type of the value
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public final class VirtualProperty<T, V> {
+
+    private final String name;
+    private final Class<V> type;
+    private final Accessor<? super T, ? extends V> accessor;
+    private final String anchor;
+    private final boolean beforeAnchor;
+    private final Class<?>[] views;
+
+    private VirtualProperty(String name, Class<V> type, Accessor<? super T, ? extends V> accessor, String anchor,
+            boolean beforeAnchor, Class<?>[] views) {
+        this.name = name;
+        this.type = type;
+        this.accessor = accessor;
+        this.anchor = anchor;
+        this.beforeAnchor = beforeAnchor;
+        this.views = views;
+    }
+
+    /**
+     * @param name name of the property
+     * @param type (declared) type of the value (used to resolve serializer upfront, when possible)
+     * @param accessor value accessor
+     * @param <T> type of the bean
+     * @param <V> type of the value
+     * @return property appended after all the regular ones
+     */
+    public static <T, V> VirtualProperty<T, V> of(String name, Class<V> type,
+            Accessor<? super T, ? extends V> accessor) {
+        return new VirtualProperty<T, V>(name, type, accessor, null, false, null);
+    }
+
+    /**
+     * @param propertyName name of the property this one should precede (if there is no such property, virtual one
+     * is appended after all the regular ones)
+     * @return copy of this property
+     */
+    public VirtualProperty<T, V> before(String propertyName) {
+        return new VirtualProperty<T, V>(name, type, accessor, propertyName, true, views);
+    }
+
+    /**
+     * @param propertyName name of the property this one should follow (if there is no such property, virtual one
+     * is appended after all the regular ones)
+     * @return copy of this property
+     */
+    public VirtualProperty<T, V> after(String propertyName) {
+        return new VirtualProperty<T, V>(name, type, accessor, propertyName, false, views);
+    }
+
+    /**
+     * @param views views property should be included in (same as {@link com.fasterxml.jackson.annotation.JsonView})
+     * @return copy of this property
+     */
+    public VirtualProperty<T, V> withViews(Class<?>... views) {
+        return new VirtualProperty<T, V>(name, type, accessor, anchor, beforeAnchor, views.clone());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<V> getType() {
+        return type;
+    }
+
+    public Accessor<? super T, ? extends V> getAccessor() {
+        return accessor;
+    }
+
+    /**
+     * @return name of the property this one is positioned relative to, null if it should go last
+     */
+    public String getAnchor() {
+        return anchor;
+    }
+
+    public boolean isBeforeAnchor() {
+        return beforeAnchor;
+    }
+
+    /**
+     * @return views property should be included in, null if property is not bound to any
+     */
+    public Class<?>[] getViews() {
+        return views != null ? views.clone() : null;
+    }
+
+    /**
+     * @param <T> type of the bean
+     * @param <V> type of the value
+     */
+    public interface Accessor<T, V> {
+
+        /**
+         * @param bean bean instance
+         * @return value of the property
+         * @throws Exception if value cannot be obtained (wrapped the same way exceptions thrown by getters are)
+         */
+        V get(T bean) throws Exception;
+    }
+
+}
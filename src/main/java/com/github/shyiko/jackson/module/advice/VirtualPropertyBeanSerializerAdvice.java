@@ -0,0 +1,36 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice;
+
+import java.util.List;
+
+/**
+ * {@link BeanSerializerAdvice} declaring computed ("virtual") properties. Unlike the fields written from within the
+ * hooks, virtual properties are turned into regular BeanPropertyWriters (when serializer is built) and so take part
+ * in views, filters, {@link com.fasterxml.jackson.annotation.JsonFormat.Shape#ARRAY} shape, etc. (and cost no more
+ * than the regular properties do).
+ * @param <T> type of the bean this advice can be applied to
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+public interface VirtualPropertyBeanSerializerAdvice<T> extends BeanSerializerAdvice<T> {
+
+    /**
+     * Called once (when serializer is built), before property index (if any) is resolved.
+     * @return virtual properties (in the order they should be added)
+     */
+    List<VirtualProperty<T, ?>> getVirtualProperties();
+
+}
@@ -15,15 +15,55 @@
  */
 package com.github.shyiko.jackson.module.advice;
 
+import com.fasterxml.jackson.annotation.JacksonInject;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeId;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+import com.github.shyiko.jackson.module.advice.registry.GeneratedAdviceRegistry;
+import org.testng.SkipException;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 /**
  * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
@@ -46,6 +86,633 @@ public class JsonAdviceModuleTest {
                 new User("Sponge", "Bob", "loves you"));
     }
 
+    @Test
+    public void testBeanScopedSerialization() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule());
+        objectMapper.addMixInAnnotations(User.class, BeanScopedUserMixin.class);
+        assertEquals(objectMapper.writeValueAsString(new User("Sponge", "Bob", "loves you")),
+                "{\"self\":\"/users/Sponge\",\"firstName\":\"Sponge\",\"lastName\":\"Bob\"}");
+    }
+
+    @Test
+    public void testPropertyScopedAdvice() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule());
+        objectMapper.addMixInAnnotations(User.class, PropertyScopedUserMixin.class);
+        assertEquals(objectMapper.writeValueAsString(new User("Sponge", "Bob", "loves you")),
+                "{\"firstName\":\"Sponge\",\"fieldInTheMiddle\":\"value\",\"lastName\":\"Bob\"}");
+        assertEquals(objectMapper.readValue("{\"firstName\":\"Sponge\",\"lastName\":\"Bob\"}", User.class),
+                new User("Sponge", "BOB", null));
+    }
+
+    @Test
+    public void testIndexedAdvice() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule());
+        objectMapper.addMixInAnnotations(User.class, IndexedUserMixin.class);
+        assertEquals(objectMapper.writeValueAsString(new User("Sponge", "Bob", "loves you")),
+                "{\"firstName\":\"Sponge\",\"fieldInTheMiddle\":\"value\",\"lastName\":\"Bob\"}");
+        assertEquals(objectMapper.readValue("{\"firstName\":\"Sponge\",\"lastName\":\"Bob\"}", User.class),
+                new User("Sponge", "BOB", null));
+    }
+
+    @Test
+    public void testCodeGeneration() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule().withCodeGeneration(true));
+        SerializerProvider serializerProvider = new DefaultSerializerProvider.Impl().createInstance(
+                objectMapper.getSerializationConfig(), objectMapper.getSerializerFactory());
+        JsonSerializer<Object> serializer = serializerProvider.findValueSerializer(User.class, null);
+        String generatedClassNamePrefix = User.class.getName() + "$$AdvisedBeanSerializer$$";
+        assertTrue(serializer.getClass().getName().startsWith(generatedClassNamePrefix));
+        assertEquals(objectMapper.writeValueAsString(new User("Sponge", "Bob", "loves you")),
+                "{\"firstName\":\"Sponge\",\"fieldInTheMiddle\":\"value\",\"lastName\":\"Bob\"}");
+        // contextual copies are generated too
+        assertTrue(serializer.unwrappingSerializer(NameTransformer.simpleTransformer("captain.", "")).getClass().
+                getName().startsWith(generatedClassNamePrefix));
+        assertEquals(objectMapper.writeValueAsString(new Account("sponge", new User("Sponge", "Bob", null))),
+                "{\"login\":\"sponge\",\"firstName\":\"Sponge\",\"fieldInTheMiddle\":\"value\"," +
+                "\"lastName\":\"Bob\"}");
+        assertEquals(objectMapper.writeValueAsString(new Team(new User("Sponge", "Bob", null))),
+                "{\"captain\":{\"firstName\":\"Sponge\",\"fieldInTheMiddle\":\"value\"}}");
+        try {
+            objectMapper.writeValueAsString(new User(null, "Bob", "loves you") {
+                public String getFirstName() {
+                    throw new IllegalStateException();
+                }
+            });
+            fail();
+        } catch (JsonMappingException e) {
+            assertTrue(e.getMessage().contains("firstName"), e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCodeGenerationOfChainedAndIndexedAdvices() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule().withCodeGeneration(true).
+                withMetrics(new AdviceMetricsRegistry()).
+                withSerializerAdvice(User.class, VersionedUserSerializationAdvice.class));
+        objectMapper.addMixInAnnotations(User.class, ChainedUserMixin.class);
+        SerializerProvider serializerProvider = new DefaultSerializerProvider.Impl().createInstance(
+                objectMapper.getSerializationConfig(), objectMapper.getSerializerFactory());
+        assertTrue(serializerProvider.findValueSerializer(User.class, null).getClass().getName().
+                startsWith(User.class.getName() + "$$AdvisedBeanSerializer$$"));
+        assertEquals(objectMapper.writeValueAsString(new User("Sponge", "Bob", "loves you")),
+                "{\"self\":\"/users/Sponge\",\"firstName\":\"Sponge\",\"fieldInTheMiddle\":\"value\"," +
+                "\"lastName\":\"Bob\",\"version\":1}");
+        objectMapper = objectMapper(new JsonAdviceModule().withCodeGeneration(true));
+        objectMapper.addMixInAnnotations(User.class, IndexedUserMixin.class);
+        assertEquals(objectMapper.writeValueAsString(new User("Sponge", "Bob", "loves you")),
+                "{\"firstName\":\"Sponge\",\"fieldInTheMiddle\":\"value\",\"lastName\":\"Bob\"}");
+    }
+
+    @Test
+    public void testCodeGenerationUsingLookup() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule().withCodeGeneration(true));
+        SerializerProvider serializerProvider = new DefaultSerializerProvider.Impl().createInstance(
+                objectMapper.getSerializationConfig(), objectMapper.getSerializerFactory());
+        AdvisedBeanSerializer serializer =
+                (AdvisedBeanSerializer) serializerProvider.findValueSerializer(Shelf.class, null);
+        String className = Shelf.class.getName() + "$$LookupDefinedSerializer";
+        Class<?> generatedClass = AdvisedBeanSerializerGenerator.defineClassUsingLookup(Shelf.class,
+                AdvisedBeanSerializerGenerator.generateClass(serializer, className, true));
+        if (generatedClass == null) {
+            throw new SkipException("MethodHandles.Lookup.defineClass requires Java 9+");
+        }
+        assertEquals(generatedClass.getName(), className);
+        assertEquals(generatedClass.getClassLoader(), Shelf.class.getClassLoader());
+        JsonSerializer<Object> generatedSerializer = (JsonSerializer<Object>) generatedClass.
+                getConstructor(AdvisedBeanSerializer.class).newInstance(serializer);
+        StringWriter writer = new StringWriter();
+        JsonGenerator jsonGenerator = objectMapper.getFactory().createGenerator(writer);
+        generatedSerializer.serialize(new Shelf("fiction", 2, "Dune"), jsonGenerator, serializerProvider);
+        jsonGenerator.flush();
+        assertEquals(writer.toString(),
+                "{\"label\":\"fiction\",\"books\":[\"Dune\"],\"capacity\":2,\"free\":1}");
+    }
+
+    @Test
+    public void testBatchPreparation() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule());
+        objectMapper.addMixInAnnotations(User.class, BatchUserMixin.class);
+        assertEquals(objectMapper.writeValueAsString(Arrays.asList(new User("Sponge", "Bob", null),
+                new User("Patrick", "Star", null))),
+                "[{\"batch\":\"Sponge,Patrick\",\"firstName\":\"Sponge\",\"lastName\":\"Bob\"}," +
+                "{\"batch\":\"Sponge,Patrick\",\"firstName\":\"Patrick\",\"lastName\":\"Star\"}]");
+        assertEquals(objectMapper.writeValueAsString(new User("Sponge", "Bob", null)),
+                "{\"batch\":null,\"firstName\":\"Sponge\",\"lastName\":\"Bob\"}");
+        // elements not covered by the advice split collection into batches (each prepared on its own)
+        assertEquals(objectMapper.writeValueAsString(Arrays.asList(new User("Sponge", "Bob", null), null, "Star",
+                new User("Patrick", "Star", null))),
+                "[{\"batch\":\"Sponge\",\"firstName\":\"Sponge\",\"lastName\":\"Bob\"},null,\"Star\"," +
+                "{\"batch\":\"Patrick\",\"firstName\":\"Patrick\",\"lastName\":\"Star\"}]");
+        assertEquals(objectMapper.writeValueAsString(new LinkedHashSet<Object>(Arrays.asList(
+                new User("Sponge", "Bob", null), new User("Patrick", "Star", null)))),
+                "[{\"batch\":\"Sponge,Patrick\",\"firstName\":\"Sponge\",\"lastName\":\"Bob\"}," +
+                "{\"batch\":\"Sponge,Patrick\",\"firstName\":\"Patrick\",\"lastName\":\"Star\"}]");
+        Map<String, Object> map = new LinkedHashMap<String, Object>();
+        map.put("users", Arrays.asList(new User("Sponge", "Bob", null)));
+        map.put("owner", new User("Patrick", "Star", null));
+        assertEquals(objectMapper.writeValueAsString(map),
+                "{\"users\":[{\"batch\":\"Sponge\",\"firstName\":\"Sponge\",\"lastName\":\"Bob\"}]," +
+                "\"owner\":{\"batch\":null,\"firstName\":\"Patrick\",\"lastName\":\"Star\"}}");
+    }
+
+    @Test
+    public void testAdviceRegistryLookup() throws Exception {
+        int instances = GeneratedAdviceRegistry.INSTANCES.get();
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule());
+        assertEquals(objectMapper.writeValueAsString(new GeneratedAdviceRegistry.Badge()),
+                "{\"indexed\":true,\"label\":\"gold\"}");
+        assertEquals(objectMapper.readValue("{\"label\":\"silver\"}", GeneratedAdviceRegistry.Badge.class).label,
+                "silver");
+        // registry of the package is looked up once (by name)
+        assertEquals(GeneratedAdviceRegistry.INSTANCES.get(), instances + 1);
+        objectMapper = objectMapper(new JsonAdviceModule().withAdviceRegistry(null));
+        assertEquals(objectMapper.writeValueAsString(new GeneratedAdviceRegistry.Badge()), "{\"label\":\"gold\"}");
+        assertEquals(GeneratedAdviceRegistry.INSTANCES.get(), instances + 1);
+    }
+
+    @Test
+    public void testArrayShape() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule());
+        objectMapper.addMixInAnnotations(User.class, ArrayShapedUserMixin.class);
+        assertEquals(objectMapper.writeValueAsString(new User("Sponge", "Bob", "loves you")),
+                "[\"Sponge\",\"BOB\",\"/users/Sponge\"]");
+    }
+
+    @Test
+    public void testAdviceChain() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule().
+                withSerializerAdvice(User.class, VersionedUserSerializationAdvice.class).
+                withDeserializerAdvice(User.class, IndexedUserDeserializationAdvice.class));
+        objectMapper.addMixInAnnotations(User.class, ChainedUserMixin.class);
+        assertEquals(objectMapper.writeValueAsString(new User("Sponge", "Bob", "loves you")),
+                "{\"self\":\"/users/Sponge\",\"firstName\":\"Sponge\",\"fieldInTheMiddle\":\"value\"," +
+                "\"lastName\":\"Bob\",\"version\":1}");
+        assertEquals(objectMapper.readValue("{\"firstName\":\"Sponge\",\"lastName\":\"Bob\"," +
+                "\"password\":\"loves you\"}", User.class), new User("Sponge", "BOB", "loves you"));
+    }
+
+    @Test
+    public void testAdviceContext() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule());
+        objectMapper.addMixInAnnotations(User.class, ContextualUserMixin.class);
+        assertEquals(objectMapper.writeValueAsString(Arrays.asList(new User("Sponge", "Bob", null),
+                new User("Patrick", "Star", null))),
+                "[{\"firstName\":\"Sponge\",\"lastName\":\"Bob\",\"propertyCount\":2}," +
+                "{\"firstName\":\"Patrick\",\"lastName\":\"Star\",\"propertyCount\":2}]");
+        assertEquals(objectMapper.readValue("{\"firstName\":\"Sponge\",\"lastName\":\"Bob\"}", User.class),
+                new User("Sponge", "Bob", "firstName,lastName,"));
+        // hooks are called on the advice bound to the context of the bean (chain binds its members)
+        ContextualUserSerializationAdvice advice = new ContextualUserSerializationAdvice();
+        BeanSerializerAdvice<User> bound = advice.enter();
+        try {
+            assertTrue(bound != advice && bound == advice.current());
+        } finally {
+            advice.exit();
+        }
+        objectMapper = objectMapper(new JsonAdviceModule().withMetrics(new AdviceMetricsRegistry()));
+        objectMapper.addMixInAnnotations(User.class, ContextualUserMixin.class);
+        assertEquals(objectMapper.writeValueAsString(Arrays.asList(new User("Sponge", "Bob", null),
+                new User("Patrick", "Star", null))),
+                "[{\"firstName\":\"Sponge\",\"lastName\":\"Bob\",\"propertyCount\":2}," +
+                "{\"firstName\":\"Patrick\",\"lastName\":\"Star\",\"propertyCount\":2}]");
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        AdviceMetricsRegistry metrics = new AdviceMetricsRegistry();
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule().withMetrics(metrics));
+        assertEquals(objectMapper.writeValueAsString(new User("Sponge", "Bob", "loves you")),
+                "{\"firstName\":\"Sponge\",\"fieldInTheMiddle\":\"value\",\"lastName\":\"Bob\"}");
+        assertEquals(objectMapper.readValue("{\"firstName\":\"Sponge\",\"lastName\":\"Bob\"," +
+                "\"password\":\"loves you\"}", User.class), new User("Sponge", "Bob", "loves you"));
+        Map<AdviceHook, AdviceMetricsSnapshot> snapshots = new LinkedHashMap<AdviceHook, AdviceMetricsSnapshot>();
+        for (AdviceMetricsSnapshot snapshot : metrics.snapshot()) {
+            snapshots.put(snapshot.getHook(), snapshot);
+        }
+        assertEquals(snapshots.size(), 2);
+        AdviceMetricsSnapshot serialization = snapshots.get(AdviceHook.SERIALIZATION_PROPERTY);
+        assertEquals(serialization.getAdviceClass(), UserSerializationAdvice.class);
+        assertEquals(serialization.getCount(), 2); // after(firstName), after(lastName)
+        assertTrue(serialization.getPercentileNanos(0.99) >= serialization.getPercentileNanos(0.5));
+        AdviceMetricsSnapshot deserialization = snapshots.get(AdviceHook.DESERIALIZATION_PROPERTY);
+        assertEquals(deserialization.getAdviceClass(), UserDeserializationAdvice.class);
+        assertEquals(deserialization.getCount(), 3);
+        // batch advices remain batch-aware when instrumented
+        objectMapper = objectMapper(new JsonAdviceModule().withMetrics(new AdviceMetricsRegistry(2)));
+        objectMapper.addMixInAnnotations(User.class, BatchUserMixin.class);
+        assertEquals(objectMapper.writeValueAsString(Arrays.asList(new User("Sponge", "Bob", null))),
+                "[{\"batch\":\"Sponge\",\"firstName\":\"Sponge\",\"lastName\":\"Bob\"}]");
+        // each hook is sampled on its own (no advice is starved by the others)
+        metrics = new AdviceMetricsRegistry(2);
+        BeanSerializerAdvice chain = BeanSerializerAdviceChain.compose(
+                Arrays.<Class<? extends BeanSerializerAdvice>>asList(NoopSerializationAdvice.class,
+                        AnotherNoopSerializationAdvice.class), metrics);
+        for (int i = 0; i < 4; i++) {
+            chain.after(null, null, null);
+        }
+        List<AdviceMetricsSnapshot> chainSnapshots = metrics.snapshot();
+        assertEquals(chainSnapshots.size(), 2);
+        for (AdviceMetricsSnapshot snapshot : chainSnapshots) {
+            assertEquals(snapshot.getCount(), 2);
+        }
+    }
+
+    @Test
+    public void testObjectIdAndUnwrapping() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule());
+        User user = new User("Sponge", "Bob", null);
+        assertEquals(objectMapper.writeValueAsString(new Account("sponge", user)),
+                "{\"login\":\"sponge\",\"firstName\":\"Sponge\",\"fieldInTheMiddle\":\"value\"," +
+                "\"lastName\":\"Bob\"}");
+        objectMapper = objectMapper(new JsonAdviceModule());
+        objectMapper.addMixInAnnotations(User.class, IdentifiedUserMixin.class);
+        assertEquals(objectMapper.writeValueAsString(Arrays.asList(user, user)),
+                "[{\"@id\":1,\"firstName\":\"Sponge\",\"fieldInTheMiddle\":\"value\",\"lastName\":\"Bob\"},1]");
+    }
+
+    @Test
+    public void testTypeIdAndInjection() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule());
+        assertEquals(objectMapper.writeValueAsString(new Parcel("box", "socks")),
+                "{\"type\":\"box\",\"content\":\"socks\"}");
+        objectMapper.setInjectableValues(new InjectableValues.Std().addValue("author", "Sponge"));
+        Memo memo = objectMapper.readValue("{\"note\":\"n\"}", Memo.class);
+        assertEquals(memo.author, "Sponge");
+        assertEquals(memo.note, "N");
+    }
+
+    @Test
+    public void testFragmentCaching() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule());
+        objectMapper.addMixInAnnotations(User.class, CachingUserMixin.class);
+        FragmentCache fragmentCache = CachingUserSerializationAdvice.FRAGMENT_CACHE;
+        fragmentCache.clear();
+        long hitCount = fragmentCache.getHitCount(), missCount = fragmentCache.getMissCount(),
+            evictionCount = fragmentCache.getEvictionCount();
+        String expected = "{\"links\":[{\"rel\":\"self\",\"href\":\"/users/Sponge\"}]," +
+                "\"firstName\":\"Sponge\",\"lastName\":\"Bob\"}";
+        assertEquals(objectMapper.writeValueAsString(new User("Sponge", "Bob", null)), expected);
+        assertEquals(objectMapper.writeValueAsString(new User("Sponge", "Bob", null)), expected);
+        assertEquals(fragmentCache.getMissCount() - missCount, 1);
+        assertEquals(fragmentCache.getHitCount() - hitCount, 1);
+        assertEquals(objectMapper.writeValueAsString(Arrays.asList(new User("Patrick", "Star", null),
+                new User("Sponge", "Bob", null))),
+                "[{\"links\":[{\"rel\":\"self\",\"href\":\"/users/Patrick\"}]," +
+                "\"firstName\":\"Patrick\",\"lastName\":\"Star\"}," + expected + "]");
+        // cache is limited to 1 entry
+        assertEquals(fragmentCache.getMissCount() - missCount, 3);
+        assertEquals(fragmentCache.getEvictionCount() - evictionCount, 2);
+        assertEquals(fragmentCache.size(), 1);
+        // least recently accessed entry goes first
+        fragmentCache = new FragmentCache(2, 1, TimeUnit.MINUTES);
+        fragmentCache.put("a", "1".toCharArray());
+        fragmentCache.put("b", "2".toCharArray());
+        Thread.sleep(1);
+        assertEquals(fragmentCache.get("a"), "1".toCharArray());
+        fragmentCache.put("c", "3".toCharArray());
+        assertEquals(fragmentCache.size(), 2);
+        assertEquals(fragmentCache.get("b"), null);
+        assertEquals(fragmentCache.get("a"), "1".toCharArray());
+    }
+
+    @Test
+    public void testFieldInjection() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule());
+        objectMapper.addMixInAnnotations(User.class, FieldInjectingUserMixin.class);
+        assertEquals(objectMapper.writeValueAsString(new User("Sponge", "Bob", null)),
+                "{\"self\":\"/users/Sponge\",\"kind\":\"user\",\"links\":[{\"rel\":\"self\"," +
+                "\"href\":\"/users/Sponge\"}],\"firstName\":\"Sponge\",\"lastName\":\"Bob\"}");
+    }
+
+    @Test
+    public void testVirtualProperties() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule());
+        objectMapper.addMixInAnnotations(User.class, VirtualPropertyUserMixin.class);
+        User user = new User("Sponge", "Bob", null);
+        assertEquals(objectMapper.writeValueAsString(user),
+                "{\"initials\":\"SB\",\"firstName\":\"Sponge\",\"fullName\":\"Sponge Bob\"," +
+                "\"lastName\":\"Bob\"}");
+        assertEquals(objectMapper.writerWithView(Object.class).writeValueAsString(user),
+                "{\"firstName\":\"Sponge\",\"fullName\":\"Sponge Bob\",\"lastName\":\"Bob\"}");
+        assertEquals(objectMapper.writerWithView(InternalView.class).writeValueAsString(new User("Sponge", null, null)),
+                "{\"initials\":\"S\",\"firstName\":\"Sponge\",\"fullName\":null,\"lastName\":null}");
+    }
+
+    @Test
+    public void testPropertyBasedCreator() throws Exception {
+        CachingAdviceFactory adviceFactory = new CachingAdviceFactory();
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule().withAdviceFactory(adviceFactory));
+        Login login = objectMapper.readValue("{\"name\":\"sponge\",\"secret\":\"bob\",\"role\":\"admin\"}",
+            Login.class);
+        assertEquals(login.name, "sponge");
+        assertEquals(login.password, "BOB");
+        assertEquals(login.role, "ADMIN");
+        assertEquals(login.trace, "before,after");
+        // properties preceding the creation are intercepted right after before
+        login = objectMapper.readValue("{\"role\":\"admin\",\"name\":\"sponge\",\"password\":\"bob\"}",
+            Login.class);
+        assertEquals(login.password, "bob");
+        assertEquals(login.role, "ADMIN");
+        assertEquals(login.trace, "before,after");
+        // intercepted (regular) properties are never passed to interceptBeforeCreation
+        assertEquals(adviceFactory.getAdvice(CreatorLoginDeserializationAdvice.class).interceptedBeforeCreation,
+            Arrays.asList("name", "secret", "name", "password"));
+        // nothing is kept aside for the advice which doesn't intercept (hence property is set by the time of before)
+        Badge badge = objectMapper.readValue("{\"title\":\"chief\",\"id\":\"1\"}", Badge.class);
+        assertEquals(badge.id, "1");
+        assertEquals(badge.trace, "before:chief");
+    }
+
+    @Test
+    public void testUnwrappingAndExternalTypeId() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule());
+        List<Envelope> envelopes = objectMapper.readValue("[" +
+            "{\"firstName\":\"Sponge\",\"id\":\"1\",\"note\":\"n\",\"lastName\":\"Bob\",\"password\":\"x\"}," +
+            "{\"note\":\"m\",\"firstName\":\"Patrick\",\"lastName\":\"Star\",\"id\":\"2\"}]",
+            new TypeReference<List<Envelope>>() {});
+        assertEquals(envelopes.get(0).id, "1");
+        assertEquals(envelopes.get(0).user, new User("Sponge", "Bob", "x"));
+        assertEquals(envelopes.get(0).note, "N");
+        assertEquals(envelopes.get(0).trace, "before,after");
+        assertEquals(envelopes.get(1).id, "2");
+        assertEquals(envelopes.get(1).user, new User("Patrick", "Star", null));
+        assertEquals(envelopes.get(1).note, "M");
+        assertEquals(envelopes.get(1).trace, "before,after");
+        Shipment shipment = objectMapper.readValue("{\"id\":\"1\",\"payloadType\":\"user\"," +
+            "\"payload\":{\"firstName\":\"Sponge\",\"lastName\":\"Bob\"},\"note\":\"n\"}", Shipment.class);
+        assertEquals(shipment.id, "1");
+        assertEquals(shipment.payload, new User("Sponge", "Bob", null));
+        assertEquals(shipment.note, "N");
+        assertEquals(shipment.trace, "before,after");
+        shipment = objectMapper.readValue("{\"payloadType\":\"user\",\"payload\":{\"firstName\":\"Sponge\"}," +
+            "\"note\":\"n\",\"id\":\"1\"}", Shipment.class);
+        assertEquals(shipment.payload, new User("Sponge", null, null));
+        assertEquals(shipment.note, "N");
+        assertEquals(shipment.trace, "before,after");
+    }
+
+    @Test
+    public void testSelectiveAdvice() throws Exception {
+        String json = "{\"firstName\":\"Sponge\",\"lastName\":\"Bob\",\"password\":\"loves you\"}";
+        CachingAdviceFactory adviceFactory = new CachingAdviceFactory();
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule().withAdviceFactory(adviceFactory));
+        objectMapper.addMixInAnnotations(User.class, SelectiveUserMixin.class);
+        assertEquals(objectMapper.readValue(json, User.class), new User("Sponge", "BOB", null));
+        assertEquals(adviceFactory.getAdvice(SelectiveLastNameDeserializationAdvice.class).intercepted,
+                Arrays.asList("lastName"));
+        // chain intercepts the union of the declared names (each member getting only the ones it declared)
+        adviceFactory = new CachingAdviceFactory();
+        objectMapper = objectMapper(new JsonAdviceModule().withAdviceFactory(adviceFactory).
+                withDeserializerAdvice(User.class, SelectivePasswordDeserializationAdvice.class));
+        objectMapper.addMixInAnnotations(User.class, SelectiveUserMixin.class);
+        assertEquals(objectMapper.readValue(json, User.class), new User("Sponge", "BOB", "loves you"));
+        assertEquals(adviceFactory.getAdvice(SelectiveLastNameDeserializationAdvice.class).intercepted,
+                Arrays.asList("lastName"));
+        assertEquals(adviceFactory.getAdvice(SelectivePasswordDeserializationAdvice.class).intercepted,
+                Arrays.asList("password"));
+    }
+
+    @Test
+    public void testPrimitiveAdvice() throws Exception {
+        String json = "{\"count\":21,\"timestamp\":1400000000000,\"ratio\":0.5,\"active\":false," +
+            "\"unit\":\"ms\",\"tags\":[\"a\"]}";
+        // standalone and as a member of the (instrumented) chain
+        for (JsonAdviceModule module : Arrays.asList(new JsonAdviceModule(),
+                new JsonAdviceModule().withMetrics(new AdviceMetricsRegistry(2)))) {
+            Sample sample = objectMapper(module).readValue(json, Sample.class);
+            assertEquals(sample.count, 42);
+            assertEquals(sample.timestamp, 1400000000L);
+            assertEquals(sample.ratio, 50.0);
+            assertTrue(sample.active);
+            assertEquals(sample.unit, "MS");
+            assertEquals(sample.tags, Arrays.asList("a"));
+        }
+    }
+
+    @Test
+    public void testStreaming() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule());
+        String json = "[{\"id\":1},{\"id\":2},{\"id\":3},{\"id\":5},{\"id\":4}]";
+        final List<List<Integer>> batches = new ArrayList<List<Integer>>();
+        BeanSink<Event> sink = new BeanSink<Event>() {
+
+            @Override
+            public void accept(List<Event> beans) throws IOException {
+                List<Integer> ids = new ArrayList<Integer>();
+                for (Event event : beans) {
+                    ids.add(event.id);
+                }
+                batches.add(ids);
+            }
+        };
+        ObjectReader reader = BeanStream.withSink(objectMapper.reader(new TypeReference<List<Event>>() {}),
+            Event.class, 2, sink);
+        List<Event> events = reader.readValue(json);
+        // EventDeserializationAdvice keeps multiples of 5
+        assertEquals(events.size(), 1);
+        assertEquals(events.get(0).id, 5);
+        assertEquals(batches, Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 4)));
+        // no sink, nothing is emitted
+        List<Event> all = objectMapper.readValue(json, new TypeReference<List<Event>>() {});
+        assertEquals(all.size(), 5);
+        batches.clear();
+        assertEquals(BeanStream.drain(objectMapper.reader(Event.class).<Event>readValues(json), 2, sink), 5);
+        assertEquals(batches, Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 5), Arrays.asList(4)));
+    }
+
+    @Test
+    public void testLazyProperties() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule());
+        String json = "{\"title\":\"q3\",\"rows\":[{\"id\":1},{\"id\":\"two\"}],\"summary\":{\"id\":3}}";
+        // raw span (byte[] input) and token buffer (anything else)
+        for (Report report : new Report[] {objectMapper.readValue(json.getBytes("UTF-8"), Report.class),
+                objectMapper.readValue(json, Report.class)}) {
+            assertEquals(report.title, "q3");
+            assertFalse(report.rows.isMaterialized());
+            assertTrue(report.summary.isMaterialized());
+            assertEquals(report.summary.get().id, 3);
+            assertEquals(objectMapper.writeValueAsString(report), json);
+            try {
+                report.rows.get();
+                fail();
+            } catch (IllegalStateException e) {
+                // "two" is not an int, which goes unnoticed until rows are accessed
+                assertTrue(e.getCause() instanceof JsonMappingException, e.getMessage());
+            }
+        }
+        Report report = objectMapper.readValue(json.replace("\"two\"", "2").getBytes("UTF-8"), Report.class);
+        assertEquals(report.rows.get().get(1).id, 2);
+        assertTrue(report.rows.isMaterialized());
+        assertEquals(objectMapper.writeValueAsString(report), json.replace("\"two\"", "2"));
+    }
+
+    @Test
+    public void testPassThrough() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule());
+        String json = "{\"id\":7,\"status\":\"NEW\",\"items\":[{\"sku\":\"a\", \"qty\":1}],\"meta\":{\"tags\":[1]}}";
+        Order order = objectMapper.readValue(json.getBytes("UTF-8"), Order.class);
+        assertEquals(order.items, null);
+        order.status = "SHIPPED";
+        // raw span (byte[] input) is written verbatim
+        assertEquals(objectMapper.writeValueAsString(order), json.replace("NEW", "SHIPPED"));
+        // token buffer (anything else) is re-encoded
+        order = objectMapper.readValue(json, Order.class);
+        assertEquals(objectMapper.writeValueAsString(order), json.replace(", ", ","));
+        order.rawProperties.remove("items");
+        assertEquals(objectMapper.writeValueAsString(order),
+            "{\"id\":7,\"status\":\"NEW\",\"items\":null,\"meta\":{\"tags\":[1]}}");
+        // sub-range of byte[] (locations are relative to its start) is copied into token buffer
+        for (String prefix : new String[] {json.replace("\"a\"", "\"b\""), "{[{[{[{[{[{[{[{[{[{[{[{[{[{[{[{[{["}) {
+            byte[] bytes = (prefix + json).getBytes("UTF-8");
+            order = objectMapper.readValue(bytes, prefix.length(), json.length(), Order.class);
+            assertEquals(objectMapper.writeValueAsString(order), json.replace(", ", ","));
+        }
+    }
+
+    @Test
+    public void testParallelArrayReading() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule());
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            json.append(i == 0 ? "" : ",\n").append("{\"id\":").append(i).append(", \"ignored\":\"],\\\"\"}");
+        }
+        byte[] bytes = json.append("]").toString().getBytes("UTF-8");
+        ObjectReader reader = objectMapper.reader(Event.class).without(
+            DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Event> events = ParallelBeanReader.readArray(reader, bytes, 64, executor);
+            assertEquals(events.size(), 1000);
+            for (int i = 0; i < events.size(); i++) {
+                assertEquals(events.get(i).id, i);
+            }
+            assertEquals(ParallelBeanReader.<Event>readArray(reader, ByteBuffer.wrap(bytes), 1 << 20, executor).
+                get(999).id, 999);
+            assertEquals(ParallelBeanReader.readArray(reader, " [ ] ".getBytes("UTF-8"), 64, executor).size(), 0);
+            ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 1);
+            direct.put((byte) ' ').put(bytes).position(1);
+            assertEquals(ParallelBeanReader.<Event>readArray(reader, direct, 64, executor).get(999).id, 999);
+            try {
+                ParallelBeanReader.readArray(reader, "[{\"id\":0}] [".getBytes("UTF-8"), 64, executor);
+                fail();
+            } catch (JsonParseException e) {
+                assertTrue(e.getMessage().startsWith("Trailing token"));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelListWriting() throws Exception {
+        ObjectMapper objectMapper = objectMapper(new JsonAdviceModule());
+        List<User> users = new ArrayList<User>();
+        for (int i = 0; i < 1000; i++) {
+            users.add(new User("Sponge", "Bob #" + i, "loves you"));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (ObjectWriter writer : new ObjectWriter[] {objectMapper.writer(),
+                    objectMapper.writerWithDefaultPrettyPrinter()}) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ParallelBeanWriter.writeList(writer, users, out, 64, executor);
+                assertEquals(out.toByteArray(), writer.writeValueAsBytes(users));
+            }
+            // type information makes chunks differ from the whole list unless both are ArrayLists
+            objectMapper.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_FINAL);
+            for (List<User> list : Arrays.asList(users, Arrays.asList(users.toArray(new User[users.size()])))) {
+                ObjectWriter writer = objectMapper.writer();
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                ParallelBeanWriter.writeList(writer, list, out, 64, executor);
+                assertEquals(new String(out.toByteArray(), "UTF-8"), writer.writeValueAsString(list));
+            }
+            // advices are called exactly once per bean (whether list is written in parallel or sequentially)
+            for (List<User> list : Arrays.asList(users, Arrays.asList(users.toArray(new User[users.size()])))) {
+                CachingAdviceFactory adviceFactory = new CachingAdviceFactory();
+                objectMapper = objectMapper(new JsonAdviceModule().withAdviceFactory(adviceFactory));
+                objectMapper.addMixInAnnotations(User.class, CountingUserMixin.class);
+                ParallelBeanWriter.writeList(objectMapper.writer(), list, new ByteArrayOutputStream(), 64, executor);
+                assertEquals(adviceFactory.getAdvice(CountingUserSerializationAdvice.class).count.get(), users.size());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testAdviceFactory() throws Exception {
+        final CachingAdviceFactory cachingAdviceFactory = new CachingAdviceFactory();
+        assertTrue(cachingAdviceFactory.getAdvice(UserSerializationAdvice.class) ==
+            cachingAdviceFactory.getAdvice(UserSerializationAdvice.class));
+        assertFalse(cachingAdviceFactory.getAdvice(IndexedUserSerializationAdvice.class) ==
+            cachingAdviceFactory.getAdvice(IndexedUserSerializationAdvice.class));
+        final UserSerializationAdvice managedAdvice = new UserSerializationAdvice() {
+
+            @Override
+            public void after(User bean, JsonGenerator json, BeanProperty property, SerializerProvider provider)
+                    throws IOException {
+                if ("lastName".equals(property.getName())) {
+                    json.writeStringField("managed", "true");
+                }
+            }
+        };
+        final List<Class<?>> requested = new ArrayList<Class<?>>();
+        JsonAdviceModule module = new JsonAdviceModule().withAdviceFactory(new AdviceFactory() {
+
+            @Override
+            public <T> T getAdvice(Class<T> adviceClass) {
+                requested.add(adviceClass);
+                return adviceClass == UserSerializationAdvice.class ? adviceClass.cast(managedAdvice) :
+                    cachingAdviceFactory.getAdvice(adviceClass);
+            }
+        });
+        assertEquals(objectMapper(module).writeValueAsString(new User("Sponge", "Bob", "loves you")),
+            "{\"firstName\":\"Sponge\",\"lastName\":\"Bob\",\"managed\":\"true\"}");
+        assertEquals(requested, Arrays.<Class<?>>asList(UserSerializationAdvice.class));
+    }
+
+    @Test
+    public void testVersion() throws Exception {
+        final List<String> requestedResources = new ArrayList<String>();
+        URL moduleLocation = JsonAdviceModule.class.getProtectionDomain().getCodeSource().getLocation();
+        // (re)loads module classes (the rest is left to the parent)
+        ClassLoader classLoader = new URLClassLoader(new URL[] {moduleLocation}, getClass().getClassLoader()) {
+
+            @Override
+            protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (!name.startsWith(JsonAdviceModule.class.getPackage().getName())) {
+                    return super.loadClass(name, resolve);
+                }
+                Class<?> loadedClass = findLoadedClass(name);
+                return loadedClass != null ? loadedClass : findClass(name);
+            }
+
+            @Override
+            public Enumeration<URL> getResources(String name) throws IOException {
+                requestedResources.add(name);
+                return super.getResources(name);
+            }
+        };
+        Class<?> moduleClass = Class.forName(JsonAdviceModule.class.getName(), true, classLoader);
+        assertTrue(moduleClass != JsonAdviceModule.class);
+        Version version = ((Module) moduleClass.newInstance()).version();
+        assertFalse(version.isUknownVersion());
+        assertEquals(version, PackageVersion.VERSION);
+        assertEquals(version.getArtifactId(), "jackson-module-advice");
+        assertEquals(requestedResources, Collections.<String>emptyList());
+    }
+
+    @Test
+    public void testAdviceIntrospection() throws Exception {
+        Class<?>[] parameterTypes = {Object.class, JsonGenerator.class, BeanProperty.class, SerializerProvider.class};
+        assertTrue(AdviceIntrospector.overrides(UserSerializationAdvice.class, AbstractBeanSerializerAdvice.class,
+                "after", parameterTypes));
+        assertFalse(AdviceIntrospector.overrides(UserSerializationAdvice.class, AbstractBeanSerializerAdvice.class,
+                "before", parameterTypes));
+        assertTrue(AdviceIntrospector.overrides(BeanSerializerAdvice.class, AbstractBeanSerializerAdvice.class,
+                "before", parameterTypes));
+    }
+
     private ObjectMapper objectMapper(Module... modules) {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.addMixInAnnotations(User.class, UserMixin.class);
@@ -64,6 +731,16 @@ public class JsonAdviceModuleTest {
 
     }
 
+    static class NoopSerializationAdvice extends AbstractBeanSerializerAdvice<Object> {
+
+        @Override
+        public void after(Object bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+        }
+    }
+
+    static class AnotherNoopSerializationAdvice extends NoopSerializationAdvice {
+    }
+
     static class UserSerializationAdvice extends AbstractBeanSerializerAdvice<User> {
 
         @Override
@@ -75,17 +752,722 @@ public class JsonAdviceModuleTest {
         }
     }
 
-    static class UserDeserializationAdvice extends AbstractBeanDeserializerAdvice<User> {
+    @JsonSerializerAdvice(CountingUserSerializationAdvice.class)
+    abstract class CountingUserMixin {
+
+        @JsonIgnore
+        public String password;
+
+    }
+
+    static class CountingUserSerializationAdvice extends AbstractBeanSerializerAdvice<User> {
+
+        private final AtomicInteger count = new AtomicInteger();
 
         @Override
-        public boolean intercept(User bean, String propertyName, JsonParser json, DeserializationContext context)
+        public void before(User bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+            count.incrementAndGet();
+        }
+    }
+
+    @JsonSerializerAdvice(BeanScopedUserSerializationAdvice.class)
+    abstract class BeanScopedUserMixin {
+
+        @JsonIgnore
+        public String password;
+
+    }
+
+    static class BeanScopedUserSerializationAdvice extends AbstractBeanSerializerAdvice<User> {
+
+        @Override
+        public void before(User bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+            json.writeStringField("self", "/users/" + bean.firstName);
+        }
+    }
+
+    @JsonSerializerAdvice(BatchUserSerializationAdvice.class)
+    abstract class BatchUserMixin {
+
+        @JsonIgnore
+        public String password;
+
+    }
+
+    static class BatchUserSerializationAdvice extends AbstractBeanSerializerAdvice<User>
+            implements BatchBeanSerializerAdvice<User> {
+
+        @Override
+        public Object prepare(Collection<? extends User> beans, SerializerProvider provider) throws IOException {
+            StringBuilder sb = new StringBuilder();
+            for (User user : beans) {
+                sb.append(sb.length() == 0 ? "" : ",").append(user.firstName);
+            }
+            return sb.toString();
+        }
+
+        @Override
+        public void before(User bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+            json.writeObjectField("batch", BatchPreparingCollectionSerializer.getPrepared(provider, this));
+        }
+    }
+
+    @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+    @JsonSerializerAdvice(ArrayShapedUserSerializationAdvice.class)
+    abstract class ArrayShapedUserMixin {
+
+        @JsonIgnore
+        public String password;
+
+    }
+
+    static class ArrayShapedUserSerializationAdvice extends AbstractBeanSerializerAdvice<User> {
+
+        @Override
+        public boolean intercept(User bean, JsonGenerator json, BeanProperty property, SerializerProvider provider)
                 throws IOException {
-            if ("password".equals(propertyName)) {
-                bean.password = json.getText();
+            if ("lastName".equals(property.getName())) {
+                json.writeString(bean.lastName.toUpperCase());
                 return true;
             }
             return false;
         }
+
+        @Override
+        public void after(User bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+            json.writeString("/users/" + bean.firstName);
+        }
+    }
+
+    @JsonSerializerAdvice({BeanScopedUserSerializationAdvice.class, UserSerializationAdvice.class})
+    @JsonDeserializerAdvice(UserDeserializationAdvice.class)
+    abstract class ChainedUserMixin {
+
+        @JsonIgnore
+        public String password;
+
+    }
+
+    static class VersionedUserSerializationAdvice extends AbstractBeanSerializerAdvice<User> {
+
+        @Override
+        public void after(User bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+            json.writeNumberField("version", 1);
+        }
+    }
+
+    @JsonSerializerAdvice(ContextualUserSerializationAdvice.class)
+    @JsonDeserializerAdvice(ContextualUserDeserializationAdvice.class)
+    abstract class ContextualUserMixin {
+
+        @JsonIgnore
+        public String password;
+
+    }
+
+    static class ContextualUserSerializationAdvice extends AbstractContextualBeanSerializerAdvice<User, int[]> {
+
+        @Override
+        protected int[] newContext() {
+            return new int[1];
+        }
+
+        @Override
+        protected void reset(int[] context) {
+            context[0] = 0;
+        }
+
+        @Override
+        public void after(User bean, JsonGenerator json, BeanProperty property, SerializerProvider provider)
+                throws IOException {
+            context()[0]++;
+        }
+
+        @Override
+        public void after(User bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+            json.writeNumberField("propertyCount", context()[0]);
+        }
+    }
+
+    static class ContextualUserDeserializationAdvice
+            extends AbstractContextualBeanDeserializerAdvice<User, StringBuilder> {
+
+        @Override
+        protected StringBuilder newContext() {
+            return new StringBuilder();
+        }
+
+        @Override
+        protected void reset(StringBuilder context) {
+            context.setLength(0);
+        }
+
+        @Override
+        public boolean intercept(User bean, String propertyName, JsonParser json, DeserializationContext context)
+                throws IOException {
+            context().append(propertyName).append(',');
+            return false;
+        }
+
+        @Override
+        public void after(User bean, JsonParser json, DeserializationContext context) throws IOException {
+            bean.password = context().toString();
+        }
+    }
+
+    abstract class PropertyScopedUserMixin {
+
+        @JsonSerializerAdvice(UserSerializationAdvice.class)
+        public String firstName;
+        @JsonDeserializerAdvice(LastNameDeserializationAdvice.class)
+        public String lastName;
+        @JsonIgnore
+        public String password;
+
+    }
+
+    static class LastNameDeserializationAdvice extends AbstractBeanDeserializerAdvice<User> {
+
+        @Override
+        public boolean intercept(User bean, String propertyName, JsonParser json, DeserializationContext context)
+                throws IOException {
+            bean.lastName = json.getText().toUpperCase();
+            return true;
+        }
+    }
+
+    @JsonSerializerAdvice(IndexedUserSerializationAdvice.class)
+    @JsonDeserializerAdvice(IndexedUserDeserializationAdvice.class)
+    abstract class IndexedUserMixin {
+
+        @JsonIgnore
+        public String password;
+
+    }
+
+    static class IndexedUserSerializationAdvice extends AbstractIndexedBeanSerializerAdvice<User> {
+
+        private int firstNameIndex;
+
+        @Override
+        public void resolve(PropertyIndex propertyIndex) {
+            firstNameIndex = propertyIndex.indexOf("firstName");
+        }
+
+        @Override
+        public void after(User bean, JsonGenerator json, int propertyIndex, BeanProperty property,
+                SerializerProvider provider) throws IOException {
+            if (propertyIndex == firstNameIndex) {
+                json.writeStringField("fieldInTheMiddle", "value");
+            }
+        }
+    }
+
+    static class IndexedUserDeserializationAdvice extends AbstractIndexedBeanDeserializerAdvice<User> {
+
+        private int lastNameIndex;
+
+        @Override
+        public void resolve(PropertyIndex propertyIndex) {
+            lastNameIndex = propertyIndex.indexOf("lastName");
+        }
+
+        @Override
+        public boolean intercept(User bean, int propertyIndex, String propertyName, JsonParser json,
+                DeserializationContext context) throws IOException {
+            if (propertyIndex == lastNameIndex) {
+                bean.lastName = json.getText().toUpperCase();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    static class UserDeserializationAdvice extends AbstractBeanDeserializerAdvice<User> {
+
+        @Override
+        public boolean intercept(User bean, String propertyName, JsonParser json, DeserializationContext context)
+                throws IOException {
+            if ("password".equals(propertyName)) {
+                bean.password = json.getText();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    @JsonDeserializerAdvice(SelectiveLastNameDeserializationAdvice.class)
+    abstract class SelectiveUserMixin {
+
+        @JsonIgnore
+        public String password;
+
+    }
+
+    static class SelectiveLastNameDeserializationAdvice extends AbstractSelectiveBeanDeserializerAdvice<User> {
+
+        private final List<String> intercepted = new ArrayList<String>();
+
+        SelectiveLastNameDeserializationAdvice() {
+            super("lastName");
+        }
+
+        @Override
+        public boolean intercept(User bean, String propertyName, JsonParser json, DeserializationContext context)
+                throws IOException {
+            intercepted.add(propertyName);
+            if ("lastName".equals(propertyName)) {
+                bean.lastName = json.getText().toUpperCase();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    static class SelectivePasswordDeserializationAdvice extends AbstractSelectiveBeanDeserializerAdvice<User> {
+
+        private final List<String> intercepted = new ArrayList<String>();
+
+        SelectivePasswordDeserializationAdvice() {
+            super("password");
+        }
+
+        @Override
+        public boolean intercept(User bean, String propertyName, JsonParser json, DeserializationContext context)
+                throws IOException {
+            intercepted.add(propertyName);
+            if ("password".equals(propertyName)) {
+                bean.password = json.getText();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    @JsonSerializerAdvice(VirtualPropertyUserSerializationAdvice.class)
+    abstract class VirtualPropertyUserMixin {
+
+        @JsonIgnore
+        public String password;
+
+    }
+
+    interface InternalView {
+    }
+
+    static class VirtualPropertyUserSerializationAdvice extends AbstractBeanSerializerAdvice<User>
+            implements VirtualPropertyBeanSerializerAdvice<User> {
+
+        @Override
+        public List<VirtualProperty<User, ?>> getVirtualProperties() {
+            return Arrays.<VirtualProperty<User, ?>>asList(
+                VirtualProperty.of("fullName", String.class, new VirtualProperty.Accessor<User, String>() {
+
+                    @Override
+                    public String get(User bean) {
+                        return bean.lastName != null ? bean.firstName + " " + bean.lastName : null;
+                    }
+                }).after("firstName"),
+                VirtualProperty.of("initials", String.class, new VirtualProperty.Accessor<User, String>() {
+
+                    @Override
+                    public String get(User bean) {
+                        return bean.firstName.substring(0, 1) +
+                            (bean.lastName != null ? bean.lastName.substring(0, 1) : "");
+                    }
+                }).before("firstName").withViews(InternalView.class)
+            );
+        }
+    }
+
+    @JsonSerializerAdvice({FieldInjectingUserSerializationAdvice.class, CachingUserSerializationAdvice.class})
+    abstract class FieldInjectingUserMixin {
+
+        @JsonIgnore
+        public String password;
+
+    }
+
+    static class FieldInjectingUserSerializationAdvice extends AbstractFieldInjectingBeanSerializerAdvice<User> {
+
+        FieldInjectingUserSerializationAdvice() {
+            super("self", "kind");
+        }
+
+        @Override
+        public void before(User bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+            json.writeFieldName(fieldName(0));
+            json.writeString("/users/" + bean.firstName);
+            json.writeFieldName(fieldName(1));
+            json.writeString("user");
+        }
+    }
+
+    @JsonSerializerAdvice(CachingUserSerializationAdvice.class)
+    abstract class CachingUserMixin {
+
+        @JsonIgnore
+        public String password;
+
+    }
+
+    static class CachingUserSerializationAdvice extends AbstractCachingBeanSerializerAdvice<User> {
+
+        static final FragmentCache FRAGMENT_CACHE = new FragmentCache(1, 1, TimeUnit.MINUTES);
+
+        CachingUserSerializationAdvice() {
+            super("links", FRAGMENT_CACHE);
+        }
+
+        @Override
+        protected Object getCacheKey(User bean) {
+            return bean.firstName;
+        }
+
+        @Override
+        protected void writeFragment(User bean, JsonGenerator json, SerializerProvider provider)
+                throws IOException {
+            json.writeStartArray();
+            json.writeStartObject();
+            json.writeStringField("rel", "self");
+            json.writeStringField("href", "/users/" + bean.firstName);
+            json.writeEndObject();
+            json.writeEndArray();
+        }
+    }
+
+    @JsonSerializerAdvice(UserSerializationAdvice.class)
+    @JsonIdentityInfo(generator = ObjectIdGenerators.IntSequenceGenerator.class)
+    abstract class IdentifiedUserMixin {
+
+        @JsonIgnore
+        public String password;
+
+    }
+
+    static class CreatorLoginDeserializationAdvice extends AbstractCreatorBeanDeserializerAdvice<Login> {
+
+        final List<String> interceptedBeforeCreation = new ArrayList<String>();
+
+        @Override
+        public boolean interceptBeforeCreation(CreatorParameters parameters, String propertyName, JsonParser json,
+                DeserializationContext context) throws IOException {
+            interceptedBeforeCreation.add(propertyName);
+            if ("secret".equals(propertyName)) {
+                parameters.assign("password", json.getText().toUpperCase());
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void before(Login bean, JsonParser json, DeserializationContext context) throws IOException {
+            bean.trace = "before";
+        }
+
+        @Override
+        public boolean intercept(Login bean, String propertyName, JsonParser json, DeserializationContext context)
+                throws IOException {
+            if ("role".equals(propertyName)) {
+                bean.role = json.getText().toUpperCase();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void after(Login bean, JsonParser json, DeserializationContext context) throws IOException {
+            bean.trace += ",after";
+        }
+    }
+
+    @JsonDeserializerAdvice(CreatorLoginDeserializationAdvice.class)
+    static class Login {
+
+        public final String name;
+        public final String password;
+        public String role;
+        @JsonIgnore
+        public String trace;
+
+        @JsonCreator
+        Login(@JsonProperty("name") String name, @JsonProperty("password") String password) {
+            this.name = name;
+            this.password = password;
+        }
+    }
+
+    static class BadgeDeserializationAdvice extends AbstractBeanDeserializerAdvice<Badge> {
+
+        @Override
+        public void before(Badge bean, JsonParser json, DeserializationContext context) throws IOException {
+            bean.trace = "before:" + bean.title;
+        }
+    }
+
+    @JsonDeserializerAdvice(BadgeDeserializationAdvice.class)
+    static class Badge {
+
+        public final String id;
+        public String title;
+        @JsonIgnore
+        public String trace;
+
+        @JsonCreator
+        Badge(@JsonProperty("id") String id) {
+            this.id = id;
+        }
+    }
+
+    static class NoteDeserializationAdvice extends AbstractBeanDeserializerAdvice<Noted> {
+
+        @Override
+        public void before(Noted bean, JsonParser json, DeserializationContext context) throws IOException {
+            bean.trace = "before";
+        }
+
+        @Override
+        public boolean intercept(Noted bean, String propertyName, JsonParser json, DeserializationContext context)
+                throws IOException {
+            if ("note".equals(propertyName)) {
+                bean.note = json.getText().toUpperCase();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void after(Noted bean, JsonParser json, DeserializationContext context) throws IOException {
+            bean.trace += ",after";
+        }
+    }
+
+    abstract static class Noted {
+
+        public String note;
+        @JsonIgnore
+        public String trace;
+    }
+
+    @JsonDeserializerAdvice(NoteDeserializationAdvice.class)
+    static class Envelope extends Noted {
+
+        public final String id;
+        @JsonUnwrapped
+        public User user;
+
+        @JsonCreator
+        Envelope(@JsonProperty("id") String id) {
+            this.id = id;
+        }
+    }
+
+    @JsonDeserializerAdvice(NoteDeserializationAdvice.class)
+    static class Shipment extends Noted {
+
+        public final String id;
+        @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.EXTERNAL_PROPERTY, property = "payloadType")
+        @JsonSubTypes(@JsonSubTypes.Type(value = User.class, name = "user"))
+        public Object payload;
+
+        @JsonCreator
+        Shipment(@JsonProperty("id") String id) {
+            this.id = id;
+        }
+    }
+
+    static class SampleDeserializationAdvice extends AbstractPrimitiveBeanDeserializerAdvice<Sample> {
+
+        private int countIndex;
+        private int timestampIndex;
+
+        @Override
+        public void resolve(PropertyIndex propertyIndex) {
+            countIndex = propertyIndex.indexOf("count");
+            timestampIndex = propertyIndex.indexOf("timestamp");
+        }
+
+        @Override
+        public boolean interceptLong(Sample bean, int propertyIndex, long value) throws IOException {
+            if (propertyIndex == countIndex) {
+                bean.count = (int) value * 2;
+            } else if (propertyIndex == timestampIndex) {
+                bean.timestamp = value / 1000;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean interceptDouble(Sample bean, int propertyIndex, double value) throws IOException {
+            bean.ratio = value * 100;
+            return true;
+        }
+
+        @Override
+        public boolean interceptBoolean(Sample bean, int propertyIndex, boolean value) throws IOException {
+            bean.active = !value;
+            return true;
+        }
+
+        @Override
+        public boolean interceptText(Sample bean, int propertyIndex, char[] text, int offset, int length)
+                throws IOException {
+            bean.unit = new String(text, offset, length).toUpperCase();
+            return true;
+        }
+    }
+
+    @JsonDeserializerAdvice(SampleDeserializationAdvice.class)
+    static class Sample {
+
+        public int count;
+        public long timestamp;
+        public double ratio;
+        public boolean active;
+        public String unit;
+        public List<String> tags;
+    }
+
+    static class ReportDeserializationAdvice extends AbstractLazyBeanDeserializerAdvice<Report> {
+
+        public ReportDeserializationAdvice() {
+            super("rows");
+        }
+    }
+
+    @JsonDeserializerAdvice(ReportDeserializationAdvice.class)
+    static class Report {
+
+        public String title;
+        public Lazy<List<Row>> rows;
+        public Lazy<Row> summary;
+    }
+
+    static class Row {
+
+        public int id;
+    }
+
+    static class OrderDeserializationAdvice extends AbstractPassThroughBeanDeserializerAdvice<Order> {
+
+        public OrderDeserializationAdvice() {
+            super("items", "meta");
+        }
+
+        @Override
+        protected RawProperties getRawProperties(Order bean) {
+            return bean.rawProperties;
+        }
+    }
+
+    static class OrderSerializationAdvice extends AbstractPassThroughBeanSerializerAdvice<Order> {
+
+        @Override
+        protected RawProperties getRawProperties(Order bean) {
+            return bean.rawProperties;
+        }
+    }
+
+    @JsonSerializerAdvice(OrderSerializationAdvice.class)
+    @JsonDeserializerAdvice(OrderDeserializationAdvice.class)
+    static class Order {
+
+        public int id;
+        public String status;
+        public List<Map<String, Object>> items;
+        @JsonIgnore
+        public final RawProperties rawProperties = new RawProperties();
+    }
+
+    static class EventDeserializationAdvice extends AbstractBeanDeserializerAdvice<Event> {
+
+        @Override
+        public void after(Event bean, JsonParser json, DeserializationContext context) throws IOException {
+            if (bean.id % 5 != 0) {
+                BeanStream.emit(context, bean);
+            }
+        }
+    }
+
+    @JsonDeserializerAdvice(EventDeserializationAdvice.class)
+    static class Event {
+
+        public int id;
+    }
+
+    @JsonSerializerAdvice(NoopSerializationAdvice.class)
+    @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "type")
+    static class Parcel {
+
+        @JsonTypeId
+        public String kind;
+        public String content;
+
+        Parcel(String kind, String content) {
+            this.kind = kind;
+            this.content = content;
+        }
+    }
+
+    @JsonDeserializerAdvice(NoteDeserializationAdvice.class)
+    static class Memo extends Noted {
+
+        @JacksonInject("author")
+        public String author;
+    }
+
+    static class Team {
+
+        @JsonIgnoreProperties("lastName")
+        public User captain;
+
+        Team(User captain) {
+            this.captain = captain;
+        }
+    }
+
+    @JsonSerializerAdvice(ShelfSerializationAdvice.class)
+    @JsonPropertyOrder({"label", "books", "capacity", "free"})
+    static class Shelf {
+
+        public String label;
+        @JsonProperty
+        private int capacity;
+        private final List<String> books;
+
+        Shelf(String label, int capacity, String... books) {
+            this.label = label;
+            this.capacity = capacity;
+            this.books = Arrays.asList(books);
+        }
+
+        @JsonProperty
+        List<String> getBooks() {
+            return books;
+        }
+    }
+
+    static class ShelfSerializationAdvice extends AbstractIndexedBeanSerializerAdvice<Shelf> {
+
+        @Override
+        public void after(Shelf bean, JsonGenerator json, int propertyIndex, BeanProperty property,
+                SerializerProvider provider) throws IOException {
+            if ("capacity".equals(property.getName())) {
+                json.writeNumberField("free", bean.capacity - bean.getBooks().size());
+            }
+        }
+    }
+
+    static class Account {
+
+        public String login;
+        @JsonUnwrapped
+        public User user;
+
+        Account(String login, User user) {
+            this.login = login;
+            this.user = user;
+        }
     }
 
     static class User {
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013 Stanley Shyiko
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.shyiko.jackson.module.advice.registry;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.github.shyiko.jackson.module.advice.AbstractBeanSerializerAdvice;
+import com.github.shyiko.jackson.module.advice.AdviceRegistry;
+import com.github.shyiko.jackson.module.advice.BeanDeserializerAdvice;
+import com.github.shyiko.jackson.module.advice.BeanSerializerAdvice;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hand-written stand-in for the registry jackson-module-advice-processor generates for this package (indexing
+ * {@link Badge}, which is not annotated, so that advice gets applied only if registry is found).
+ * @author <a href="mailto:stanley.shyiko@gmail.com">Stanley Shyiko</a>
+ */
+@SuppressWarnings("unchecked")
+public class GeneratedAdviceRegistry implements AdviceRegistry {
+
+    public static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    public GeneratedAdviceRegistry() {
+        INSTANCES.incrementAndGet();
+    }
+
+    @Override
+    public List<Class<? extends BeanSerializerAdvice<?>>> getSerializerAdvices(Class<?> type) {
+        if (type != Badge.class) {
+            return null;
+        }
+        return Collections.<Class<? extends BeanSerializerAdvice<?>>>singletonList(BadgeSerializationAdvice.class);
+    }
+
+    @Override
+    public List<Class<? extends BeanDeserializerAdvice<?>>> getDeserializerAdvices(Class<?> type) {
+        return null;
+    }
+
+    @Override
+    public <T> T newInstance(Class<T> adviceClass) {
+        return adviceClass == BadgeSerializationAdvice.class ? (T) new BadgeSerializationAdvice() : null;
+    }
+
+    public static class Badge {
+
+        public String label = "gold";
+    }
+
+    static class BadgeSerializationAdvice extends AbstractBeanSerializerAdvice<Badge> {
+
+        @Override
+        public void before(Badge bean, JsonGenerator json, SerializerProvider provider) throws IOException {
+            json.writeBooleanField("indexed", true);
+        }
+    }
+
+}